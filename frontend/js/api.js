@@ -20,6 +20,11 @@ class APIClient {
         return this._get('/patients');
     }
 
+    // Ranked matches for part of a name, phone number or email: { query, total, offset, patients }
+    static async searchPatients(query, offset = 0, limit = 20) {
+        return this._get(`/patients/search?q=${encodeURIComponent(query)}&offset=${offset}&limit=${limit}`);
+    }
+
     // Doctor APIs
     static async addDoctor(data) {
         return this._post('/doctors', data);
@@ -63,6 +68,17 @@ class APIClient {
         return this._get(`/appointment-requests/patient/${patientId}`);
     }
 
+    // Pushes pending-queue deltas ('added', 'status', 'booked', 'reset') to onEvent(type, data).
+    // The browser reconnects on its own and the server replays what was missed; on 'reset'
+    // re-fetch the pending list. Returns the EventSource, close() it to stop.
+    static subscribePendingRequestEvents(onEvent) {
+        const source = new EventSource(`${API_BASE_URL}/appointment-requests/events`);
+        ['added', 'status', 'booked', 'reset'].forEach(type => {
+            source.addEventListener(type, event => onEvent(type, JSON.parse(event.data)));
+        });
+        return source;
+    }
+
     // Helper methods
     static async _get(endpoint) {
         try {
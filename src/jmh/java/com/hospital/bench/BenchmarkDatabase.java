@@ -0,0 +1,177 @@
+package com.hospital.bench;
+
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.util.DatabaseConnection;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Clinic-sized benchmark data, seeded through the storage engine's batch DAO methods.
+ * The JDBC engine runs against embedded H2 in MySQL mode, created from
+ * database_schema.sql. Each JMH fork gets its own in-memory copy.
+ */
+public final class BenchmarkDatabase {
+    public static final String[] SPECIALIZATIONS = {
+        "Cardiology", "Neurology", "General", "Pediatrics", "Orthopedics",
+        "Dermatology", "Oncology", "Psychiatry", "Radiology", "Urology"
+    };
+
+    public static final int PATIENTS = Integer.getInteger("bench.patients", 50000);
+    public static final int DOCTORS = Integer.getInteger("bench.doctors", 200);
+    public static final int HISTORY_DAYS = Integer.getInteger("bench.historyDays", 730);
+    public static final int REQUESTS = Integer.getInteger("bench.requests", 20000);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static boolean seeded;
+
+    private BenchmarkDatabase() {
+    }
+
+    /**
+     * Seeds the configured storage engine once per JVM. For the default JDBC engine this
+     * first points DatabaseConnection at a fresh in-memory H2 database and creates the
+     * schema; with -Dstorage.engine=memory the in-memory engine is seeded directly.
+     */
+    public static synchronized void seed() throws SQLException, IOException {
+        if (seeded) {
+            return;
+        }
+        if (!"memory".equalsIgnoreCase(System.getProperty("storage.engine"))) {
+            System.setProperty("db.url", "jdbc:h2:mem:hospital_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            System.setProperty("db.username", "sa");
+            System.setProperty("db.password", "");
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                createSchema(conn);
+            }
+        }
+
+        StorageEngine storage = Storage.getEngine();
+        Random random = new Random(42);
+        seedPatients(storage);
+        seedDoctors(storage, random);
+        seedAppointments(storage, random);
+        seedRequests(storage, random);
+        seeded = true;
+    }
+
+    private static void createSchema(Connection conn) throws SQLException, IOException {
+        try (InputStream input = BenchmarkDatabase.class.getClassLoader().getResourceAsStream("database_schema.sql");
+             Statement stmt = conn.createStatement()) {
+            if (input == null) {
+                throw new IOException("database_schema.sql not found on classpath");
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    current.setLength(0);
+                    String upper = sql.toUpperCase(Locale.ROOT);
+                    // The in-memory database is already selected; sample rows are replaced by the seed
+                    if (upper.startsWith("CREATE DATABASE") || upper.startsWith("USE ")
+                            || upper.startsWith("INSERT IGNORE INTO PATIENTS") || upper.startsWith("INSERT IGNORE INTO DOCTORS")) {
+                        continue;
+                    }
+                    stmt.execute(sql.substring(0, sql.length() - 1));
+                }
+            }
+        }
+    }
+
+    private static void seedPatients(StorageEngine storage) throws SQLException {
+        List<Patient> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= PATIENTS; i++) {
+            batch.add(new Patient("Patient " + i, "patient" + i + "@example.com", String.format("555%07d", i),
+                18 + i % 70, i % 2 == 0 ? "F" : "M", i + " Main St, City"));
+            if (batch.size() == BATCH_SIZE || i == PATIENTS) {
+                storage.inTransaction(tx -> {
+                    storage.patients().addPatientsBatch(tx, batch);
+                    return null;
+                });
+                batch.clear();
+            }
+        }
+    }
+
+    private static void seedDoctors(StorageEngine storage, Random random) throws SQLException {
+        List<Doctor> doctors = new ArrayList<>(DOCTORS);
+        for (int i = 1; i <= DOCTORS; i++) {
+            String specialization = SPECIALIZATIONS[i % SPECIALIZATIONS.length];
+            doctors.add(new Doctor("Dr. Doctor " + i, specialization, "doctor" + i + "@hospital.com",
+                String.format("444%07d", i), "MD, " + specialization, 1 + random.nextInt(30), true));
+        }
+        storage.inTransaction(tx -> {
+            storage.doctors().addDoctorsBatch(tx, doctors);
+            return null;
+        });
+    }
+
+    // At most one CONFIRMED appointment per doctor per day, matching what fixAppointment allows
+    private static void seedAppointments(StorageEngine storage, Random random) throws SQLException {
+        LocalDate today = LocalDate.now();
+        List<Appointment> batch = new ArrayList<>(BATCH_SIZE);
+        for (int day = -HISTORY_DAYS; day <= 30; day++) {
+            Timestamp date = Timestamp.valueOf(today.plusDays(day).atTime(9, 0));
+            for (int doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+                if (random.nextInt(10) == 0) {
+                    continue;
+                }
+                batch.add(new Appointment(1 + random.nextInt(PATIENTS), doctorId, date,
+                    random.nextInt(20) == 0 ? "CANCELLED" : "CONFIRMED"));
+                if (batch.size() == BATCH_SIZE) {
+                    insertAppointments(storage, batch);
+                }
+            }
+        }
+        insertAppointments(storage, batch);
+    }
+
+    private static void insertAppointments(StorageEngine storage, List<Appointment> batch) throws SQLException {
+        if (batch.isEmpty()) {
+            return;
+        }
+        storage.inTransaction(tx -> {
+            storage.appointments().addAppointmentsBatch(tx, batch);
+            return null;
+        });
+        batch.clear();
+    }
+
+    private static void seedRequests(StorageEngine storage, Random random) {
+        LocalDate today = LocalDate.now();
+        for (int i = 1; i <= REQUESTS; i++) {
+            boolean pendingRequest = i % 10 == 0;
+            LocalDate date = pendingRequest ? today.plusDays(1 + random.nextInt(60)) : today.minusDays(random.nextInt(HISTORY_DAYS));
+            AppointmentRequest request = new AppointmentRequest(1 + random.nextInt(PATIENTS),
+                SPECIALIZATIONS[random.nextInt(SPECIALIZATIONS.length)], java.sql.Date.valueOf(date),
+                pendingRequest ? "PENDING" : "APPROVED");
+            request.setDescription("Seeded request " + i);
+            storage.requests().addAppointmentRequest(request);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read paths dominated by ResultSet-to-model mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoMappingBenchmark {
+    private AppointmentDAO appointmentDAO;
+    private AppointmentRequestDAO requestDAO;
+    private PatientDAO patientDAO;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkDatabase.seed();
+        appointmentDAO = Storage.getEngine().appointments();
+        requestDAO = Storage.getEngine().requests();
+        patientDAO = Storage.getEngine().patients();
+    }
+
+    @Benchmark
+    public List<Appointment> appointmentsFirstPage() {
+        return appointmentDAO.getAppointmentsPage(null, 0, 500);
+    }
+
+    @Benchmark
+    public List<Appointment> patientHistory() {
+        return appointmentDAO.getAppointmentsByPatientId(1 + ThreadLocalRandom.current().nextInt(BenchmarkDatabase.PATIENTS));
+    }
+
+    @Benchmark
+    public List<AppointmentRequest> pendingQueue() {
+        return requestDAO.getAllPendingRequests();
+    }
+
+    @Benchmark
+    public int streamAllPatients(Blackhole blackhole) {
+        return patientDAO.streamAllPatients(blackhole::consume);
+    }
+}
@@ -0,0 +1,75 @@
+package com.hospital.bench;
+
+import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.Storage;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.service.AppointmentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AppointmentService.fixAppointment end to end: row locks, availability check,
+ * insert and approval in one transaction. Each invocation books a fresh
+ * (doctor, day) pair beyond the seeded appointments so the call always succeeds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FixAppointmentBenchmark {
+    private AppointmentService appointmentService;
+    private AppointmentRequestDAO requestDAO;
+    private List<Doctor> doctors;
+    private LocalDate firstFreeDay;
+    private long sequence;
+
+    private int requestId;
+    private int doctorId;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        BenchmarkDatabase.seed();
+        appointmentService = new AppointmentService();
+        requestDAO = Storage.getEngine().requests();
+        doctors = Storage.getEngine().doctors().getAllDoctors();
+        firstFreeDay = LocalDate.now().plusDays(60);
+    }
+
+    @Setup(Level.Invocation)
+    public void createRequest() {
+        long n = sequence++;
+        Doctor doctor = doctors.get((int) (n % doctors.size()));
+        LocalDate day = firstFreeDay.plusDays(n / doctors.size());
+        AppointmentRequest request = new AppointmentRequest(
+            1 + (int) (n % BenchmarkDatabase.PATIENTS), doctor.getSpecialization(), Date.valueOf(day), "PENDING");
+        request.setDescription("Benchmark request " + n);
+        requestId = requestDAO.addAppointmentRequest(request);
+        doctorId = doctor.getDoctorId();
+    }
+
+    @Benchmark
+    public int fixAppointment() {
+        int appointmentId = appointmentService.fixAppointment(requestId, doctorId);
+        if (appointmentId <= 0) {
+            throw new IllegalStateException("fixAppointment failed for request " + requestId);
+        }
+        return appointmentId;
+    }
+}
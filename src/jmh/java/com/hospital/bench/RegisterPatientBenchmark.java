@@ -0,0 +1,48 @@
+package com.hospital.bench;
+
+import com.hospital.model.Patient;
+import com.hospital.service.PatientService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PatientService.registerPatient with a new, unique email on every call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegisterPatientBenchmark {
+    private final AtomicLong sequence = new AtomicLong();
+    private PatientService patientService;
+
+    @Setup
+    public void setup() throws Exception {
+        BenchmarkDatabase.seed();
+        patientService = new PatientService();
+    }
+
+    @Benchmark
+    public int registerPatient() {
+        long n = sequence.incrementAndGet();
+        Patient patient = new Patient("Bench Patient " + n, "bench" + n + "@example.com", "5550001111", 40, "F", "1 Bench St");
+        int patientId = patientService.registerPatient(patient);
+        if (patientId <= 0) {
+            throw new IllegalStateException("registerPatient failed for " + patient.getEmail());
+        }
+        return patientId;
+    }
+}
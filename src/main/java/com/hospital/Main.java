@@ -1,12 +1,22 @@
 package com.hospital;
 
+import com.hospital.api.ApiServer;
+import com.hospital.dao.Storage;
 import com.hospital.ui.AdminUI;
 import com.hospital.ui.PatientUI;
 
 import java.util.Scanner;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && "--server".equals(args[0])) {
+            String[] serverArgs = new String[args.length - 1];
+            System.arraycopy(args, 1, serverArgs, 0, serverArgs.length);
+            ApiServer.main(serverArgs);
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(Storage::shutdown, "console-shutdown"));
         Scanner scanner = new Scanner(System.in);
         
         System.out.println("========================================");
@@ -0,0 +1,19 @@
+package com.hospital.api;
+
+/**
+ * Thrown by route handlers to produce a non-200 JSON error response.
+ */
+public class ApiException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+
+    public ApiException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
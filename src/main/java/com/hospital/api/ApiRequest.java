@@ -0,0 +1,105 @@
+package com.hospital.api;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+public class ApiRequest {
+    private final HttpExchange exchange;
+    private final Map<String, String> pathParams;
+    private Map<String, String> queryParams;
+    private Map<String, Object> body;
+
+    public ApiRequest(HttpExchange exchange, Map<String, String> pathParams) {
+        this.exchange = exchange;
+        this.pathParams = pathParams;
+    }
+
+    public HttpExchange getExchange() {
+        return exchange;
+    }
+
+    public String getHeader(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    public String pathParam(String name) {
+        return pathParams.get(name);
+    }
+
+    public int pathInt(String name) {
+        return parseInt(pathParams.get(name), name);
+    }
+
+    public String query(String name) {
+        if (queryParams == null) {
+            queryParams = parseQuery(exchange.getRequestURI().getRawQuery());
+        }
+        return queryParams.get(name);
+    }
+
+    public Map<String, Object> body() throws IOException {
+        if (body == null) {
+            try {
+                body = Json.parseObject(readBody(exchange.getRequestBody()));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException(400, "Malformed JSON: " + e.getMessage());
+            }
+        }
+        return body;
+    }
+
+    public String bodyString(String name) throws IOException {
+        Object value = body().get(name);
+        return value == null ? null : value.toString();
+    }
+
+    public int bodyInt(String name) throws IOException {
+        Object value = body().get(name);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        return parseInt(value == null ? null : value.toString(), name);
+    }
+
+    private static int parseInt(String value, String name) {
+        if (value == null) {
+            throw new ApiException(400, "Missing parameter: " + name);
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid number for " + name + ": " + value);
+        }
+    }
+
+    static String readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+}
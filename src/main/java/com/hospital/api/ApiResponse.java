@@ -0,0 +1,103 @@
+package com.hospital.api;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A handler result with an explicit status code. Handlers that return any other
+ * object get a 200 response with that object serialized as JSON. A response with a
+ * content type sends its String body as is instead. A 304 response has no body.
+ * A {@link #rows} response streams its JSON array straight from a row source,
+ * and an {@link #events} response holds the connection open as an SSE stream.
+ */
+public class ApiResponse {
+    /**
+     * A DAO/service stream method: pushes every row to the sink and returns the row
+     * count, or -1 on error.
+     */
+    @FunctionalInterface
+    public interface RowSource<T> {
+        int stream(Consumer<T> sink);
+    }
+
+    private final int status;
+    private final Object body;
+    private final String contentType;
+    private final Map<String, String> headers = new LinkedHashMap<>();
+    private RowSource<?> rows;
+    private EventStream events;
+
+    public ApiResponse(int status, Object body) {
+        this(status, body, null);
+    }
+
+    private ApiResponse(int status, Object body, String contentType) {
+        this.status = status;
+        this.body = body;
+        this.contentType = contentType;
+    }
+
+    public static ApiResponse created(Object body) {
+        return new ApiResponse(201, body);
+    }
+
+    public static ApiResponse text(String body, String contentType) {
+        return new ApiResponse(200, body, contentType);
+    }
+
+    /**
+     * A 200 JSON array written row by row as the source produces it, with chunked
+     * transfer encoding; no list or full JSON string is built.
+     */
+    public static <T> ApiResponse rows(RowSource<T> source) {
+        ApiResponse response = new ApiResponse(200, null);
+        response.rows = source;
+        return response;
+    }
+
+    /**
+     * Attaches the client to a server-sent events stream instead of sending a body.
+     */
+    static ApiResponse events(EventStream stream) {
+        ApiResponse response = new ApiResponse(200, null);
+        response.events = stream;
+        return response;
+    }
+
+    public static ApiResponse notModified() {
+        return new ApiResponse(304, null);
+    }
+
+    /**
+     * Adds a response header; returns this response.
+     */
+    public ApiResponse header(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public RowSource<?> getRows() {
+        return rows;
+    }
+
+    EventStream getEvents() {
+        return events;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+}
@@ -0,0 +1,405 @@
+package com.hospital.api;
+
+import com.hospital.dao.DataVersions;
+import com.hospital.dao.Storage;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.service.AppointmentService;
+import com.hospital.service.AutoAssignResult;
+import com.hospital.service.AutoAssignmentEngine;
+import com.hospital.service.DashboardCounters;
+import com.hospital.service.DoctorOccupancyIndex;
+import com.hospital.service.DoctorService;
+import com.hospital.service.HistoryArchiver;
+import com.hospital.service.PatientSearchIndex;
+import com.hospital.service.PatientSearchResult;
+import com.hospital.service.PatientService;
+import com.hospital.service.PendingQueueFeed;
+import com.hospital.service.RequestIntake;
+import com.hospital.util.Metrics;
+import com.hospital.util.QueryTracer;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * HTTP/JSON API over the service layer, serving the endpoints used by frontend/js/api.js.
+ *
+ * Built on the JDK HttpServer: a single selector thread accepts connections and
+ * parses requests without blocking, persistent (keep-alive) connections are
+ * reused, and handlers run on a bounded worker pool. When both the workers and
+ * the queue are full, new exchanges are rejected and their connections closed
+ * rather than queueing without limit.
+ */
+public class ApiServer {
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int SEARCH_PAGE_SIZE = 20;
+    // Tables each conditional listing reads, joins included
+    private static final DataVersions.Table[] PATIENTS = {DataVersions.Table.PATIENTS};
+    private static final DataVersions.Table[] DOCTORS = {DataVersions.Table.DOCTORS};
+    private static final DataVersions.Table[] APPOINTMENTS =
+        {DataVersions.Table.APPOINTMENTS, DataVersions.Table.PATIENTS, DataVersions.Table.DOCTORS};
+    private static final DataVersions.Table[] PENDING_REQUESTS =
+        {DataVersions.Table.APPOINTMENT_REQUESTS, DataVersions.Table.PATIENTS};
+    // -Dintake.enabled=true routes appointment requests through the group-commit intake
+    private static final boolean INTAKE_ENABLED = Boolean.getBoolean("intake.enabled");
+    // -Darchive.enabled=true moves old appointments and requests to the archive tables on a schedule
+    private static final boolean ARCHIVE_ENABLED = Boolean.getBoolean("archive.enabled");
+
+    private final PatientService patientService;
+    private final DoctorService doctorService;
+    private final AppointmentService appointmentService;
+    private final EventStream pendingEvents;
+    private final HttpServer server;
+    private final ThreadPoolExecutor workers;
+
+    public ApiServer(int port, int workerThreads, int queueCapacity) throws IOException {
+        this.patientService = new PatientService();
+        this.doctorService = new DoctorService();
+        this.appointmentService = new AppointmentService();
+        this.pendingEvents = new EventStream(PendingQueueFeed.getInstance());
+
+        this.workers = new ThreadPoolExecutor(workerThreads, workerThreads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new WorkerThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.server = HttpServer.create(new InetSocketAddress(port), queueCapacity);
+        this.server.createContext("/api", buildRouter());
+        this.server.setExecutor(workers);
+    }
+
+    public void start() {
+        // Warm the occupancy index so the first availability question doesn't pay for the load
+        DoctorOccupancyIndex.getInstance().load();
+        DashboardCounters.getInstance().load();
+        PatientSearchIndex.getInstance().load();
+        if (ARCHIVE_ENABLED) {
+            HistoryArchiver.getInstance().start(Long.getLong("archive.intervalMs", 3600000L));
+        }
+        server.start();
+    }
+
+    /**
+     * Stops accepting requests and waits up to delaySeconds for the ones in flight,
+     * so none is still writing when storage shuts down after this.
+     */
+    public void stop(int delaySeconds) {
+        pendingEvents.close();
+        server.stop(delaySeconds);
+        workers.shutdown();
+        try {
+            workers.awaitTermination(delaySeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private Router buildRouter() {
+        Router router = new Router();
+
+        // Patients
+        router.post("/api/patients/register", req -> {
+            Patient patient = new Patient(
+                req.bodyString("name"),
+                req.bodyString("email"),
+                req.bodyString("phone"),
+                req.body().get("age") == null ? 0 : req.bodyInt("age"),
+                req.bodyString("gender"),
+                req.bodyString("address"));
+            int patientId = patientService.registerPatient(patient);
+            if (patientId <= 0) {
+                throw new ApiException(500, "Registration failed");
+            }
+            patient.setPatientId(patientId);
+            return ApiResponse.created(patient);
+        });
+        router.get("/api/patients/login", req -> {
+            String email = req.query("email");
+            if (email == null || email.trim().isEmpty()) {
+                throw new ApiException(400, "Email is required");
+            }
+            return found(patientService.getPatientByEmail(email), "Patient not found");
+        });
+        router.get("/api/patients/email-available", req -> {
+            String email = req.query("email");
+            if (email == null || email.trim().isEmpty()) {
+                throw new ApiException(400, "Email is required");
+            }
+            Map<String, Object> body = new HashMap<>();
+            body.put("email", email);
+            body.put("available", patientService.isEmailAvailable(email));
+            return body;
+        });
+        // ?q= part of a name, phone number or email; ranked, paged with offset and limit
+        router.get("/api/patients/search", req -> {
+            String query = req.query("q");
+            int offset = queryInt(req, "offset", 0);
+            PatientSearchResult result = patientService.searchPatients(query, offset,
+                queryInt(req, "limit", SEARCH_PAGE_SIZE));
+            Map<String, Object> body = new HashMap<>();
+            body.put("query", query);
+            body.put("total", result.getTotal());
+            body.put("offset", offset);
+            body.put("patients", result.getPatients());
+            return body;
+        });
+        // Without ?limit the whole table is streamed from the cursor
+        router.get("/api/patients", ConditionalGet.of(PATIENTS, req -> req.query("limit") == null
+            ? ApiResponse.rows(patientService::streamAllPatients)
+            : patientService.getPatientsPage(queryInt(req, "afterId", 0), pageLimit(req))));
+        router.get("/api/patients/{id}", req ->
+            found(patientService.getPatientById(req.pathInt("id")), "Patient not found"));
+
+        // Doctors
+        router.post("/api/doctors", req -> {
+            Doctor doctor = new Doctor(
+                req.bodyString("name"),
+                req.bodyString("specialization"),
+                req.bodyString("email"),
+                req.bodyString("phone"),
+                req.bodyString("qualification"),
+                req.body().get("experience") == null ? 0 : req.bodyInt("experience"),
+                true);
+            int doctorId = doctorService.addDoctor(doctor);
+            if (doctorId <= 0) {
+                throw new ApiException(500, "Failed to add doctor");
+            }
+            doctor.setDoctorId(doctorId);
+            return ApiResponse.created(doctor);
+        });
+        router.get("/api/doctors", ConditionalGet.of(DOCTORS, req -> req.query("limit") == null
+            ? doctorService.getAllDoctors()
+            : doctorService.getDoctorsPage(queryInt(req, "afterId", 0), pageLimit(req))));
+        // ?date=yyyy-MM-dd narrows to doctors with no confirmed appointment that day
+        router.get("/api/doctors/specialization/{specialization}", req -> req.query("date") == null
+            ? doctorService.getAvailableDoctorsBySpecialization(req.pathParam("specialization"))
+            : appointmentService.getSuitableDoctors(req.pathParam("specialization"), parseDate(req.query("date"))));
+        router.get("/api/doctors/{id}", req ->
+            found(doctorService.getDoctorById(req.pathInt("id")), "Doctor not found"));
+
+        // Appointments
+        router.post("/api/appointments/request", req -> {
+            int patientId = req.bodyInt("patientId");
+            String specialization = req.bodyString("specialization");
+            Date requestedDate = parseDate(req.bodyString("requestedDate"));
+            String description = req.bodyString("description");
+            int requestId = INTAKE_ENABLED
+                ? awaitRequestId(() -> appointmentService.requestAppointmentAsync(
+                    patientId, specialization, requestedDate, description))
+                : appointmentService.requestAppointment(patientId, specialization, requestedDate, description);
+            if (requestId <= 0) {
+                throw new ApiException(500, "Failed to submit appointment request");
+            }
+            Map<String, Object> body = new HashMap<>();
+            body.put("requestId", requestId);
+            body.put("status", "PENDING");
+            return ApiResponse.created(body);
+        });
+        router.post("/api/appointments/fix", req -> {
+            int appointmentId = appointmentService.fixAppointment(req.bodyInt("requestId"), req.bodyInt("doctorId"));
+            if (appointmentId <= 0) {
+                throw new ApiException(500, "Failed to fix appointment");
+            }
+            return ApiResponse.created(appointmentService.getAppointmentById(appointmentId));
+        });
+        router.post("/api/appointments/auto-assign", req -> {
+            AutoAssignResult result = new AutoAssignmentEngine().assignPending();
+            Map<String, Object> body = new HashMap<>();
+            List<Map<String, Object>> assigned = new ArrayList<>();
+            for (AutoAssignResult.Assignment a : result.getAssigned()) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("requestId", a.getRequestId());
+                item.put("doctorId", a.getDoctorId());
+                item.put("appointmentId", a.getAppointmentId());
+                assigned.add(item);
+            }
+            List<Map<String, Object>> skipped = new ArrayList<>();
+            for (AutoAssignResult.Skipped sk : result.getSkipped()) {
+                Map<String, Object> item = new HashMap<>();
+                item.put("requestId", sk.getRequestId());
+                item.put("reason", sk.getReason());
+                skipped.add(item);
+            }
+            body.put("assigned", assigned);
+            body.put("skipped", skipped);
+            body.put("elapsedMillis", result.getElapsedMillis());
+            return body;
+        });
+        // ?limit=N returns one keyset page; continue with afterDate/afterId from the last row
+        router.get("/api/appointments", ConditionalGet.of(APPOINTMENTS, req -> req.query("limit") == null
+            ? ApiResponse.rows(appointmentService::streamAllAppointments)
+            : appointmentService.getAppointmentsPage(parseDateTime(req.query("afterDate")),
+                queryInt(req, "afterId", Integer.MAX_VALUE), pageLimit(req))));
+        // ?includeArchived=true adds appointments moved to the archive
+        router.get("/api/appointments/patient/{patientId}", req ->
+            appointmentService.getPatientAppointments(req.pathInt("patientId"),
+                Boolean.parseBoolean(req.query("includeArchived"))));
+        router.get("/api/appointments/{id}", req ->
+            found(appointmentService.getAppointmentById(req.pathInt("id")), "Appointment not found"));
+
+        // Appointment requests
+        router.get("/api/appointment-requests/pending", ConditionalGet.of(PENDING_REQUESTS, req -> req.query("limit") == null
+            ? appointmentService.getPendingRequests()
+            : appointmentService.getPendingRequestsPage(
+                req.query("afterDate") == null ? null : parseDate(req.query("afterDate")),
+                queryInt(req, "afterId", 0), pageLimit(req))));
+        // Server-sent events: added/status/booked deltas to the pending queue as they are written
+        router.get("/api/appointment-requests/events", req -> ApiResponse.events(pendingEvents));
+        router.get("/api/appointment-requests/patient/{patientId}", req ->
+            appointmentService.getPatientRequests(req.pathInt("patientId"),
+                Boolean.parseBoolean(req.query("includeArchived"))));
+
+        // Dashboard tiles, answered from the counters without querying
+        router.get("/api/dashboard", req -> {
+            DashboardCounters counters = DashboardCounters.getInstance();
+            Map<String, Object> body = new HashMap<>();
+            body.put("pendingBySpecialization", counters.getPendingBySpecialization());
+            body.put("requestStatus", counters.getRequestStatusCounts());
+            body.put("appointmentStatus", counters.getAppointmentStatusCounts());
+            return body;
+        });
+        router.get("/api/dashboard/pending/{specialization}", req -> {
+            Map<String, Object> body = new HashMap<>();
+            body.put("specialization", req.pathParam("specialization"));
+            body.put("pending", DashboardCounters.getInstance().getPendingCount(req.pathParam("specialization")));
+            return body;
+        });
+        // ?date=yyyy-MM-dd
+        router.get("/api/dashboard/doctors/{id}", req -> {
+            Date date = parseDate(req.query("date"));
+            Map<String, Object> body = new HashMap<>();
+            body.put("doctorId", req.pathInt("id"));
+            body.put("date", req.query("date"));
+            body.put("confirmed", DashboardCounters.getInstance().getConfirmedCount(req.pathInt("id"), date));
+            return body;
+        });
+
+        // Per-operation call counts, errors, rows and latency percentiles for scraping
+        router.get("/api/metrics", req ->
+            ApiResponse.text(Metrics.renderText(), "text/plain; version=0.0.4; charset=utf-8"));
+        // Per-SQL execution counts, rows and database time, heaviest first
+        router.get("/api/metrics/sql", req ->
+            ApiResponse.text(QueryTracer.renderText(), "text/plain; version=0.0.4; charset=utf-8"));
+
+        return router;
+    }
+
+    private static int awaitRequestId(Supplier<CompletableFuture<Integer>> submit) {
+        try {
+            return submit.get().get();
+        } catch (RejectedExecutionException e) {
+            throw new ApiException(503, "Too many appointment requests, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ApiException(503, "Interrupted while saving appointment request");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException) {
+                throw (IllegalArgumentException) e.getCause();
+            }
+            e.getCause().printStackTrace();
+            return -1;
+        }
+    }
+
+    private static Object found(Object value, String message) {
+        if (value == null) {
+            throw new ApiException(404, message);
+        }
+        return value;
+    }
+
+    private static int queryInt(ApiRequest req, String name, int defaultValue) {
+        String value = req.query(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new ApiException(400, "Invalid number for " + name + ": " + value);
+        }
+    }
+
+    private static int pageLimit(ApiRequest req) {
+        int limit = queryInt(req, "limit", DEFAULT_PAGE_SIZE);
+        if (limit < 1) {
+            throw new ApiException(400, "limit must be positive");
+        }
+        return Math.min(limit, MAX_PAGE_SIZE);
+    }
+
+    private static Date parseDateTime(String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Date.from(LocalDateTime.parse(value).atZone(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Invalid date-time (expected yyyy-MM-ddTHH:mm:ss): " + value);
+        }
+    }
+
+    private static Date parseDate(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new ApiException(400, "Appointment date is required");
+        }
+        try {
+            LocalDate date = LocalDate.parse(value.trim().length() > 10 ? value.trim().substring(0, 10) : value.trim());
+            return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "Invalid date (expected yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "api-worker-" + counter.incrementAndGet());
+            t.setDaemon(false);
+            return t;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+            : Integer.parseInt(System.getenv().getOrDefault("PORT", "8080"));
+        int threads = Integer.getInteger("api.workerThreads", 32);
+        int queue = Integer.getInteger("api.queueCapacity", 256);
+
+        ApiServer apiServer = new ApiServer(port, threads, queue);
+        // The only shutdown hook: hooks run concurrently, so everything is stopped here in order
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            apiServer.stop(2);
+            RequestIntake.shutdownInstance();
+            HistoryArchiver.shutdownInstance();
+            Storage.shutdown();
+        }, "api-shutdown"));
+        apiServer.start();
+        System.out.println("Hospital Management API listening on port " + apiServer.getPort());
+    }
+}
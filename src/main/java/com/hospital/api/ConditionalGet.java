@@ -0,0 +1,119 @@
+package com.hospital.api;
+
+import com.hospital.dao.DataVersions;
+import com.hospital.util.DatabaseConnection;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Wraps a GET handler for a collection so it answers conditional requests from the
+ * {@link DataVersions} of the tables it reads. The validators are checked before
+ * the handler runs: a matching If-None-Match (or, without one, an If-Modified-Since
+ * not older than the last write) gets a bodiless 304 with no query and no JSON.
+ *
+ * The handler, and a row stream it returns, read from the primary only: a lagging
+ * replica could otherwise attach a new ETag to rows from before the write it
+ * counts, and clients would revalidate those stale rows to 304.
+ *
+ * Versions only count writes made in this process, so the ETag also rolls over
+ * every api.etag.maxAgeMs (default 60000) to pick up changes made by other
+ * processes sharing the database.
+ */
+final class ConditionalGet {
+    private static final long MAX_AGE_MILLIS = Long.getLong("api.etag.maxAgeMs", 60000L);
+
+    private ConditionalGet() {
+    }
+
+    static Router.Handler of(DataVersions.Table[] tables, Router.Handler handler) {
+        return request -> {
+            // Stamp before the handler reads the primary, so the data is never older than its ETag
+            long now = System.currentTimeMillis();
+            long epoch = MAX_AGE_MILLIS > 0 ? now / MAX_AGE_MILLIS : 0;
+            StringBuilder etag = new StringBuilder("\"").append(Long.toString(DataVersions.getStartedAt(), 36))
+                .append('-').append(epoch);
+            long lastModified = epoch * MAX_AGE_MILLIS;
+            for (DataVersions.Table table : tables) {
+                etag.append('-').append(DataVersions.version(table));
+                lastModified = Math.max(lastModified, DataVersions.lastModified(table));
+            }
+            String tag = etag.append('"').toString();
+            // HTTP dates have whole seconds: only a second that is already over is a safe validator
+            long lastModifiedSecond = lastModified / 1000;
+            boolean lastModifiedUsable = lastModifiedSecond < now / 1000;
+
+            String ifNoneMatch = request.getHeader("If-None-Match");
+            boolean notModified = ifNoneMatch != null
+                ? matches(ifNoneMatch, tag)
+                : lastModifiedUsable && notModifiedSince(request.getHeader("If-Modified-Since"), lastModifiedSecond);
+
+            ApiResponse response;
+            if (notModified) {
+                response = ApiResponse.notModified();
+            } else {
+                Object result;
+                boolean previous = DatabaseConnection.setReadsOnPrimary(true);
+                try {
+                    result = handler.handle(request);
+                } finally {
+                    DatabaseConnection.setReadsOnPrimary(previous);
+                }
+                response = result instanceof ApiResponse ? (ApiResponse) result : new ApiResponse(200, result);
+                if (response.getStatus() != 200) {
+                    return response;
+                }
+                if (response.getRows() != null) {
+                    ApiResponse streamed = ApiResponse.rows(onPrimary(response.getRows()));
+                    streamed.getHeaders().putAll(response.getHeaders());
+                    response = streamed;
+                }
+            }
+            response.header("ETag", tag).header("Cache-Control", "no-cache");
+            if (lastModifiedUsable) {
+                response.header("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.ofInstant(Instant.ofEpochSecond(lastModifiedSecond), ZoneOffset.UTC)));
+            }
+            return response;
+        };
+    }
+
+    private static <T> ApiResponse.RowSource<T> onPrimary(ApiResponse.RowSource<T> source) {
+        return sink -> {
+            boolean previous = DatabaseConnection.setReadsOnPrimary(true);
+            try {
+                return source.stream(sink);
+            } finally {
+                DatabaseConnection.setReadsOnPrimary(previous);
+            }
+        };
+    }
+
+    private static boolean matches(String ifNoneMatch, String tag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean notModifiedSince(String ifModifiedSince, long lastModifiedSecond) {
+        if (ifModifiedSince == null) {
+            return false;
+        }
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return lastModifiedSecond <= since;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+}
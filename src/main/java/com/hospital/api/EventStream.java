@@ -0,0 +1,177 @@
+package com.hospital.api;
+
+import com.hospital.service.PendingQueueFeed;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Server-sent events stream of the {@link PendingQueueFeed}. Each client holds one
+ * response open (text/event-stream, chunked) and gets every event as an SSE frame
+ * with its id, type and JSON data; no worker thread is held while it waits.
+ *
+ * Frames are only queued on the feed thread: each client has a queue of up to
+ * api.sse.clientQueue (default 256) frames written out by its own thread, so a slow
+ * client never holds up the feed or the other clients. A client whose queue fills
+ * is dropped. It then reconnects with Last-Event-ID (or ?lastEventId=) and first
+ * gets what it missed. A comment line every api.sse.heartbeatMs (default 15000)
+ * keeps idle connections from being dropped by proxies and finds clients that went
+ * away. At most api.sse.maxClients (default 64) are connected at once; a dropped
+ * client counts until its writer has finished.
+ */
+final class EventStream {
+    private static final long HEARTBEAT_MILLIS = Long.getLong("api.sse.heartbeatMs", 15000L);
+    private static final int MAX_CLIENTS = Integer.getInteger("api.sse.maxClients", 64);
+    private static final int CLIENT_QUEUE = Integer.getInteger("api.sse.clientQueue", 256);
+    private static final byte[] HELLO = "retry: 3000\n\n".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.UTF_8);
+    // Wakes a writer whose client was dropped; never written
+    private static final byte[] END = new byte[0];
+
+    private final PendingQueueFeed feed;
+    private final Set<Client> clients = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService heartbeat;
+    private final ExecutorService writers;
+    // Last frame built, shared by every client it goes to; guarded by this
+    private PendingQueueFeed.Event lastEvent;
+    private byte[] lastFrame;
+
+    EventStream(PendingQueueFeed feed) {
+        this.feed = feed;
+        this.heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sse-heartbeat");
+            t.setDaemon(true);
+            return t;
+        });
+        heartbeat.scheduleWithFixedDelay(() -> {
+            for (Client client : clients) {
+                client.send(HEARTBEAT);
+            }
+        }, HEARTBEAT_MILLIS, HEARTBEAT_MILLIS, TimeUnit.MILLISECONDS);
+        AtomicInteger counter = new AtomicInteger();
+        this.writers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "sse-writer-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Sends the stream headers and keeps the exchange open for events. Returns
+     * false, with nothing sent, if too many clients are connected.
+     */
+    boolean attach(HttpExchange exchange, String lastEventId) throws IOException {
+        Client client = new Client(exchange);
+        synchronized (clients) {
+            if (clients.size() >= MAX_CLIENTS) {
+                return false;
+            }
+            clients.add(client);
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+        exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+        try {
+            exchange.sendResponseHeaders(200, 0);
+            writers.execute(client::drain);
+        } catch (IOException | RejectedExecutionException e) {
+            clients.remove(client);
+            throw e;
+        }
+        client.send(HELLO);
+        feed.subscribe(lastEventId, client);
+        return true;
+    }
+
+    void close() {
+        heartbeat.shutdownNow();
+        for (Client client : clients) {
+            client.drop();
+        }
+        writers.shutdown();
+    }
+
+    private synchronized byte[] frame(PendingQueueFeed.Event event) {
+        if (event != lastEvent) {
+            StringBuilder out = new StringBuilder(256);
+            out.append("id: ").append(event.getId())
+                .append("\nevent: ").append(event.getType())
+                .append("\ndata: ");
+            Json.writeValue(out, event.getData());
+            lastFrame = out.append("\n\n").toString().getBytes(StandardCharsets.UTF_8);
+            lastEvent = event;
+        }
+        return lastFrame;
+    }
+
+    private final class Client implements Consumer<PendingQueueFeed.Event> {
+        private final HttpExchange exchange;
+        private final OutputStream body;
+        private final BlockingQueue<byte[]> pending = new ArrayBlockingQueue<>(CLIENT_QUEUE);
+        private volatile boolean dropped;
+
+        Client(HttpExchange exchange) {
+            this.exchange = exchange;
+            this.body = exchange.getResponseBody();
+        }
+
+        @Override
+        public void accept(PendingQueueFeed.Event event) {
+            send(frame(event));
+        }
+
+        // Never blocks: a client that cannot keep up is dropped
+        void send(byte[] bytes) {
+            if (!dropped && !pending.offer(bytes)) {
+                drop();
+            }
+        }
+
+        void drop() {
+            if (dropped) {
+                return;
+            }
+            dropped = true;
+            feed.unsubscribe(this);
+            pending.clear();
+            pending.offer(END);
+        }
+
+        // Runs on the client's writer thread until the client is dropped or goes away
+        void drain() {
+            try {
+                while (!dropped) {
+                    byte[] bytes = pending.take();
+                    if (bytes == END || dropped) {
+                        break;
+                    }
+                    body.write(bytes);
+                    // Frames already queued go out in the same flush
+                    byte[] next;
+                    while ((next = pending.poll()) != null && next != END) {
+                        body.write(next);
+                    }
+                    body.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Client went away, or the server is stopping
+            } finally {
+                drop();
+                exchange.close();
+                clients.remove(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.hospital.api;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal JSON reader/writer for the API layer. Only understands the shapes the
+ * frontend exchanges: flat objects, arrays and the four domain models.
+ */
+public final class Json {
+    public static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
+    public static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss").withZone(ZoneId.systemDefault());
+
+    private Json() {
+    }
+
+    public static String write(Object value) {
+        StringBuilder out = new StringBuilder(256);
+        writeValue(out, value);
+        return out.toString();
+    }
+
+    public static void writeValue(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Patient) {
+            writePatient(out, (Patient) value);
+        } else if (value instanceof Doctor) {
+            writeDoctor(out, (Doctor) value);
+        } else if (value instanceof Appointment) {
+            writeAppointment(out, (Appointment) value);
+        } else if (value instanceof AppointmentRequest) {
+            writeAppointmentRequest(out, (AppointmentRequest) value);
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(out, String.valueOf(entry.getKey()));
+                out.append(':');
+                writeValue(out, entry.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof Iterable) {
+            out.append('[');
+            boolean first = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeValue(out, item);
+            }
+            out.append(']');
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    public static void writePatient(StringBuilder out, Patient p) {
+        out.append("{\"patientId\":").append(p.getPatientId());
+        out.append(",\"name\":");
+        writeString(out, p.getName());
+        out.append(",\"email\":");
+        writeString(out, p.getEmail());
+        out.append(",\"phone\":");
+        writeString(out, p.getPhone());
+        out.append(",\"age\":").append(p.getAge());
+        out.append(",\"gender\":");
+        writeString(out, p.getGender());
+        out.append(",\"address\":");
+        writeString(out, p.getAddress());
+        out.append('}');
+    }
+
+    public static void writeDoctor(StringBuilder out, Doctor d) {
+        out.append("{\"doctorId\":").append(d.getDoctorId());
+        out.append(",\"name\":");
+        writeString(out, d.getName());
+        out.append(",\"specialization\":");
+        writeString(out, d.getSpecialization());
+        out.append(",\"email\":");
+        writeString(out, d.getEmail());
+        out.append(",\"phone\":");
+        writeString(out, d.getPhone());
+        out.append(",\"qualification\":");
+        writeString(out, d.getQualification());
+        out.append(",\"experience\":").append(d.getExperience());
+        out.append(",\"available\":").append(d.isAvailable());
+        out.append('}');
+    }
+
+    public static void writeAppointment(StringBuilder out, Appointment a) {
+        out.append("{\"appointmentId\":").append(a.getAppointmentId());
+        out.append(",\"patientId\":").append(a.getPatientId());
+        out.append(",\"doctorId\":").append(a.getDoctorId());
+        out.append(",\"appointmentDate\":");
+        writeString(out, formatDateTime(a.getAppointmentDate()));
+        out.append(",\"status\":");
+        writeString(out, a.getStatus());
+        out.append(",\"patientName\":");
+        writeString(out, a.getPatientName());
+        out.append(",\"doctorName\":");
+        writeString(out, a.getDoctorName());
+        out.append(",\"specialization\":");
+        writeString(out, a.getSpecialization());
+        out.append('}');
+    }
+
+    public static void writeAppointmentRequest(StringBuilder out, AppointmentRequest r) {
+        out.append("{\"requestId\":").append(r.getRequestId());
+        out.append(",\"patientId\":").append(r.getPatientId());
+        out.append(",\"specialization\":");
+        writeString(out, r.getSpecialization());
+        out.append(",\"requestedDate\":");
+        writeString(out, formatDate(r.getRequestedDate()));
+        out.append(",\"status\":");
+        writeString(out, r.getStatus());
+        out.append(",\"patientName\":");
+        writeString(out, r.getPatientName());
+        out.append(",\"description\":");
+        writeString(out, r.getDescription());
+        out.append('}');
+    }
+
+    public static void writeString(StringBuilder out, String s) {
+        if (s == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+
+    private static String formatDate(Date date) {
+        return date == null ? null : DATE.format(java.time.Instant.ofEpochMilli(date.getTime()));
+    }
+
+    private static String formatDateTime(Date date) {
+        return date == null ? null : DATE_TIME.format(java.time.Instant.ofEpochMilli(date.getTime()));
+    }
+
+    /**
+     * Parses a JSON document into Maps, Lists, Strings, Doubles, Booleans and nulls.
+     */
+    public static Object parse(String text) {
+        Parser parser = new Parser(text);
+        parser.skipWhitespace();
+        Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) {
+            throw new IllegalArgumentException("Unexpected trailing content in JSON");
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static Map<String, Object> parseObject(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return new LinkedHashMap<>();
+        }
+        Object value = parse(text);
+        if (!(value instanceof Map)) {
+            throw new IllegalArgumentException("Request body must be a JSON object");
+        }
+        return (Map<String, Object>) value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Object readValue() {
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            char c = text.charAt(pos);
+            switch (c) {
+                case '{':
+                    return readObject();
+                case '[':
+                    return readArray();
+                case '"':
+                    return readString();
+                case 't':
+                    expect("true");
+                    return Boolean.TRUE;
+                case 'f':
+                    expect("false");
+                    return Boolean.FALSE;
+                case 'n':
+                    expect("null");
+                    return null;
+                default:
+                    return readNumber();
+            }
+        }
+
+        private Map<String, Object> readObject() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                String key = readString();
+                skipWhitespace();
+                consume(':');
+                skipWhitespace();
+                map.put(key, readValue());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    consume('}');
+                    return map;
+                }
+            }
+        }
+
+        private List<Object> readArray() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                skipWhitespace();
+                list.add(readValue());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    consume(']');
+                    return list;
+                }
+            }
+        }
+
+        private String readString() {
+            consume('"');
+            StringBuilder sb = new StringBuilder();
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return sb.toString();
+                }
+                if (c == '\\') {
+                    if (pos >= text.length()) {
+                        break;
+                    }
+                    char e = text.charAt(pos++);
+                    switch (e) {
+                        case 'n':
+                            sb.append('\n');
+                            break;
+                        case 'r':
+                            sb.append('\r');
+                            break;
+                        case 't':
+                            sb.append('\t');
+                            break;
+                        case 'b':
+                            sb.append('\b');
+                            break;
+                        case 'f':
+                            sb.append('\f');
+                            break;
+                        case 'u':
+                            if (pos + 4 > text.length()) {
+                                throw new IllegalArgumentException("Invalid unicode escape in JSON");
+                            }
+                            sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                            pos += 4;
+                            break;
+                        default:
+                            sb.append(e);
+                    }
+                } else {
+                    sb.append(c);
+                }
+            }
+            throw new IllegalArgumentException("Unterminated string in JSON");
+        }
+
+        private Double readNumber() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) {
+                pos++;
+            }
+            if (start == pos) {
+                throw new IllegalArgumentException("Unexpected character in JSON at position " + pos);
+            }
+            return Double.valueOf(text.substring(start, pos));
+        }
+
+        private void expect(String literal) {
+            if (!text.startsWith(literal, pos)) {
+                throw new IllegalArgumentException("Invalid JSON literal at position " + pos);
+            }
+            pos += literal.length();
+        }
+
+        private char peek() {
+            if (pos >= text.length()) {
+                throw new IllegalArgumentException("Unexpected end of JSON");
+            }
+            return text.charAt(pos);
+        }
+
+        private void consume(char expected) {
+            if (peek() != expected) {
+                throw new IllegalArgumentException("Expected '" + expected + "' in JSON at position " + pos);
+            }
+            pos++;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+    }
+}
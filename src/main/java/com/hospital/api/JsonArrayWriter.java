@@ -0,0 +1,104 @@
+package com.hospital.api;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes a JSON array to the response one element at a time, for handlers that
+ * stream rows from a cursor instead of building a list.
+ *
+ * Each element is serialized into one reused StringBuilder and encoded into one
+ * reused buffer; only when that buffer fills are the response headers sent (200,
+ * chunked) and the bytes written out, so memory stays flat however many rows there
+ * are. Until then nothing is committed and a failing source can still get a
+ * proper error response.
+ */
+final class JsonArrayWriter {
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final HttpExchange exchange;
+    private final Writer writer;
+    private final StringBuilder element = new StringBuilder(512);
+    private boolean committed;
+    private int count;
+
+    JsonArrayWriter(HttpExchange exchange, String contentType) {
+        this.exchange = exchange;
+        this.writer = new BufferedWriter(new OutputStreamWriter(new CommitOnWrite(), StandardCharsets.UTF_8), BUFFER_SIZE);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+    }
+
+    /**
+     * Appends one element; the row callbacks of the DAO stream methods can't throw
+     * IOException, so a failed write surfaces as UncheckedIOException.
+     */
+    void add(Object value) {
+        element.setLength(0);
+        element.append(count == 0 ? '[' : ',');
+        Json.writeValue(element, value);
+        try {
+            writer.append(element);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        count++;
+    }
+
+    /**
+     * True once headers and some of the body have gone out.
+     */
+    boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Closes the array and completes the response.
+     */
+    void finish() throws IOException {
+        writer.append(count == 0 ? "[]" : "]");
+        writer.close();
+    }
+
+    // Sends the headers on the first real write
+    private final class CommitOnWrite extends OutputStream {
+        private OutputStream body;
+
+        @Override
+        public void write(int b) throws IOException {
+            open().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            open().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (body != null) {
+                body.flush();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            open().close();
+        }
+
+        private OutputStream open() throws IOException {
+            if (body == null) {
+                exchange.sendResponseHeaders(200, 0);
+                body = exchange.getResponseBody();
+                committed = true;
+            }
+            return body;
+        }
+    }
+}
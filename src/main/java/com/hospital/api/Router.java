@@ -0,0 +1,248 @@
+package com.hospital.api;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dispatches requests to handlers registered against method + path templates such
+ * as "/api/patients/{id}". Templates are matched segment by segment in
+ * registration order, so literal routes must be registered before parameterised
+ * ones that would shadow them.
+ */
+public class Router implements HttpHandler {
+
+    @FunctionalInterface
+    public interface Handler {
+        Object handle(ApiRequest request) throws Exception;
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+
+    public Router get(String template, Handler handler) {
+        routes.add(new Route("GET", template, handler));
+        return this;
+    }
+
+    public Router post(String template, Handler handler) {
+        routes.add(new Route("POST", template, handler));
+        return this;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        boolean keepOpen = false;
+        try {
+            addCorsHeaders(exchange.getResponseHeaders());
+            String method = exchange.getRequestMethod();
+            if ("OPTIONS".equals(method)) {
+                drain(exchange.getRequestBody());
+                exchange.sendResponseHeaders(204, -1);
+                return;
+            }
+
+            String[] segments = split(exchange.getRequestURI().getRawPath());
+            boolean pathMatched = false;
+            for (Route route : routes) {
+                Map<String, String> params = route.match(segments);
+                if (params == null) {
+                    continue;
+                }
+                pathMatched = true;
+                if (route.method.equals(method)) {
+                    try {
+                        keepOpen = dispatch(exchange, route, params);
+                    } catch (StreamAborted e) {
+                        // Closing the exchange would write the final chunk and make the cut-off
+                        // body look complete; leave it to the server to drop the connection
+                        keepOpen = true;
+                        throw e;
+                    }
+                    return;
+                }
+            }
+            drain(exchange.getRequestBody());
+            if (pathMatched) {
+                sendError(exchange, 405, "Method not allowed");
+            } else {
+                sendError(exchange, 404, "No such endpoint: " + exchange.getRequestURI().getPath());
+            }
+        } finally {
+            if (!keepOpen) {
+                exchange.close();
+            }
+        }
+    }
+
+    // Returns true if the exchange now belongs to an event stream and must stay open
+    private boolean dispatch(HttpExchange exchange, Route route, Map<String, String> params) throws IOException {
+        ApiRequest request = new ApiRequest(exchange, params);
+        Object result;
+        try {
+            result = route.handler.handle(request);
+        } catch (ApiException e) {
+            drain(exchange.getRequestBody());
+            sendError(exchange, e.getStatus(), e.getMessage());
+            return false;
+        } catch (IllegalArgumentException e) {
+            drain(exchange.getRequestBody());
+            sendError(exchange, 400, e.getMessage());
+            return false;
+        } catch (Exception e) {
+            e.printStackTrace();
+            drain(exchange.getRequestBody());
+            sendError(exchange, 500, "Internal server error");
+            return false;
+        }
+        drain(exchange.getRequestBody());
+
+        if (result instanceof ApiResponse) {
+            for (Map.Entry<String, String> header : ((ApiResponse) result).getHeaders().entrySet()) {
+                exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+            }
+        }
+        if (result instanceof ApiResponse && ((ApiResponse) result).getEvents() != null) {
+            String lastEventId = exchange.getRequestHeaders().getFirst("Last-Event-ID");
+            if (lastEventId == null) {
+                lastEventId = request.query("lastEventId");
+            }
+            if (((ApiResponse) result).getEvents().attach(exchange, lastEventId)) {
+                return true;
+            }
+            sendError(exchange, 503, "Too many event stream clients");
+        } else if (result instanceof ApiResponse && ((ApiResponse) result).getStatus() == 304) {
+            exchange.sendResponseHeaders(304, -1);
+        } else if (result instanceof ApiResponse && ((ApiResponse) result).getRows() != null) {
+            sendRows(exchange, ((ApiResponse) result).getRows());
+        } else if (result instanceof ApiResponse && ((ApiResponse) result).getContentType() != null) {
+            ApiResponse response = (ApiResponse) result;
+            send(exchange, response.getStatus(), response.getContentType(), String.valueOf(response.getBody()));
+        } else if (result instanceof ApiResponse) {
+            ApiResponse response = (ApiResponse) result;
+            sendJson(exchange, response.getStatus(), Json.write(response.getBody()));
+        } else {
+            sendJson(exchange, 200, Json.write(result));
+        }
+        return false;
+    }
+
+    private static void sendRows(HttpExchange exchange, ApiResponse.RowSource<?> source) throws IOException {
+        JsonArrayWriter writer = new JsonArrayWriter(exchange, "application/json; charset=utf-8");
+        int rows;
+        try {
+            rows = stream(source, writer);
+        } catch (UncheckedIOException e) {
+            // Client went away mid-stream
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            rows = -1;
+        }
+        if (rows >= 0) {
+            writer.finish();
+        } else if (!writer.isCommitted()) {
+            sendError(exchange, 500, "Internal server error");
+        } else {
+            // The 200 and any validators already went out; only a broken connection tells
+            // the client (and any cache) that the body is incomplete
+            throw new StreamAborted();
+        }
+    }
+
+    private static <T> int stream(ApiResponse.RowSource<T> source, JsonArrayWriter writer) {
+        return source.stream(writer::add);
+    }
+
+    static void sendJson(HttpExchange exchange, int status, String json) throws IOException {
+        send(exchange, status, "application/json; charset=utf-8", json);
+    }
+
+    static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("message", message);
+        sendJson(exchange, status, Json.write(body));
+    }
+
+    private static void addCorsHeaders(Headers headers) {
+        headers.set("Access-Control-Allow-Origin", "*");
+        headers.set("Access-Control-Allow-Methods", "GET, POST, OPTIONS");
+        headers.set("Access-Control-Allow-Headers", "Content-Type, If-None-Match, If-Modified-Since, Last-Event-ID");
+        headers.set("Access-Control-Expose-Headers", "ETag, Last-Modified");
+    }
+
+    // Unread request bytes would otherwise prevent the connection being reused
+    private static void drain(InputStream in) throws IOException {
+        byte[] buffer = new byte[1024];
+        while (in.read(buffer) != -1) {
+            // discard
+        }
+    }
+
+    private static String[] split(String path) {
+        String trimmed = path.startsWith("/") ? path.substring(1) : path;
+        if (trimmed.endsWith("/")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? new String[0] : trimmed.split("/");
+    }
+
+    // Thrown out of handle() so the server closes the connection without ending the response
+    private static final class StreamAborted extends IOException {
+        StreamAborted() {
+            super("Row stream failed after the response was committed");
+        }
+    }
+
+    private static final class Route {
+        final String method;
+        final String[] segments;
+        final Handler handler;
+
+        Route(String method, String template, Handler handler) {
+            this.method = method;
+            this.segments = split(template);
+            this.handler = handler;
+        }
+
+        Map<String, String> match(String[] path) {
+            if (path.length != segments.length) {
+                return null;
+            }
+            Map<String, String> params = null;
+            for (int i = 0; i < segments.length; i++) {
+                String segment = segments[i];
+                if (segment.startsWith("{") && segment.endsWith("}")) {
+                    if (params == null) {
+                        params = new HashMap<>();
+                    }
+                    params.put(segment.substring(1, segment.length() - 1),
+                            URLDecoder.decode(path[i], StandardCharsets.UTF_8));
+                } else if (!segment.equals(path[i])) {
+                    return null;
+                }
+            }
+            return params == null ? Collections.emptyMap() : params;
+        }
+    }
+}
@@ -1,160 +1,118 @@
 package com.hospital.dao;
 
 import com.hospital.model.Appointment;
-import com.hospital.util.DatabaseConnection;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class AppointmentDAO {
-    public AppointmentDAO() {
-        // no-op; obtain connections per-method
+public interface AppointmentDAO {
+    @FunctionalInterface
+    interface DailyCountConsumer {
+        void accept(int doctorId, long epochDay, String status, int count);
     }
 
-    public int addAppointment(Appointment appointment) {
-        String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, status) VALUES (?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setInt(1, appointment.getPatientId());
-            stmt.setInt(2, appointment.getDoctorId());
-            stmt.setTimestamp(3, new Timestamp(appointment.getAppointmentDate().getTime()));
-            stmt.setString(4, appointment.getStatus());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        return rs.getInt(1);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return -1;
-    }
+    /**
+     * Returns the new appointment's id, or -1 on error.
+     */
+    int addAppointment(Appointment appointment);
 
-    public Appointment getAppointmentById(int appointmentId) {
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                     "FROM appointments a " +
-                     "JOIN patients p ON a.patient_id = p.patient_id " +
-                     "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                     "WHERE a.appointment_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, appointmentId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Appointment appointment = new Appointment(
-                        rs.getInt("appointment_id"),
-                        rs.getInt("patient_id"),
-                        rs.getInt("doctor_id"),
-                        rs.getTimestamp("appointment_date"),
-                        rs.getString("status")
-                    );
-                    appointment.setPatientName(rs.getString("patient_name"));
-                    appointment.setDoctorName(rs.getString("doctor_name"));
-                    appointment.setSpecialization(rs.getString("specialization"));
-                    return appointment;
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
+    /**
+     * Inserts inside the caller's transaction so the insert can take part in a larger unit of work.
+     */
+    int addAppointment(Transaction tx, Appointment appointment) throws SQLException;
 
-    public List<Appointment> getAllAppointments() {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                     "FROM appointments a " +
-                     "JOIN patients p ON a.patient_id = p.patient_id " +
-                     "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                     "ORDER BY a.appointment_date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                Appointment appointment = new Appointment(
-                    rs.getInt("appointment_id"),
-                    rs.getInt("patient_id"),
-                    rs.getInt("doctor_id"),
-                    rs.getTimestamp("appointment_date"),
-                    rs.getString("status")
-                );
-                appointment.setPatientName(rs.getString("patient_name"));
-                appointment.setDoctorName(rs.getString("doctor_name"));
-                appointment.setSpecialization(rs.getString("specialization"));
-                appointments.add(appointment);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return appointments;
-    }
+    /**
+     * Inserts the appointments in one batch inside the caller's transaction and sets
+     * each appointment's generated id.
+     */
+    void addAppointmentsBatch(Transaction tx, List<Appointment> appointments) throws SQLException;
 
-    public List<Appointment> getAppointmentsByPatientId(int patientId) {
-        List<Appointment> appointments = new ArrayList<>();
-        String sql = "SELECT a.*, p.name as patient_name, d.name as doctor_name, d.specialization " +
-                     "FROM appointments a " +
-                     "JOIN patients p ON a.patient_id = p.patient_id " +
-                     "JOIN doctors d ON a.doctor_id = d.doctor_id " +
-                     "WHERE a.patient_id = ? ORDER BY a.appointment_date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, patientId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    Appointment appointment = new Appointment(
-                        rs.getInt("appointment_id"),
-                        rs.getInt("patient_id"),
-                        rs.getInt("doctor_id"),
-                        rs.getTimestamp("appointment_date"),
-                        rs.getString("status")
-                    );
-                    appointment.setPatientName(rs.getString("patient_name"));
-                    appointment.setDoctorName(rs.getString("doctor_name"));
-                    appointment.setSpecialization(rs.getString("specialization"));
-                    appointments.add(appointment);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return appointments;
-    }
+    /**
+     * Returns {@link #bookedDayKey} keys for every CONFIRMED appointment of the given
+     * doctors on the days from {@code from} to {@code to} inclusive.
+     */
+    Set<String> findBookedDays(Transaction tx, Collection<Integer> doctorIds,
+                               java.util.Date from, java.util.Date to) throws SQLException;
+
+    Appointment getAppointmentById(int appointmentId);
+
+    List<Appointment> getAllAppointments();
+
+    /**
+     * Returns at most {@code limit} appointments, newest first, that come after the
+     * given cursor. Pass a null {@code afterDate} for the first page; for the next
+     * page pass the date and id of the last appointment returned.
+     */
+    List<Appointment> getAppointmentsPage(java.util.Date afterDate, int afterId, int limit);
+
+    /**
+     * Streams every appointment, newest first, to the consumer without building a list.
+     * Returns the number of rows delivered, or -1 on error.
+     */
+    int streamAllAppointments(Consumer<Appointment> consumer);
+
+    List<Appointment> getAppointmentsByPatientId(int patientId);
+
+    /**
+     * Returns at most {@code limit} of the patient's appointments, newest first, after
+     * the given cursor, as {@link #getAppointmentsPage} does for all appointments.
+     */
+    List<Appointment> getAppointmentsByPatientPage(int patientId, java.util.Date afterDate, int afterId, int limit);
 
-    public boolean checkDoctorAvailability(int doctorId, java.util.Date appointmentDate) {
-        // Check if doctor has any appointment on the same date (ignoring time)
-        String sql = "SELECT COUNT(*) as count FROM appointments WHERE doctor_id = ? " +
-                     "AND DATE(appointment_date) = DATE(?) AND status = 'CONFIRMED'";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, doctorId);
-            stmt.setTimestamp(2, new Timestamp(appointmentDate.getTime()));
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt("count") == 0;
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return false;
+    /**
+     * The patient's appointments, newest first, with archived ones included if asked.
+     */
+    List<Appointment> getAppointmentsByPatientId(int patientId, boolean includeArchived);
+
+    /**
+     * True when the doctor has no CONFIRMED appointment on the same calendar day.
+     */
+    boolean checkDoctorAvailability(int doctorId, java.util.Date appointmentDate);
+
+    boolean checkDoctorAvailability(Transaction tx, int doctorId, java.util.Date appointmentDate) throws SQLException;
+
+    /**
+     * Streams the doctor id and date of every CONFIRMED appointment in [from, to).
+     * Only those fields (plus the id) are populated. Returns the row count, or -1 on error.
+     */
+    int streamConfirmedAppointments(java.util.Date from, java.util.Date to, Consumer<Appointment> consumer);
+
+    /**
+     * Streams the number of appointments per doctor, calendar day and status. Returns
+     * the number of groups delivered, or -1 on error.
+     */
+    int streamDailyStatusCounts(DailyCountConsumer consumer);
+
+    /**
+     * Reads the appointment (without joined names) and locks it until the caller's
+     * transaction ends.
+     */
+    Appointment lockAppointmentById(Transaction tx, int appointmentId) throws SQLException;
+
+    boolean updateAppointmentStatus(int appointmentId, String status);
+
+    boolean updateAppointmentStatus(Transaction tx, int appointmentId, String status) throws SQLException;
+
+    /**
+     * Moves up to {@code limit} appointments dated before the cutoff, oldest first, to
+     * the archive inside the caller's transaction. Returns the number moved.
+     */
+    int archiveAppointmentsBefore(Transaction tx, java.util.Date cutoff, int limit) throws SQLException;
+
+    static String bookedDayKey(int doctorId, java.util.Date date) {
+        return doctorId + ":" + epochDay(date);
     }
 
-    public boolean updateAppointmentStatus(int appointmentId, String status) {
-        String sql = "UPDATE appointments SET status = ? WHERE appointment_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, status);
-            stmt.setInt(2, appointmentId);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return false;
+    /**
+     * Calendar day of the date in the default time zone. Works for java.sql.Date
+     * (as mapped from DATE columns), which does not support toInstant().
+     */
+    static long epochDay(java.util.Date date) {
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
     }
 }
-
@@ -1,130 +1,83 @@
 package com.hospital.dao;
 
 import com.hospital.model.AppointmentRequest;
-import com.hospital.util.DatabaseConnection;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
-public class AppointmentRequestDAO {
-    public AppointmentRequestDAO() {
-        // No per-instance persistent Connection - obtain per-operation
+public interface AppointmentRequestDAO {
+    @FunctionalInterface
+    interface StatusCountConsumer {
+        void accept(String specialization, String status, int count);
     }
 
-    public int addAppointmentRequest(AppointmentRequest request) {
-        String sql = "INSERT INTO appointment_requests (patient_id, specialization, requested_date, status, description) VALUES (?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setInt(1, request.getPatientId());
-            stmt.setString(2, request.getSpecialization());
-            stmt.setDate(3, new java.sql.Date(request.getRequestedDate().getTime()));
-            stmt.setString(4, request.getStatus());
-            stmt.setString(5, request.getDescription() != null ? request.getDescription() : "");
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        return rs.getInt(1);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return -1;
-    }
+    /**
+     * Returns the new request's id, or -1 on error.
+     */
+    int addAppointmentRequest(AppointmentRequest request);
 
-    public AppointmentRequest getRequestById(int requestId) {
-        String sql = "SELECT ar.*, p.name as patient_name FROM appointment_requests ar " +
-                     "JOIN patients p ON ar.patient_id = p.patient_id WHERE ar.request_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, requestId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    AppointmentRequest request = new AppointmentRequest(
-                        rs.getInt("request_id"),
-                        rs.getInt("patient_id"),
-                        rs.getString("specialization"),
-                        rs.getDate("requested_date"),
-                        rs.getString("status")
-                    );
-                    request.setPatientName(rs.getString("patient_name"));
-                    request.setDescription(rs.getString("description"));
-                    return request;
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
+    /**
+     * Inserts the requests in one batch inside the caller's transaction and sets each
+     * request's generated id. A missing patient fails the whole batch.
+     */
+    void addAppointmentRequestsBatch(Transaction tx, List<AppointmentRequest> requests) throws SQLException;
 
-    public List<AppointmentRequest> getAllPendingRequests() {
-        List<AppointmentRequest> requests = new ArrayList<>();
-        String sql = "SELECT ar.*, p.name as patient_name FROM appointment_requests ar " +
-                     "JOIN patients p ON ar.patient_id = p.patient_id WHERE ar.status = 'PENDING' ORDER BY ar.requested_date";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                AppointmentRequest request = new AppointmentRequest(
-                    rs.getInt("request_id"),
-                    rs.getInt("patient_id"),
-                    rs.getString("specialization"),
-                    rs.getDate("requested_date"),
-                    rs.getString("status")
-                );
-                request.setPatientName(rs.getString("patient_name"));
-                request.setDescription(rs.getString("description"));
-                requests.add(request);
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return requests;
-    }
+    AppointmentRequest getRequestById(int requestId);
 
-    public List<AppointmentRequest> getRequestsByPatientId(int patientId) {
-        List<AppointmentRequest> requests = new ArrayList<>();
-        String sql = "SELECT ar.*, p.name as patient_name FROM appointment_requests ar " +
-                     "JOIN patients p ON ar.patient_id = p.patient_id WHERE ar.patient_id = ? ORDER BY ar.requested_date DESC";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, patientId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    AppointmentRequest request = new AppointmentRequest(
-                        rs.getInt("request_id"),
-                        rs.getInt("patient_id"),
-                        rs.getString("specialization"),
-                        rs.getDate("requested_date"),
-                        rs.getString("status")
-                    );
-                    request.setPatientName(rs.getString("patient_name"));
-                    request.setDescription(rs.getString("description"));
-                    requests.add(request);
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return requests;
-    }
+    List<AppointmentRequest> getAllPendingRequests();
 
-    public boolean updateRequestStatus(int requestId, String status) {
-        String sql = "UPDATE appointment_requests SET status = ? WHERE request_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, status);
-            stmt.setInt(2, requestId);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return false;
-    }
-}
+    /**
+     * Returns at most {@code limit} pending requests, oldest requested date first, that
+     * come after the given cursor. Pass a null {@code afterDate} for the first page; for
+     * the next page pass the requested date and id of the last request returned.
+     */
+    List<AppointmentRequest> getPendingRequestsPage(java.util.Date afterDate, int afterId, int limit);
+
+    /**
+     * Streams every pending request, oldest requested date first, without building a
+     * list. Returns the number of rows delivered, or -1 on error.
+     */
+    int streamPendingRequests(Consumer<AppointmentRequest> consumer);
+
+    /**
+     * Streams the number of requests per specialization and status. Returns the number
+     * of groups delivered, or -1 on error.
+     */
+    int streamStatusCounts(StatusCountConsumer consumer);
 
+    List<AppointmentRequest> getRequestsByPatientId(int patientId);
+
+    /**
+     * The patient's requests, latest requested date first, with archived ones included
+     * if asked.
+     */
+    List<AppointmentRequest> getRequestsByPatientId(int patientId, boolean includeArchived);
+
+    /**
+     * Reads the request and locks it until the caller's transaction ends.
+     * The patient name is not filled in.
+     */
+    AppointmentRequest lockRequestById(Transaction tx, int requestId) throws SQLException;
+
+    /**
+     * Reads and locks the given requests in id order until the caller's transaction
+     * ends. Returns them keyed by id; missing ids are absent.
+     */
+    Map<Integer, AppointmentRequest> lockRequestsByIds(Transaction tx, Collection<Integer> requestIds) throws SQLException;
+
+    void updateRequestStatusBatch(Transaction tx, Collection<Integer> requestIds, String status) throws SQLException;
+
+    boolean updateRequestStatus(int requestId, String status);
+
+    boolean updateRequestStatus(Transaction tx, int requestId, String status) throws SQLException;
+
+    /**
+     * Moves up to {@code limit} requests that are no longer PENDING and whose requested
+     * date is before the cutoff to the archive inside the caller's transaction. Returns
+     * the number moved.
+     */
+    int archiveRequestsBefore(Transaction tx, java.util.Date cutoff, int limit) throws SQLException;
+}
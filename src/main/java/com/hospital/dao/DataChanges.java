@@ -0,0 +1,97 @@
+package com.hospital.dao;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Listeners for writes made through the DAOs, told by VersionedStorageEngine once
+ * each write is visible. Listeners run on the writing thread, so they must be
+ * quick and hand anything slow to another thread; the objects they are given
+ * belong to the writer and must be copied if kept. Only writes made in this
+ * process are seen.
+ */
+public final class DataChanges {
+    /**
+     * One method per kind of write, each called only for writes that took effect.
+     * Single-row inserts pass the new id separately; batch inserts have set it on
+     * each row.
+     */
+    public interface Listener {
+        default void onPatientAdded(int patientId, Patient patient) {
+        }
+
+        default void onPatientsAdded(List<Patient> patients) {
+        }
+
+        /**
+         * The patient is identified by email, which never changes.
+         */
+        default void onPatientUpdated(Patient patient) {
+        }
+
+        default void onDoctorAdded(int doctorId, Doctor doctor) {
+        }
+
+        default void onDoctorsAdded(List<Doctor> doctors) {
+        }
+
+        default void onDoctorAvailabilityChanged(int doctorId, boolean available) {
+        }
+
+        default void onRequestAdded(int requestId, AppointmentRequest request) {
+        }
+
+        default void onRequestsAdded(List<AppointmentRequest> requests) {
+        }
+
+        default void onRequestStatusChanged(Collection<Integer> requestIds, String status) {
+        }
+
+        default void onRequestsArchived(Date cutoff, int count) {
+        }
+
+        default void onAppointmentAdded(int appointmentId, Appointment appointment) {
+        }
+
+        default void onAppointmentsAdded(List<Appointment> appointments) {
+        }
+
+        default void onAppointmentStatusChanged(int appointmentId, String status) {
+        }
+
+        default void onAppointmentsArchived(Date cutoff, int count) {
+        }
+    }
+
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private DataChanges() {
+    }
+
+    public static void subscribe(Listener listener) {
+        LISTENERS.add(listener);
+    }
+
+    public static void unsubscribe(Listener listener) {
+        LISTENERS.remove(listener);
+    }
+
+    static void publish(Consumer<Listener> change) {
+        for (Listener listener : LISTENERS) {
+            try {
+                change.accept(listener);
+            } catch (RuntimeException e) {
+                // A failing listener must not fail a write that has already happened
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.hospital.dao;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-table change counters and last-write times, bumped by VersionedStorageEngine
+ * whenever a write through the DAOs becomes visible (on return for auto-commit
+ * writes, on commit for transactional ones). Callers read a version before reading
+ * the data, so data then read from the primary is never older than it. A replica
+ * may lag behind any version, so such reads must not use one (see
+ * DatabaseConnection.setReadsOnPrimary).
+ *
+ * Only writes made in this process are counted.
+ */
+public final class DataVersions {
+    public enum Table { PATIENTS, DOCTORS, APPOINTMENTS, APPOINTMENT_REQUESTS }
+
+    private static final long STARTED_AT = System.currentTimeMillis();
+    private static final AtomicLongArray VERSIONS = new AtomicLongArray(Table.values().length);
+    private static final AtomicLongArray MODIFIED_AT = new AtomicLongArray(Table.values().length);
+
+    static {
+        for (int i = 0; i < MODIFIED_AT.length(); i++) {
+            MODIFIED_AT.set(i, STARTED_AT);
+        }
+    }
+
+    private DataVersions() {
+    }
+
+    /**
+     * Start-up time; versions restart from zero with each process.
+     */
+    public static long getStartedAt() {
+        return STARTED_AT;
+    }
+
+    public static long version(Table table) {
+        return VERSIONS.get(table.ordinal());
+    }
+
+    /**
+     * Time of the last counted write, or start-up time if none.
+     */
+    public static long lastModified(Table table) {
+        return MODIFIED_AT.get(table.ordinal());
+    }
+
+    static void bump(Table table) {
+        // Time first, so whoever sees the new version also sees its time
+        MODIFIED_AT.accumulateAndGet(table.ordinal(), System.currentTimeMillis(), Math::max);
+        VERSIONS.incrementAndGet(table.ordinal());
+    }
+}
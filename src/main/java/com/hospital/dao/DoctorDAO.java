@@ -1,153 +1,64 @@
 package com.hospital.dao;
 
 import com.hospital.model.Doctor;
-import com.hospital.util.DatabaseConnection;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class DoctorDAO {
-    public DoctorDAO() {
-        // no-op; obtain connections per-method
-    }
+public interface DoctorDAO {
+    /**
+     * Returns the new doctor's id, or -1 on error.
+     */
+    int addDoctor(Doctor doctor);
 
-    public int addDoctor(Doctor doctor) {
-        String sql = "INSERT INTO doctors (name, specialization, email, phone, qualification, experience, available) VALUES (?, ?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            stmt.setString(1, doctor.getName());
-            stmt.setString(2, doctor.getSpecialization());
-            stmt.setString(3, doctor.getEmail());
-            stmt.setString(4, doctor.getPhone());
-            stmt.setString(5, doctor.getQualification());
-            stmt.setInt(6, doctor.getExperience());
-            stmt.setBoolean(7, doctor.isAvailable());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows > 0) {
-                try (ResultSet rs = stmt.getGeneratedKeys()) {
-                    if (rs.next()) {
-                        return rs.getInt(1);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return -1;
-    }
+    int addDoctor(Transaction tx, Doctor doctor) throws SQLException;
 
-    public Doctor getDoctorById(int doctorId) {
-        String sql = "SELECT * FROM doctors WHERE doctor_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setInt(1, doctorId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return new Doctor(
-                        rs.getInt("doctor_id"),
-                        rs.getString("name"),
-                        rs.getString("specialization"),
-                        rs.getString("email"),
-                        rs.getString("phone"),
-                        rs.getString("qualification"),
-                        rs.getInt("experience"),
-                        rs.getBoolean("available")
-                    );
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return null;
-    }
+    /**
+     * Inserts the doctors in one batch inside the caller's transaction and sets each
+     * doctor's generated id. A duplicate email fails the whole batch.
+     */
+    void addDoctorsBatch(Transaction tx, List<Doctor> doctors) throws SQLException;
 
-    public List<Doctor> getAllDoctors() {
-        List<Doctor> doctors = new ArrayList<>();
-        String sql = "SELECT * FROM doctors";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                doctors.add(new Doctor(
-                    rs.getInt("doctor_id"),
-                    rs.getString("name"),
-                    rs.getString("specialization"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getString("qualification"),
-                    rs.getInt("experience"),
-                    rs.getBoolean("available")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return doctors;
-    }
+    /**
+     * Returns which of the given emails are already registered, lowercased.
+     */
+    Set<String> findExistingEmails(Transaction tx, Collection<String> emails) throws SQLException;
 
-    public List<Doctor> getAvailableDoctorsBySpecialization(String specialization) {
-        List<Doctor> doctors = new ArrayList<>();
-        String sql = "SELECT * FROM doctors WHERE specialization = ? AND available = true";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, specialization);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    doctors.add(new Doctor(
-                        rs.getInt("doctor_id"),
-                        rs.getString("name"),
-                        rs.getString("specialization"),
-                        rs.getString("email"),
-                        rs.getString("phone"),
-                        rs.getString("qualification"),
-                        rs.getInt("experience"),
-                        rs.getBoolean("available")
-                    ));
-                }
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return doctors;
-    }
+    Doctor getDoctorById(int doctorId);
 
-    public List<Doctor> getAvailableDoctors() {
-        List<Doctor> doctors = new ArrayList<>();
-        String sql = "SELECT * FROM doctors WHERE available = true";
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                doctors.add(new Doctor(
-                    rs.getInt("doctor_id"),
-                    rs.getString("name"),
-                    rs.getString("specialization"),
-                    rs.getString("email"),
-                    rs.getString("phone"),
-                    rs.getString("qualification"),
-                    rs.getInt("experience"),
-                    rs.getBoolean("available")
-                ));
-            }
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return doctors;
-    }
+    /**
+     * Reads the doctor and locks it until the caller's transaction ends, which
+     * serialises concurrent bookings against the same doctor.
+     */
+    Doctor lockDoctorById(Transaction tx, int doctorId) throws SQLException;
 
-    public boolean updateDoctorAvailability(int doctorId, boolean available) {
-        String sql = "UPDATE doctors SET available = ? WHERE doctor_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setBoolean(1, available);
-            stmt.setInt(2, doctorId);
-            return stmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            e.printStackTrace();
-        }
-        return false;
-    }
-}
+    /**
+     * Reads and locks the given doctors in id order until the caller's transaction
+     * ends. Returns them keyed by id; missing ids are absent.
+     */
+    Map<Integer, Doctor> lockDoctorsByIds(Transaction tx, Collection<Integer> doctorIds) throws SQLException;
+
+    List<Doctor> getAllDoctors();
+
+    /**
+     * Returns at most {@code limit} doctors with an id greater than {@code afterId},
+     * in id order. Pass 0 for the first page and the last id seen for the next.
+     */
+    List<Doctor> getDoctorsPage(int afterId, int limit);
+
+    /**
+     * Streams every doctor in id order to the consumer without building a list.
+     * Returns the number of rows delivered, or -1 on error.
+     */
+    int streamAllDoctors(Consumer<Doctor> consumer);
 
+    List<Doctor> getAvailableDoctorsBySpecialization(String specialization);
+
+    List<Doctor> getAvailableDoctors();
+
+    boolean updateDoctorAvailability(int doctorId, boolean available);
+}
@@ -0,0 +1,113 @@
+package com.hospital.dao;
+
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * EXPLAINs each indexed DAO query against the configured database and reports
+ * whether MySQL picks the index the query was written for. Exits non-zero when
+ * any query falls back to another plan, so it can gate a deployment.
+ *
+ * Run it against a database with realistic row counts: on near-empty tables the
+ * optimizer may legitimately prefer a full scan.
+ */
+public class IndexUsageCheck {
+
+    private static final class Expectation {
+        final String name;
+        final String sql;
+        final String table;
+        final String index;
+        final Object[] params;
+
+        Expectation(String name, String sql, String table, String index, Object... params) {
+            this.name = name;
+            this.sql = sql;
+            this.table = table;
+            this.index = index;
+            this.params = params;
+        }
+    }
+
+    static List<Expectation> expectations() {
+        Date today = new Date();
+        List<Expectation> list = new ArrayList<>();
+        list.add(new Expectation("AppointmentDAO.checkDoctorAvailability", JdbcAppointmentDAO.AVAILABILITY_SQL,
+            "appointments", "idx_appointments_doctor_date_status",
+            1, JdbcAppointmentDAO.startOfDay(today), JdbcAppointmentDAO.startOfNextDay(today)));
+        list.add(new Expectation("AppointmentDAO.getAppointmentsByPatientId", JdbcAppointmentDAO.APPOINTMENTS_BY_PATIENT_SQL,
+            "a", "idx_appointments_patient_date", 1));
+        list.add(new Expectation("AppointmentDAO.getAppointmentsByPatientPage",
+            JdbcAppointmentDAO.APPOINTMENTS_BY_PATIENT_PAGE_SQL, "a", "idx_appointments_patient_date",
+            1, new Timestamp(today.getTime()), new Timestamp(today.getTime()), Integer.MAX_VALUE, 50));
+        list.add(new Expectation("AppointmentDAO.getAppointmentsPage", JdbcAppointmentDAO.APPOINTMENTS_PAGE_SQL,
+            "a", "idx_appointments_date",
+            new Timestamp(today.getTime()), new Timestamp(today.getTime()), Integer.MAX_VALUE, 50));
+        list.add(new Expectation("AppointmentRequestDAO.getAllPendingRequests", JdbcAppointmentRequestDAO.PENDING_REQUESTS_SQL,
+            "ar", "idx_requests_status_date"));
+        list.add(new Expectation("AppointmentRequestDAO.getPendingRequestsPage", JdbcAppointmentRequestDAO.PENDING_PAGE_SQL,
+            "ar", "idx_requests_status_date",
+            new java.sql.Date(today.getTime()), new java.sql.Date(today.getTime()), 0, 50));
+        list.add(new Expectation("AppointmentRequestDAO.getRequestsByPatientId", JdbcAppointmentRequestDAO.REQUESTS_BY_PATIENT_SQL,
+            "ar", "idx_requests_patient_date", 1));
+        return list;
+    }
+
+    /**
+     * Returns the names of the queries whose plan does not use the intended index.
+     */
+    public static List<String> check() throws SQLException {
+        List<String> failures = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            for (Expectation e : expectations()) {
+                String used = explainKey(conn, e);
+                boolean ok = e.index.equalsIgnoreCase(used);
+                System.out.printf("%-5s %-45s expected %-38s got %s%n",
+                    ok ? "OK" : "FAIL", e.name, e.index, used);
+                if (!ok) {
+                    failures.add(e.name);
+                }
+            }
+        }
+        return failures;
+    }
+
+    private static String explainKey(Connection conn, Expectation e) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + e.sql)) {
+            for (int i = 0; i < e.params.length; i++) {
+                Object param = e.params[i];
+                if (param instanceof Timestamp) {
+                    stmt.setTimestamp(i + 1, (Timestamp) param);
+                } else {
+                    stmt.setObject(i + 1, param);
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    if (e.table.equalsIgnoreCase(rs.getString("table"))) {
+                        return rs.getString("key");
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        List<String> failures = check();
+        DatabaseConnection.shutdown();
+        if (!failures.isEmpty()) {
+            System.err.println(failures.size() + " quer(ies) not using their intended index: " + failures);
+            System.exit(1);
+        }
+        System.out.println("All DAO queries use their intended indexes.");
+    }
+}
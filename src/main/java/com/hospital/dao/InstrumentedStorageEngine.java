@@ -0,0 +1,100 @@
+package com.hospital.dao;
+
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Wraps another engine so every DAO call is recorded in {@link Metrics} under
+ * "&lt;Interface&gt;.&lt;method&gt;" (overloads share a name). Transactions pass
+ * through untouched, so they still belong to the wrapped engine.
+ */
+public class InstrumentedStorageEngine implements StorageEngine {
+    private final StorageEngine delegate;
+    private final PatientDAO patients;
+    private final DoctorDAO doctors;
+    private final AppointmentDAO appointments;
+    private final AppointmentRequestDAO requests;
+
+    public InstrumentedStorageEngine(StorageEngine delegate) {
+        this.delegate = delegate;
+        this.patients = instrument(PatientDAO.class, delegate.patients());
+        this.doctors = instrument(DoctorDAO.class, delegate.doctors());
+        this.appointments = instrument(AppointmentDAO.class, delegate.appointments());
+        this.requests = instrument(AppointmentRequestDAO.class, delegate.requests());
+    }
+
+    @Override
+    public PatientDAO patients() {
+        return patients;
+    }
+
+    @Override
+    public DoctorDAO doctors() {
+        return doctors;
+    }
+
+    @Override
+    public AppointmentDAO appointments() {
+        return appointments;
+    }
+
+    @Override
+    public AppointmentRequestDAO requests() {
+        return requests;
+    }
+
+    @Override
+    public Transaction begin() throws SQLException {
+        return delegate.begin();
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    public StorageEngine getDelegate() {
+        return delegate;
+    }
+
+    private static <T> T instrument(Class<T> type, T target) {
+        Map<Method, OperationMetrics> operations = new HashMap<>();
+        for (Method method : type.getMethods()) {
+            operations.put(method, Metrics.operation(type.getSimpleName() + "." + method.getName()));
+        }
+        InvocationHandler handler = (proxy, method, args) -> {
+            OperationMetrics metrics = operations.get(method);
+            if (metrics == null) {
+                // Object methods (toString, equals, hashCode)
+                return invoke(method, target, args);
+            }
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invoke(method, target, args);
+            } catch (Throwable t) {
+                metrics.record(start, true, 0);
+                throw t;
+            }
+            metrics.recordResult(start, result, method.getName().startsWith("stream"));
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
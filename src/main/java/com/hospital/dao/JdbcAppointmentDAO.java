@@ -0,0 +1,454 @@
+package com.hospital.dao;
+
+import com.hospital.model.Appointment;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class JdbcAppointmentDAO implements AppointmentDAO {
+    // Sargable day range: [start of day, start of next day) so idx_appointments_doctor_date_status is usable
+    static final String AVAILABILITY_SQL =
+        "SELECT COUNT(*) as count FROM appointments WHERE doctor_id = ? " +
+        "AND appointment_date >= ? AND appointment_date < ? AND status = 'CONFIRMED'";
+
+    private static final String SELECT_WITH_NAMES =
+        "SELECT " + RowMappers.APPOINTMENT.selectList("a") +
+        ", p.name AS patient_name, d.name AS doctor_name, d.specialization " +
+        "FROM appointments a " +
+        "JOIN patients p ON a.patient_id = p.patient_id " +
+        "JOIN doctors d ON a.doctor_id = d.doctor_id ";
+
+    // Keyset page in (appointment_date DESC, appointment_id DESC) order; walks idx_appointments_date
+    static final String APPOINTMENTS_PAGE_SQL = SELECT_WITH_NAMES +
+        "WHERE a.appointment_date < ? OR (a.appointment_date = ? AND a.appointment_id < ?) " +
+        "ORDER BY a.appointment_date DESC, a.appointment_id DESC LIMIT ?";
+
+    static final String APPOINTMENTS_FIRST_PAGE_SQL = SELECT_WITH_NAMES +
+        "ORDER BY a.appointment_date DESC, a.appointment_id DESC LIMIT ?";
+
+    static final String APPOINTMENTS_BY_PATIENT_SQL = SELECT_WITH_NAMES +
+        "WHERE a.patient_id = ? ORDER BY a.appointment_date DESC";
+
+    static final String APPOINTMENTS_BY_PATIENT_PAGE_SQL = SELECT_WITH_NAMES +
+        "WHERE a.patient_id = ? " +
+        "AND (a.appointment_date < ? OR (a.appointment_date = ? AND a.appointment_id < ?)) " +
+        "ORDER BY a.appointment_date DESC, a.appointment_id DESC LIMIT ?";
+
+    static final String APPOINTMENTS_BY_PATIENT_FIRST_PAGE_SQL = SELECT_WITH_NAMES +
+        "WHERE a.patient_id = ? ORDER BY a.appointment_date DESC, a.appointment_id DESC LIMIT ?";
+
+    // Live rows first, then archived ones, joined and sorted together
+    static final String APPOINTMENTS_BY_PATIENT_WITH_ARCHIVE_SQL =
+        "SELECT " + RowMappers.APPOINTMENT.selectList("a") +
+        ", p.name AS patient_name, d.name AS doctor_name, d.specialization " +
+        "FROM (SELECT " + RowMappers.APPOINTMENT.selectList(null) + " FROM appointments WHERE patient_id = ? " +
+        "UNION ALL SELECT " + RowMappers.APPOINTMENT.selectList(null) + " FROM appointments_archive WHERE patient_id = ?) a " +
+        "JOIN patients p ON a.patient_id = p.patient_id " +
+        "JOIN doctors d ON a.doctor_id = d.doctor_id " +
+        "ORDER BY a.appointment_date DESC";
+
+    // Oldest first along idx_appointments_date
+    static final String ARCHIVABLE_SQL =
+        "SELECT appointment_id FROM appointments WHERE appointment_date < ? " +
+        "ORDER BY appointment_date, appointment_id LIMIT ? FOR UPDATE";
+
+    private static final String ARCHIVE_COLUMNS =
+        "appointment_id, patient_id, doctor_id, appointment_date, status, created_at";
+
+    public JdbcAppointmentDAO() {
+        // no-op; obtain connections per-method
+    }
+
+    @Override
+    public int addAppointment(Appointment appointment) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return addAppointment(conn, appointment);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts on the caller's connection so the insert can take part in a larger transaction.
+     */
+    @Override
+    public int addAppointment(Transaction tx, Appointment appointment) throws SQLException {
+        return addAppointment(JdbcStorageEngine.connection(tx), appointment);
+    }
+
+    private int addAppointment(Connection conn, Appointment appointment) throws SQLException {
+        String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, status) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setInt(1, appointment.getPatientId());
+            stmt.setInt(2, appointment.getDoctorId());
+            stmt.setTimestamp(3, new Timestamp(appointment.getAppointmentDate().getTime()));
+            stmt.setString(4, appointment.getStatus());
+            
+            int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts the appointments as one JDBC batch on the caller's connection and sets
+     * each appointment's generated id.
+     */
+    @Override
+    public void addAppointmentsBatch(Transaction tx, List<Appointment> appointments) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        String sql = "INSERT INTO appointments (patient_id, doctor_id, appointment_date, status) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (Appointment appointment : appointments) {
+                stmt.setInt(1, appointment.getPatientId());
+                stmt.setInt(2, appointment.getDoctorId());
+                stmt.setTimestamp(3, new Timestamp(appointment.getAppointmentDate().getTime()));
+                stmt.setString(4, appointment.getStatus());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (rs.next() && i < appointments.size()) {
+                    appointments.get(i++).setAppointmentId(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns "doctorId:epochDay" keys for every CONFIRMED appointment of the given
+     * doctors on the days from {@code from} to {@code to}, read on the caller's connection.
+     */
+    @Override
+    public Set<String> findBookedDays(Transaction tx, Collection<Integer> doctorIds,
+                                      java.util.Date from, java.util.Date to) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        Set<String> booked = new HashSet<>();
+        if (doctorIds.isEmpty()) {
+            return booked;
+        }
+        StringBuilder sql = new StringBuilder(
+            "SELECT doctor_id, appointment_date FROM appointments WHERE status = 'CONFIRMED' " +
+            "AND appointment_date >= ? AND appointment_date < ? AND doctor_id IN (");
+        for (int i = 0; i < doctorIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            stmt.setTimestamp(1, startOfDay(from));
+            stmt.setTimestamp(2, startOfNextDay(to));
+            int index = 3;
+            for (Integer doctorId : doctorIds) {
+                stmt.setInt(index++, doctorId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    booked.add(AppointmentDAO.bookedDayKey(rs.getInt(1), rs.getTimestamp(2)));
+                }
+            }
+        }
+        return booked;
+    }
+
+    @Override
+    public Appointment getAppointmentById(int appointmentId) {
+        String sql = SELECT_WITH_NAMES + "WHERE a.appointment_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, appointmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.APPOINTMENT_WITH_NAMES.first(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public List<Appointment> getAllAppointments() {
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = SELECT_WITH_NAMES + "ORDER BY a.appointment_date DESC";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            RowMappers.APPOINTMENT_WITH_NAMES.forEach(rs, appointments::add);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return appointments;
+    }
+
+    /**
+     * Returns at most {@code limit} appointments, newest first, that come after the
+     * given cursor. Pass a null {@code afterDate} for the first page; for the next
+     * page pass the date and id of the last appointment returned.
+     */
+    @Override
+    public List<Appointment> getAppointmentsPage(java.util.Date afterDate, int afterId, int limit) {
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = afterDate == null ? APPOINTMENTS_FIRST_PAGE_SQL : APPOINTMENTS_PAGE_SQL;
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (afterDate == null) {
+                stmt.setInt(1, limit);
+            } else {
+                Timestamp cursor = new Timestamp(afterDate.getTime());
+                stmt.setTimestamp(1, cursor);
+                stmt.setTimestamp(2, cursor);
+                stmt.setInt(3, afterId);
+                stmt.setInt(4, limit);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.APPOINTMENT_WITH_NAMES.forEach(rs, appointments::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return appointments;
+    }
+
+    /**
+     * Streams every appointment, newest first, to the consumer without building a list.
+     * Rows are read from a forward-only cursor, so memory use does not grow with the table.
+     * Returns the number of rows delivered, or -1 on error.
+     */
+    @Override
+    public int streamAllAppointments(Consumer<Appointment> consumer) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = ResultStreams.prepareStreaming(conn, SELECT_WITH_NAMES +
+                 "ORDER BY a.appointment_date DESC, a.appointment_id DESC");
+             ResultSet rs = stmt.executeQuery()) {
+            return RowMappers.APPOINTMENT_WITH_NAMES.forEach(rs, consumer);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientId(int patientId) {
+        List<Appointment> appointments = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(APPOINTMENTS_BY_PATIENT_SQL)) {
+            stmt.setInt(1, patientId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.APPOINTMENT_WITH_NAMES.forEach(rs, appointments::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return appointments;
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientPage(int patientId, java.util.Date afterDate, int afterId, int limit) {
+        List<Appointment> appointments = new ArrayList<>();
+        String sql = afterDate == null ? APPOINTMENTS_BY_PATIENT_FIRST_PAGE_SQL : APPOINTMENTS_BY_PATIENT_PAGE_SQL;
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, patientId);
+            if (afterDate == null) {
+                stmt.setInt(2, limit);
+            } else {
+                Timestamp cursor = new Timestamp(afterDate.getTime());
+                stmt.setTimestamp(2, cursor);
+                stmt.setTimestamp(3, cursor);
+                stmt.setInt(4, afterId);
+                stmt.setInt(5, limit);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.APPOINTMENT_WITH_NAMES.forEach(rs, appointments::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return appointments;
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientId(int patientId, boolean includeArchived) {
+        if (!includeArchived) {
+            return getAppointmentsByPatientId(patientId);
+        }
+        List<Appointment> appointments = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(APPOINTMENTS_BY_PATIENT_WITH_ARCHIVE_SQL)) {
+            stmt.setInt(1, patientId);
+            stmt.setInt(2, patientId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.APPOINTMENT_WITH_NAMES.forEach(rs, appointments::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return appointments;
+    }
+
+    @Override
+    public boolean checkDoctorAvailability(int doctorId, java.util.Date appointmentDate) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return checkDoctorAvailability(conn, doctorId, appointmentDate);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean checkDoctorAvailability(Transaction tx, int doctorId, java.util.Date appointmentDate) throws SQLException {
+        return checkDoctorAvailability(JdbcStorageEngine.connection(tx), doctorId, appointmentDate);
+    }
+
+    private boolean checkDoctorAvailability(Connection conn, int doctorId, java.util.Date appointmentDate) throws SQLException {
+        // Check if doctor has any appointment on the same date (ignoring time)
+        try (PreparedStatement stmt = conn.prepareStatement(AVAILABILITY_SQL)) {
+            stmt.setInt(1, doctorId);
+            stmt.setTimestamp(2, startOfDay(appointmentDate));
+            stmt.setTimestamp(3, startOfNextDay(appointmentDate));
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getInt(1) == 0;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Streams the doctor id and date of every CONFIRMED appointment in [from, to).
+     * Only those fields (plus the id) are populated. Returns the row count, or -1 on error.
+     */
+    @Override
+    public int streamConfirmedAppointments(java.util.Date from, java.util.Date to, Consumer<Appointment> consumer) {
+        String sql = "SELECT appointment_id, doctor_id, appointment_date FROM appointments " +
+                     "WHERE status = 'CONFIRMED' AND appointment_date >= ? AND appointment_date < ?";
+        int count = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = ResultStreams.prepareStreaming(conn, sql)) {
+            stmt.setTimestamp(1, new Timestamp(from.getTime()));
+            stmt.setTimestamp(2, new Timestamp(to.getTime()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    Appointment appointment = new Appointment();
+                    appointment.setAppointmentId(rs.getInt(1));
+                    appointment.setDoctorId(rs.getInt(2));
+                    appointment.setAppointmentDate(rs.getTimestamp(3));
+                    appointment.setStatus("CONFIRMED");
+                    consumer.accept(appointment);
+                    count++;
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return count;
+    }
+
+    @Override
+    public int streamDailyStatusCounts(DailyCountConsumer consumer) {
+        String sql = "SELECT doctor_id, DATE(appointment_date), status, COUNT(*) FROM appointments " +
+                     "GROUP BY doctor_id, DATE(appointment_date), status";
+        int groups = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = ResultStreams.prepareStreaming(conn, sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(rs.getInt(1), rs.getDate(2).toLocalDate().toEpochDay(), rs.getString(3), rs.getInt(4));
+                groups++;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return groups;
+    }
+
+    /**
+     * Reads the appointment row (without joined names) and locks it until the caller's
+     * transaction ends.
+     */
+    @Override
+    public Appointment lockAppointmentById(Transaction tx, int appointmentId) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        String sql = "SELECT " + RowMappers.APPOINTMENT.selectList(null) +
+                     " FROM appointments WHERE appointment_id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, appointmentId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.APPOINTMENT.first(rs);
+            }
+        }
+    }
+
+    @Override
+    public boolean updateAppointmentStatus(int appointmentId, String status) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return updateAppointmentStatus(conn, appointmentId, status);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean updateAppointmentStatus(Transaction tx, int appointmentId, String status) throws SQLException {
+        return updateAppointmentStatus(JdbcStorageEngine.connection(tx), appointmentId, status);
+    }
+
+    private boolean updateAppointmentStatus(Connection conn, int appointmentId, String status) throws SQLException {
+        String sql = "UPDATE appointments SET status = ? WHERE appointment_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, status);
+            stmt.setInt(2, appointmentId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    static Timestamp startOfDay(java.util.Date date) {
+        return Timestamp.valueOf(toLocalDate(date).atStartOfDay());
+    }
+
+    static Timestamp startOfNextDay(java.util.Date date) {
+        return Timestamp.valueOf(toLocalDate(date).plusDays(1).atStartOfDay());
+    }
+
+    private static LocalDate toLocalDate(java.util.Date date) {
+        return LocalDate.ofEpochDay(AppointmentDAO.epochDay(date));
+    }
+
+    @Override
+    public int archiveAppointmentsBefore(Transaction tx, java.util.Date cutoff, int limit) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(ARCHIVABLE_SQL)) {
+            stmt.setTimestamp(1, new Timestamp(cutoff.getTime()));
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            JdbcStorageEngine.moveToArchive(conn, "appointments", "appointment_id", ARCHIVE_COLUMNS, ids);
+        }
+        return ids.size();
+    }
+}
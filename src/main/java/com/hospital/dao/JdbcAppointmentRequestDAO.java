@@ -0,0 +1,333 @@
+package com.hospital.dao;
+
+import com.hospital.model.AppointmentRequest;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class JdbcAppointmentRequestDAO implements AppointmentRequestDAO {
+    private static final String INSERT_SQL =
+        "INSERT INTO appointment_requests (patient_id, specialization, requested_date, status, description) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String SELECT_WITH_PATIENT =
+        "SELECT " + RowMappers.REQUEST.selectList("ar") + ", p.name AS patient_name " +
+        "FROM appointment_requests ar JOIN patients p ON ar.patient_id = p.patient_id ";
+
+    private static final String SELECT_REQUESTS =
+        "SELECT " + RowMappers.REQUEST.selectList(null) + " FROM appointment_requests ";
+
+    static final String PENDING_REQUESTS_SQL = SELECT_WITH_PATIENT +
+        "WHERE ar.status = 'PENDING' ORDER BY ar.requested_date";
+
+    // Keyset page in (requested_date, request_id) order; walks idx_requests_status_date
+    static final String PENDING_PAGE_SQL = SELECT_WITH_PATIENT +
+        "WHERE ar.status = 'PENDING' " +
+        "AND (ar.requested_date > ? OR (ar.requested_date = ? AND ar.request_id > ?)) " +
+        "ORDER BY ar.requested_date, ar.request_id LIMIT ?";
+
+    static final String PENDING_FIRST_PAGE_SQL = SELECT_WITH_PATIENT +
+        "WHERE ar.status = 'PENDING' ORDER BY ar.requested_date, ar.request_id LIMIT ?";
+
+    static final String REQUESTS_BY_PATIENT_SQL = SELECT_WITH_PATIENT +
+        "WHERE ar.patient_id = ? ORDER BY ar.requested_date DESC";
+
+    // Live rows first, then archived ones, joined and sorted together
+    static final String REQUESTS_BY_PATIENT_WITH_ARCHIVE_SQL =
+        "SELECT " + RowMappers.REQUEST.selectList("ar") + ", p.name AS patient_name " +
+        "FROM (SELECT " + RowMappers.REQUEST.selectList(null) + " FROM appointment_requests WHERE patient_id = ? " +
+        "UNION ALL SELECT " + RowMappers.REQUEST.selectList(null) +
+        " FROM appointment_requests_archive WHERE patient_id = ?) ar " +
+        "JOIN patients p ON ar.patient_id = p.patient_id " +
+        "ORDER BY ar.requested_date DESC";
+
+    // PENDING requests stay live however old, so they can still be fixed
+    static final String ARCHIVABLE_SQL =
+        "SELECT request_id FROM appointment_requests WHERE requested_date < ? AND status <> 'PENDING' " +
+        "ORDER BY requested_date, request_id LIMIT ? FOR UPDATE";
+
+    private static final String ARCHIVE_COLUMNS =
+        "request_id, patient_id, specialization, requested_date, status, description, created_at";
+
+    public JdbcAppointmentRequestDAO() {
+        // No per-instance persistent Connection - obtain per-operation
+    }
+
+    @Override
+    public int addAppointmentRequest(AppointmentRequest request) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(stmt, request);
+            
+            int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public void addAppointmentRequestsBatch(Transaction tx, List<AppointmentRequest> requests) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (AppointmentRequest request : requests) {
+                bindInsert(stmt, request);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (rs.next() && i < requests.size()) {
+                    requests.get(i++).setRequestId(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    private void bindInsert(PreparedStatement stmt, AppointmentRequest request) throws SQLException {
+        stmt.setInt(1, request.getPatientId());
+        stmt.setString(2, request.getSpecialization());
+        stmt.setDate(3, new java.sql.Date(request.getRequestedDate().getTime()));
+        stmt.setString(4, request.getStatus());
+        stmt.setString(5, request.getDescription() != null ? request.getDescription() : "");
+    }
+
+    @Override
+    public AppointmentRequest getRequestById(int requestId) {
+        String sql = SELECT_WITH_PATIENT + "WHERE ar.request_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, requestId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.REQUEST_WITH_PATIENT.first(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public List<AppointmentRequest> getAllPendingRequests() {
+        List<AppointmentRequest> requests = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(PENDING_REQUESTS_SQL)) {
+            RowMappers.REQUEST_WITH_PATIENT.forEach(rs, requests::add);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return requests;
+    }
+
+    /**
+     * Returns at most {@code limit} pending requests, oldest requested date first, that
+     * come after the given cursor. Pass a null {@code afterDate} for the first page; for
+     * the next page pass the requested date and id of the last request returned.
+     */
+    @Override
+    public List<AppointmentRequest> getPendingRequestsPage(java.util.Date afterDate, int afterId, int limit) {
+        List<AppointmentRequest> requests = new ArrayList<>();
+        String sql = afterDate == null ? PENDING_FIRST_PAGE_SQL : PENDING_PAGE_SQL;
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            if (afterDate == null) {
+                stmt.setInt(1, limit);
+            } else {
+                java.sql.Date cursor = new java.sql.Date(afterDate.getTime());
+                stmt.setDate(1, cursor);
+                stmt.setDate(2, cursor);
+                stmt.setInt(3, afterId);
+                stmt.setInt(4, limit);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.REQUEST_WITH_PATIENT.forEach(rs, requests::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return requests;
+    }
+
+    /**
+     * Streams every pending request, oldest requested date first, from a forward-only
+     * cursor. Returns the number of rows delivered, or -1 on error.
+     */
+    @Override
+    public int streamPendingRequests(Consumer<AppointmentRequest> consumer) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = ResultStreams.prepareStreaming(conn, PENDING_REQUESTS_SQL);
+             ResultSet rs = stmt.executeQuery()) {
+            return RowMappers.REQUEST_WITH_PATIENT.forEach(rs, consumer);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public List<AppointmentRequest> getRequestsByPatientId(int patientId, boolean includeArchived) {
+        if (!includeArchived) {
+            return getRequestsByPatientId(patientId);
+        }
+        List<AppointmentRequest> requests = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REQUESTS_BY_PATIENT_WITH_ARCHIVE_SQL)) {
+            stmt.setInt(1, patientId);
+            stmt.setInt(2, patientId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.REQUEST_WITH_PATIENT.forEach(rs, requests::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return requests;
+    }
+
+    @Override
+    public int streamStatusCounts(StatusCountConsumer consumer) {
+        String sql = "SELECT specialization, status, COUNT(*) FROM appointment_requests " +
+                     "GROUP BY specialization, status";
+        int groups = 0;
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                consumer.accept(rs.getString(1), rs.getString(2), rs.getInt(3));
+                groups++;
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+        return groups;
+    }
+
+    @Override
+    public List<AppointmentRequest> getRequestsByPatientId(int patientId) {
+        List<AppointmentRequest> requests = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(REQUESTS_BY_PATIENT_SQL)) {
+            stmt.setInt(1, patientId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.REQUEST_WITH_PATIENT.forEach(rs, requests::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return requests;
+    }
+
+    /**
+     * Reads the request and locks its row until the caller's transaction ends.
+     * The patient name is not joined in, so only the request row is locked.
+     */
+    @Override
+    public AppointmentRequest lockRequestById(Transaction tx, int requestId) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        String sql = SELECT_REQUESTS + "WHERE request_id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, requestId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.REQUEST.first(rs);
+            }
+        }
+    }
+
+    /**
+     * Reads and locks the given requests in request_id order until the caller's
+     * transaction ends. Returns them keyed by id; missing ids are absent.
+     */
+    @Override
+    public Map<Integer, AppointmentRequest> lockRequestsByIds(Transaction tx, Collection<Integer> requestIds) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        Map<Integer, AppointmentRequest> requests = new HashMap<>();
+        if (requestIds.isEmpty()) {
+            return requests;
+        }
+        StringBuilder sql = new StringBuilder(SELECT_REQUESTS + "WHERE request_id IN (");
+        for (int i = 0; i < requestIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(") ORDER BY request_id FOR UPDATE");
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Integer requestId : requestIds) {
+                stmt.setInt(index++, requestId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.REQUEST.forEach(rs, request -> requests.put(request.getRequestId(), request));
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public void updateRequestStatusBatch(Transaction tx, Collection<Integer> requestIds, String status) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        String sql = "UPDATE appointment_requests SET status = ? WHERE request_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            for (Integer requestId : requestIds) {
+                stmt.setString(1, status);
+                stmt.setInt(2, requestId);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    @Override
+    public boolean updateRequestStatus(int requestId, String status) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return updateRequestStatus(conn, requestId, status);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean updateRequestStatus(Transaction tx, int requestId, String status) throws SQLException {
+        return updateRequestStatus(JdbcStorageEngine.connection(tx), requestId, status);
+    }
+
+    private boolean updateRequestStatus(Connection conn, int requestId, String status) throws SQLException {
+        String sql = "UPDATE appointment_requests SET status = ? WHERE request_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, status);
+            stmt.setInt(2, requestId);
+            return stmt.executeUpdate() > 0;
+        }
+    }
+
+    @Override
+    public int archiveRequestsBefore(Transaction tx, java.util.Date cutoff, int limit) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        List<Integer> ids = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(ARCHIVABLE_SQL)) {
+            stmt.setDate(1, new java.sql.Date(cutoff.getTime()));
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    ids.add(rs.getInt(1));
+                }
+            }
+        }
+        if (!ids.isEmpty()) {
+            JdbcStorageEngine.moveToArchive(conn, "appointment_requests", "request_id", ARCHIVE_COLUMNS, ids);
+        }
+        return ids.size();
+    }
+}
@@ -0,0 +1,273 @@
+package com.hospital.dao;
+
+import com.hospital.model.Doctor;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class JdbcDoctorDAO implements DoctorDAO {
+    private static final String INSERT_SQL =
+        "INSERT INTO doctors (name, specialization, email, phone, qualification, experience, available) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_DOCTORS =
+        "SELECT " + RowMappers.DOCTOR.selectList(null) + " FROM doctors ";
+
+    public JdbcDoctorDAO() {
+        // no-op; obtain connections per-method
+    }
+
+    @Override
+    public int addDoctor(Doctor doctor) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return addDoctor(conn, doctor);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return -1;
+    }
+
+    @Override
+    public int addDoctor(Transaction tx, Doctor doctor) throws SQLException {
+        return addDoctor(JdbcStorageEngine.connection(tx), doctor);
+    }
+
+    private int addDoctor(Connection conn, Doctor doctor) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(stmt, doctor);
+            
+            int affectedRows = stmt.executeUpdate();
+            if (affectedRows > 0) {
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        return rs.getInt(1);
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Inserts the doctors as one JDBC batch on the caller's connection and sets each
+     * doctor's generated id. A duplicate email fails the whole batch.
+     */
+    @Override
+    public void addDoctorsBatch(Transaction tx, List<Doctor> doctors) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Doctor doctor : doctors) {
+                bindInsert(stmt, doctor);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (rs.next() && i < doctors.size()) {
+                    doctors.get(i++).setDoctorId(rs.getInt(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns which of the given emails already belong to a doctor.
+     */
+    @Override
+    public Set<String> findExistingEmails(Transaction tx, Collection<String> emails) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        Set<String> existing = new HashSet<>();
+        if (emails.isEmpty()) {
+            return existing;
+        }
+        StringBuilder sql = new StringBuilder("SELECT email FROM doctors WHERE email IN (");
+        for (int i = 0; i < emails.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (String email : emails) {
+                stmt.setString(index++, email);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString("email").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return existing;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Doctor doctor) throws SQLException {
+        stmt.setString(1, doctor.getName());
+        stmt.setString(2, doctor.getSpecialization());
+        stmt.setString(3, doctor.getEmail());
+        stmt.setString(4, doctor.getPhone());
+        stmt.setString(5, doctor.getQualification());
+        stmt.setInt(6, doctor.getExperience());
+        stmt.setBoolean(7, doctor.isAvailable());
+    }
+
+    @Override
+    public Doctor getDoctorById(int doctorId) {
+        String sql = SELECT_DOCTORS + "WHERE doctor_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, doctorId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.DOCTOR.first(rs);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    /**
+     * Reads the doctor and locks the row until the caller's transaction ends, which
+     * serialises concurrent bookings against the same doctor.
+     */
+    @Override
+    public Doctor lockDoctorById(Transaction tx, int doctorId) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        String sql = SELECT_DOCTORS + "WHERE doctor_id = ? FOR UPDATE";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, doctorId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.DOCTOR.first(rs);
+            }
+        }
+    }
+
+    /**
+     * Reads and locks the given doctors in doctor_id order until the caller's
+     * transaction ends. Returns them keyed by id; missing ids are absent.
+     */
+    @Override
+    public Map<Integer, Doctor> lockDoctorsByIds(Transaction tx, Collection<Integer> doctorIds) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        Map<Integer, Doctor> doctors = new HashMap<>();
+        if (doctorIds.isEmpty()) {
+            return doctors;
+        }
+        StringBuilder sql = new StringBuilder(SELECT_DOCTORS + "WHERE doctor_id IN (");
+        for (int i = 0; i < doctorIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(") ORDER BY doctor_id FOR UPDATE");
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Integer doctorId : doctorIds) {
+                stmt.setInt(index++, doctorId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.DOCTOR.forEach(rs, doctor -> doctors.put(doctor.getDoctorId(), doctor));
+            }
+        }
+        return doctors;
+    }
+
+    @Override
+    public List<Doctor> getAllDoctors() {
+        List<Doctor> doctors = new ArrayList<>();
+        String sql = SELECT_DOCTORS;
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            RowMappers.DOCTOR.forEach(rs, doctors::add);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return doctors;
+    }
+
+    /**
+     * Returns at most {@code limit} doctors with an id greater than {@code afterId},
+     * in id order. Pass 0 for the first page and the last id seen for the next.
+     */
+    @Override
+    public List<Doctor> getDoctorsPage(int afterId, int limit) {
+        List<Doctor> doctors = new ArrayList<>();
+        String sql = SELECT_DOCTORS + "WHERE doctor_id > ? ORDER BY doctor_id LIMIT ?";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.DOCTOR.forEach(rs, doctors::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return doctors;
+    }
+
+    /**
+     * Streams every doctor in id order to the consumer from a forward-only cursor.
+     * Returns the number of rows delivered, or -1 on error.
+     */
+    @Override
+    public int streamAllDoctors(Consumer<Doctor> consumer) {
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = ResultStreams.prepareStreaming(conn, SELECT_DOCTORS + "ORDER BY doctor_id");
+             ResultSet rs = stmt.executeQuery()) {
+            return RowMappers.DOCTOR.forEach(rs, consumer);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public List<Doctor> getAvailableDoctorsBySpecialization(String specialization) {
+        List<Doctor> doctors = new ArrayList<>();
+        String sql = SELECT_DOCTORS + "WHERE specialization = ? AND available = true";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, specialization);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.DOCTOR.forEach(rs, doctors::add);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return doctors;
+    }
+
+    @Override
+    public List<Doctor> getAvailableDoctors() {
+        List<Doctor> doctors = new ArrayList<>();
+        String sql = SELECT_DOCTORS + "WHERE available = true";
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            RowMappers.DOCTOR.forEach(rs, doctors::add);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return doctors;
+    }
+
+    @Override
+    public boolean updateDoctorAvailability(int doctorId, boolean available) {
+        String sql = "UPDATE doctors SET available = ? WHERE doctor_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setBoolean(1, available);
+            stmt.setInt(2, doctorId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+}
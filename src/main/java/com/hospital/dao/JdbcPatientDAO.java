@@ -0,0 +1,322 @@
+package com.hospital.dao;
+
+import com.hospital.model.Patient;
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+public class JdbcPatientDAO implements PatientDAO {
+    private static final String INSERT_SQL =
+        "INSERT INTO patients (name, email, phone, age, gender, address) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SELECT_PATIENTS =
+        "SELECT " + RowMappers.PATIENT.selectList(null) + " FROM patients ";
+
+    @Override
+    public int addPatient(Patient patient) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return addPatient(conn, patient);
+        } catch (SQLException e) {
+            if (StorageEngine.isDuplicateKey(e)) {
+                return DUPLICATE_EMAIL;
+            }
+            System.err.println("Error adding patient: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public int addPatient(Transaction tx, Patient patient) throws SQLException {
+        return addPatient(JdbcStorageEngine.connection(tx), patient);
+    }
+
+    private int addPatient(Connection conn, Patient patient) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            bindInsert(stmt, patient);
+            
+            int affectedRows = stmt.executeUpdate();
+            if (affectedRows == 0) {
+                throw new SQLException("Creating patient failed, no rows affected.");
+            }
+
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getInt(1);
+                } else {
+                    throw new SQLException("Creating patient failed, no ID obtained.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Inserts the patients as one JDBC batch on the caller's connection and sets each
+     * patient's generated id. With rewriteBatchedStatements=true on the URL the driver
+     * sends this as multi-row INSERTs. A duplicate email fails the whole batch.
+     */
+    @Override
+    public void addPatientsBatch(Transaction tx, List<Patient> patients) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            for (Patient patient : patients) {
+                bindInsert(stmt, patient);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
+                int i = 0;
+                while (generatedKeys.next() && i < patients.size()) {
+                    patients.get(i++).setPatientId(generatedKeys.getInt(1));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns which of the given emails are already registered.
+     */
+    @Override
+    public Set<String> findExistingEmails(Transaction tx, Collection<String> emails) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        Set<String> existing = new HashSet<>();
+        if (emails.isEmpty()) {
+            return existing;
+        }
+        StringBuilder sql = new StringBuilder("SELECT email FROM patients WHERE email IN (");
+        for (int i = 0; i < emails.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (String email : emails) {
+                stmt.setString(index++, email);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getString("email").toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Returns which of the given patient ids exist.
+     */
+    @Override
+    public Set<Integer> findExistingIds(Transaction tx, Collection<Integer> patientIds) throws SQLException {
+        Connection conn = JdbcStorageEngine.connection(tx);
+        Set<Integer> existing = new HashSet<>();
+        if (patientIds.isEmpty()) {
+            return existing;
+        }
+        StringBuilder sql = new StringBuilder("SELECT patient_id FROM patients WHERE patient_id IN (");
+        for (int i = 0; i < patientIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Integer patientId : patientIds) {
+                stmt.setInt(index++, patientId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getInt(1));
+                }
+            }
+        }
+        return existing;
+    }
+
+    private void bindInsert(PreparedStatement stmt, Patient patient) throws SQLException {
+        stmt.setString(1, patient.getName());
+        stmt.setString(2, patient.getEmail());
+        stmt.setString(3, patient.getPhone());
+        stmt.setInt(4, patient.getAge());
+        stmt.setString(5, patient.getGender());
+        stmt.setString(6, patient.getAddress());
+    }
+
+    @Override
+    public boolean updatePatient(Patient patient) {
+        String sql = "UPDATE patients SET name=?, phone=?, age=?, gender=?, address=? WHERE email=?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, patient.getName());
+            stmt.setString(2, patient.getPhone());
+            stmt.setInt(3, patient.getAge());
+            stmt.setString(4, patient.getGender());
+            stmt.setString(5, patient.getAddress());
+            stmt.setString(6, patient.getEmail());
+
+            int rowsUpdated = stmt.executeUpdate();
+            return rowsUpdated > 0;
+        } catch (SQLException e) {
+            System.err.println("Error updating patient: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public Patient getPatientByEmail(String email) {
+        String sql = SELECT_PATIENTS + "WHERE email = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setString(1, email);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.PATIENT.first(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patient: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public List<Patient> getAllPatients() {
+        List<Patient> patients = new ArrayList<>();
+        String sql = SELECT_PATIENTS;
+        
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            RowMappers.PATIENT.forEach(rs, patients::add);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patients: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return patients;
+    }
+
+    /**
+     * Returns at most {@code limit} patients with an id greater than {@code afterId},
+     * in id order. Pass 0 for the first page and the last id seen for the next.
+     */
+    @Override
+    public List<Patient> getPatientsPage(int afterId, int limit) {
+        List<Patient> patients = new ArrayList<>();
+        String sql = SELECT_PATIENTS + "WHERE patient_id > ? ORDER BY patient_id LIMIT ?";
+        try (Connection conn = DatabaseConnection.getReadConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, afterId);
+            stmt.setInt(2, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.PATIENT.forEach(rs, patients::add);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patients page: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return patients;
+    }
+
+    /**
+     * Streams every patient in id order to the consumer from a forward-only cursor.
+     * Returns the number of rows delivered, or -1 on error.
+     */
+    @Override
+    public int streamAllPatients(Consumer<Patient> consumer) {
+        try (Connection conn = DatabaseConnection.getReadConnection()) {
+            return streamAllPatients(conn, consumer);
+        } catch (SQLException e) {
+            System.err.println("Error streaming patients: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public int streamAllPatientsFromPrimary(Consumer<Patient> consumer) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            return streamAllPatients(conn, consumer);
+        } catch (SQLException e) {
+            System.err.println("Error streaming patients: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    private int streamAllPatients(Connection conn, Consumer<Patient> consumer) throws SQLException {
+        try (PreparedStatement stmt = ResultStreams.prepareStreaming(conn, SELECT_PATIENTS + "ORDER BY patient_id");
+             ResultSet rs = stmt.executeQuery()) {
+            return RowMappers.PATIENT.forEach(rs, consumer);
+        }
+    }
+
+    @Override
+    public int streamAllEmails(Consumer<String> consumer) {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = ResultStreams.prepareStreaming(conn, "SELECT email FROM patients");
+             ResultSet rs = stmt.executeQuery()) {
+            int count = 0;
+            while (rs.next()) {
+                consumer.accept(rs.getString(1));
+                count++;
+            }
+            return count;
+        } catch (SQLException e) {
+            System.err.println("Error streaming patient emails: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public Patient getPatientById(int patientId) {
+        String sql = SELECT_PATIENTS + "WHERE patient_id = ?";
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            
+            stmt.setInt(1, patientId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return RowMappers.PATIENT.first(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patient by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    @Override
+    public List<Patient> getPatientsByIds(Collection<Integer> patientIds) {
+        List<Patient> patients = new ArrayList<>(patientIds.size());
+        if (patientIds.isEmpty()) {
+            return patients;
+        }
+        StringBuilder sql = new StringBuilder(SELECT_PATIENTS).append("WHERE patient_id IN (");
+        for (int i = 0; i < patientIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Integer patientId : patientIds) {
+                stmt.setInt(index++, patientId);
+            }
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMappers.PATIENT.forEach(rs, patients::add);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patients by ID: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return patients;
+    }
+}
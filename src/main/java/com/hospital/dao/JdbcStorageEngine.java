@@ -0,0 +1,113 @@
+package com.hospital.dao;
+
+import com.hospital.util.DatabaseConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * The MySQL backend: DAOs over pooled connections from DatabaseConnection, with
+ * transactions mapped onto a single connection with auto-commit off.
+ */
+public class JdbcStorageEngine implements StorageEngine {
+    private final PatientDAO patients = new JdbcPatientDAO();
+    private final DoctorDAO doctors = new JdbcDoctorDAO();
+    private final AppointmentDAO appointments = new JdbcAppointmentDAO();
+    private final AppointmentRequestDAO requests = new JdbcAppointmentRequestDAO();
+
+    @Override
+    public PatientDAO patients() {
+        return patients;
+    }
+
+    @Override
+    public DoctorDAO doctors() {
+        return doctors;
+    }
+
+    @Override
+    public AppointmentDAO appointments() {
+        return appointments;
+    }
+
+    @Override
+    public AppointmentRequestDAO requests() {
+        return requests;
+    }
+
+    @Override
+    public Transaction begin() throws SQLException {
+        Connection conn = DatabaseConnection.getConnection();
+        try {
+            conn.setAutoCommit(false);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        return new JdbcTransaction(conn);
+    }
+
+    @Override
+    public void shutdown() {
+        DatabaseConnection.shutdown();
+    }
+
+    /**
+     * Returns the connection behind a transaction from this engine.
+     */
+    static Connection connection(Transaction tx) {
+        if (!(tx instanceof JdbcTransaction)) {
+            throw new IllegalArgumentException("Transaction does not belong to the JDBC storage engine");
+        }
+        return ((JdbcTransaction) tx).conn;
+    }
+
+    /**
+     * Copies the rows with the given ids into the archive table and deletes them from
+     * the live one, on the caller's connection. Both tables must have the columns listed.
+     */
+    static void moveToArchive(Connection conn, String table, String idColumn, String columns,
+                              List<Integer> ids) throws SQLException {
+        StringBuilder in = new StringBuilder(" WHERE ").append(idColumn).append(" IN (");
+        for (int i = 0; i < ids.size(); i++) {
+            in.append(i == 0 ? "?" : ",?");
+        }
+        in.append(')');
+        String copy = "INSERT INTO " + table + "_archive (" + columns + ") SELECT " + columns + " FROM " + table + in;
+        String delete = "DELETE FROM " + table + in;
+        for (String sql : new String[]{copy, delete}) {
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    stmt.setInt(i + 1, ids.get(i));
+                }
+                stmt.executeUpdate();
+            }
+        }
+    }
+
+    private static final class JdbcTransaction implements Transaction {
+        final Connection conn;
+
+        JdbcTransaction(Connection conn) {
+            this.conn = conn;
+        }
+
+        @Override
+        public void commit() throws SQLException {
+            conn.commit();
+        }
+
+        @Override
+        public void rollback() throws SQLException {
+            conn.rollback();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            // The pool rolls back uncommitted work when the connection is returned
+            conn.close();
+        }
+    }
+}
@@ -1,128 +1,78 @@
 package com.hospital.dao;
 
 import com.hospital.model.Patient;
-import com.hospital.util.DatabaseConnection;
 
-import java.sql.*;
-import java.util.ArrayList;
+import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class PatientDAO {
-    public int addPatient(Patient patient) {
-        String sql = "INSERT INTO patients (name, email, phone, age, gender, address) VALUES (?, ?, ?, ?, ?, ?)";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            stmt.setString(1, patient.getName());
-            stmt.setString(2, patient.getEmail());
-            stmt.setString(3, patient.getPhone());
-            stmt.setInt(4, patient.getAge());
-            stmt.setString(5, patient.getGender());
-            stmt.setString(6, patient.getAddress());
-            
-            int affectedRows = stmt.executeUpdate();
-            if (affectedRows == 0) {
-                throw new SQLException("Creating patient failed, no rows affected.");
-            }
-
-            try (ResultSet generatedKeys = stmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating patient failed, no ID obtained.");
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error adding patient: " + e.getMessage());
-            e.printStackTrace();
-            return -1;
-        }
-    }
-
-    public boolean updatePatient(Patient patient) {
-        String sql = "UPDATE patients SET name=?, phone=?, age=?, gender=?, address=? WHERE email=?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, patient.getName());
-            stmt.setString(2, patient.getPhone());
-            stmt.setInt(3, patient.getAge());
-            stmt.setString(4, patient.getGender());
-            stmt.setString(5, patient.getAddress());
-            stmt.setString(6, patient.getEmail());
-
-            int rowsUpdated = stmt.executeUpdate();
-            return rowsUpdated > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating patient: " + e.getMessage());
-            e.printStackTrace();
-            return false;
-        }
-    }
-
-    public Patient getPatientByEmail(String email) {
-        String sql = "SELECT * FROM patients WHERE email = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setString(1, email);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToPatient(rs);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving patient: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    public List<Patient> getAllPatients() {
-        List<Patient> patients = new ArrayList<>();
-        String sql = "SELECT * FROM patients";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            
-            while (rs.next()) {
-                patients.add(mapResultSetToPatient(rs));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving patients: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return patients;
-    }
-
-    public Patient getPatientById(int patientId) {
-        String sql = "SELECT * FROM patients WHERE patient_id = ?";
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            
-            stmt.setInt(1, patientId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapResultSetToPatient(rs);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving patient by ID: " + e.getMessage());
-            e.printStackTrace();
-        }
-        return null;
-    }
-
-    private Patient mapResultSetToPatient(ResultSet rs) throws SQLException {
-        Patient patient = new Patient();
-        patient.setPatientId(rs.getInt("patient_id"));
-        patient.setName(rs.getString("name"));
-        patient.setEmail(rs.getString("email"));
-        patient.setPhone(rs.getString("phone"));
-        patient.setAge(rs.getInt("age"));
-        patient.setGender(rs.getString("gender"));
-        patient.setAddress(rs.getString("address"));
-        return patient;
-    }
-}
\ No newline at end of file
+public interface PatientDAO {
+    /**
+     * Returned by {@link #addPatient(Patient)} when the email is already registered.
+     */
+    int DUPLICATE_EMAIL = -2;
+
+    /**
+     * Inserts the patient in a single statement; the unique key on email decides
+     * duplicates. Returns the new patient's id, {@link #DUPLICATE_EMAIL}, or -1 on error.
+     */
+    int addPatient(Patient patient);
+
+    int addPatient(Transaction tx, Patient patient) throws SQLException;
+
+    /**
+     * Inserts the patients in one batch inside the caller's transaction and sets each
+     * patient's generated id. A duplicate email fails the whole batch.
+     */
+    void addPatientsBatch(Transaction tx, List<Patient> patients) throws SQLException;
+
+    /**
+     * Returns which of the given emails are already registered, lowercased.
+     */
+    Set<String> findExistingEmails(Transaction tx, Collection<String> emails) throws SQLException;
+
+    /**
+     * Returns which of the given patient ids exist.
+     */
+    Set<Integer> findExistingIds(Transaction tx, Collection<Integer> patientIds) throws SQLException;
+
+    boolean updatePatient(Patient patient);
+
+    Patient getPatientByEmail(String email);
+
+    List<Patient> getAllPatients();
+
+    /**
+     * Returns at most {@code limit} patients with an id greater than {@code afterId},
+     * in id order. Pass 0 for the first page and the last id seen for the next.
+     */
+    List<Patient> getPatientsPage(int afterId, int limit);
+
+    /**
+     * Streams every patient in id order to the consumer without building a list.
+     * Returns the number of rows delivered, or -1 on error.
+     */
+    int streamAllPatients(Consumer<Patient> consumer);
+
+    /**
+     * Like {@link #streamAllPatients} but always reads the primary, for rebuilding
+     * state that later writes are applied on top of.
+     */
+    int streamAllPatientsFromPrimary(Consumer<Patient> consumer);
+
+    /**
+     * Streams every registered email to the consumer. Returns the number of rows
+     * delivered, or -1 on error.
+     */
+    int streamAllEmails(Consumer<String> consumer);
+
+    Patient getPatientById(int patientId);
+
+    /**
+     * Returns the patients with the given ids that exist, in no particular order.
+     * Reads the primary, so a patient registered a moment ago is found.
+     */
+    List<Patient> getPatientsByIds(Collection<Integer> patientIds);
+}
@@ -0,0 +1,29 @@
+package com.hospital.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Helpers for queries whose results are consumed row by row instead of collected.
+ */
+final class ResultStreams {
+    private ResultStreams() {
+    }
+
+    private static final int FETCH_SIZE = 1000;
+
+    /**
+     * Prepares a forward-only, read-only statement that MySQL Connector/J streams
+     * one row at a time (fetch size Integer.MIN_VALUE) rather than buffering the
+     * whole result. The connection cannot run other statements until the result
+     * set is fully read or closed. Other drivers get an ordinary bounded fetch size.
+     */
+    static PreparedStatement prepareStreaming(Connection conn, String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        String url = conn.getMetaData().getURL();
+        stmt.setFetchSize(url != null && url.startsWith("jdbc:mysql:") ? Integer.MIN_VALUE : FETCH_SIZE);
+        return stmt;
+    }
+}
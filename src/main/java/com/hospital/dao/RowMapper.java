@@ -0,0 +1,78 @@
+package com.hospital.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Consumer;
+
+/**
+ * Maps result rows to objects by column position. The column labels are looked up
+ * once per ResultSet; every row after that is read by index, so
+ * drivers do not repeat the label search for each getter on each row.
+ */
+final class RowMapper<T> {
+
+    interface Mapping<T> {
+        /**
+         * Builds one object from the current row; {@code col[i]} is the position of
+         * the i-th column this mapper was declared with.
+         */
+        T map(ResultSet rs, int[] col) throws SQLException;
+    }
+
+    private final String[] columns;
+    private final Mapping<T> mapping;
+
+    RowMapper(String[] columns, Mapping<T> mapping) {
+        this.columns = columns.clone();
+        this.mapping = mapping;
+    }
+
+    /**
+     * Returns the column list for a SELECT, each prefixed with {@code alias.} unless
+     * the alias is null. Only meaningful for mappers whose labels are real column names.
+     */
+    String selectList(String alias) {
+        StringBuilder list = new StringBuilder();
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                list.append(", ");
+            }
+            if (alias != null) {
+                list.append(alias).append('.');
+            }
+            list.append(columns[i]);
+        }
+        return list.toString();
+    }
+
+    /**
+     * Resolves this mapper's columns against the result set.
+     */
+    private int[] resolve(ResultSet rs) throws SQLException {
+        int[] col = new int[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            col[i] = rs.findColumn(columns[i]);
+        }
+        return col;
+    }
+
+    /**
+     * Returns the first row, or null if the result is empty.
+     */
+    T first(ResultSet rs) throws SQLException {
+        return rs.next() ? mapping.map(rs, resolve(rs)) : null;
+    }
+
+    /**
+     * Hands every remaining row to the consumer and returns how many there were.
+     */
+    int forEach(ResultSet rs, Consumer<? super T> consumer) throws SQLException {
+        int[] col = resolve(rs);
+        int count = 0;
+        while (rs.next()) {
+            consumer.accept(mapping.map(rs, col));
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,96 @@
+package com.hospital.dao;
+
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The row mappers and column lists shared by the JDBC DAOs. Queries select exactly
+ * these columns (never {@code *}); joined names are aliased to the labels below.
+ */
+final class RowMappers {
+    private RowMappers() {
+    }
+
+    static final RowMapper<Patient> PATIENT = new RowMapper<>(
+        new String[]{"patient_id", "name", "email", "phone", "age", "gender", "address"},
+        RowMappers::patient);
+
+    static final RowMapper<Doctor> DOCTOR = new RowMapper<>(
+        new String[]{"doctor_id", "name", "specialization", "email", "phone", "qualification", "experience", "available"},
+        (rs, col) -> new Doctor(
+            rs.getInt(col[0]),
+            rs.getString(col[1]),
+            rs.getString(col[2]),
+            rs.getString(col[3]),
+            rs.getString(col[4]),
+            rs.getString(col[5]),
+            rs.getInt(col[6]),
+            rs.getBoolean(col[7])));
+
+    static final RowMapper<Appointment> APPOINTMENT = new RowMapper<>(
+        new String[]{"appointment_id", "patient_id", "doctor_id", "appointment_date", "status"},
+        RowMappers::appointment);
+
+    /** Appointment columns followed by patient_name, doctor_name and specialization. */
+    static final RowMapper<Appointment> APPOINTMENT_WITH_NAMES = new RowMapper<>(
+        new String[]{"appointment_id", "patient_id", "doctor_id", "appointment_date", "status",
+            "patient_name", "doctor_name", "specialization"},
+        (rs, col) -> {
+            Appointment appointment = appointment(rs, col);
+            appointment.setPatientName(rs.getString(col[5]));
+            appointment.setDoctorName(rs.getString(col[6]));
+            appointment.setSpecialization(rs.getString(col[7]));
+            return appointment;
+        });
+
+    static final RowMapper<AppointmentRequest> REQUEST = new RowMapper<>(
+        new String[]{"request_id", "patient_id", "specialization", "requested_date", "status", "description"},
+        RowMappers::request);
+
+    /** Request columns followed by patient_name. */
+    static final RowMapper<AppointmentRequest> REQUEST_WITH_PATIENT = new RowMapper<>(
+        new String[]{"request_id", "patient_id", "specialization", "requested_date", "status", "description",
+            "patient_name"},
+        (rs, col) -> {
+            AppointmentRequest request = request(rs, col);
+            request.setPatientName(rs.getString(col[6]));
+            return request;
+        });
+
+    private static Patient patient(ResultSet rs, int[] col) throws SQLException {
+        Patient patient = new Patient();
+        patient.setPatientId(rs.getInt(col[0]));
+        patient.setName(rs.getString(col[1]));
+        patient.setEmail(rs.getString(col[2]));
+        patient.setPhone(rs.getString(col[3]));
+        patient.setAge(rs.getInt(col[4]));
+        patient.setGender(rs.getString(col[5]));
+        patient.setAddress(rs.getString(col[6]));
+        return patient;
+    }
+
+    private static Appointment appointment(ResultSet rs, int[] col) throws SQLException {
+        return new Appointment(
+            rs.getInt(col[0]),
+            rs.getInt(col[1]),
+            rs.getInt(col[2]),
+            rs.getTimestamp(col[3]),
+            rs.getString(col[4]));
+    }
+
+    private static AppointmentRequest request(ResultSet rs, int[] col) throws SQLException {
+        AppointmentRequest request = new AppointmentRequest(
+            rs.getInt(col[0]),
+            rs.getInt(col[1]),
+            rs.getString(col[2]),
+            rs.getDate(col[3]),
+            rs.getString(col[4]));
+        request.setDescription(rs.getString(col[5]));
+        return request;
+    }
+}
@@ -0,0 +1,77 @@
+package com.hospital.dao;
+
+import com.hospital.dao.memory.InMemoryStorageEngine;
+import com.hospital.util.Metrics;
+
+import java.nio.file.Paths;
+
+/**
+ * Holds the process-wide storage engine, chosen on first use from system properties:
+ * <ul>
+ *   <li>{@code storage.engine} - {@code jdbc} (default, MySQL) or {@code memory}</li>
+ *   <li>{@code storage.snapshotFile} - memory engine only: load from and save to this file</li>
+ *   <li>{@code storage.snapshotIntervalMs} - memory engine only: also save periodically</li>
+ * </ul>
+ * Unless {@code metrics.enabled=false}, the engine is wrapped so DAO calls are timed.
+ * Every engine, including one installed with setEngine, is also wrapped so writes
+ * bump DataVersions.
+ *
+ * Nothing here registers a shutdown hook: the entry point calls {@link #shutdown()}
+ * from its own hook once whatever still writes has stopped.
+ */
+public final class Storage {
+    private static volatile StorageEngine engine;
+
+    private Storage() {
+    }
+
+    public static StorageEngine getEngine() {
+        StorageEngine current = engine;
+        if (current == null) {
+            synchronized (Storage.class) {
+                current = engine;
+                if (current == null) {
+                    current = createEngine();
+                    if (Metrics.isEnabled()) {
+                        current = new InstrumentedStorageEngine(current);
+                    }
+                    current = new VersionedStorageEngine(current);
+                    engine = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Shuts the engine down (memory: writes the snapshot; JDBC: closes the pools) if
+     * one was ever created.
+     */
+    public static synchronized void shutdown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    /**
+     * Installs an engine explicitly (embedding, load tests). Must be called before
+     * any service or cache first touches storage.
+     */
+    public static synchronized void setEngine(StorageEngine newEngine) {
+        engine = newEngine == null || newEngine instanceof VersionedStorageEngine ? newEngine : new VersionedStorageEngine(newEngine);
+    }
+
+    private static StorageEngine createEngine() {
+        String type = System.getProperty("storage.engine", "jdbc");
+        if ("jdbc".equalsIgnoreCase(type)) {
+            return new JdbcStorageEngine();
+        }
+        if ("memory".equalsIgnoreCase(type)) {
+            String snapshotFile = System.getProperty("storage.snapshotFile");
+            return new InMemoryStorageEngine(
+                snapshotFile == null || snapshotFile.isEmpty() ? null : Paths.get(snapshotFile),
+                Long.getLong("storage.snapshotIntervalMs", 0L));
+        }
+        throw new IllegalStateException("Unknown storage.engine: " + type);
+    }
+}
@@ -0,0 +1,54 @@
+package com.hospital.dao;
+
+import java.sql.SQLException;
+
+/**
+ * A storage backend: the four DAOs plus the transactions they take part in.
+ * See Storage for how the process-wide engine is chosen.
+ */
+public interface StorageEngine {
+    PatientDAO patients();
+
+    DoctorDAO doctors();
+
+    AppointmentDAO appointments();
+
+    AppointmentRequestDAO requests();
+
+    Transaction begin() throws SQLException;
+
+    /**
+     * Runs the given work inside one transaction.
+     * Commits when the work returns normally; rolls back and rethrows otherwise.
+     */
+    default <T> T inTransaction(TransactionWork<T> work) throws SQLException {
+        try (Transaction tx = begin()) {
+            try {
+                T result = work.execute(tx);
+                tx.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                tx.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * True when the exception is a unique-key violation: MySQL error 1062, or
+     * SQLState 23505 from drivers that follow the standard.
+     */
+    static boolean isDuplicateKey(SQLException e) {
+        return e.getErrorCode() == 1062 || "23505".equals(e.getSQLState());
+    }
+
+    /**
+     * Releases the engine's resources. Safe to call more than once.
+     */
+    void shutdown();
+
+    @FunctionalInterface
+    interface TransactionWork<T> {
+        T execute(Transaction tx) throws SQLException;
+    }
+}
@@ -0,0 +1,19 @@
+package com.hospital.dao;
+
+import java.sql.SQLException;
+
+/**
+ * A unit of work against a storage engine, obtained from StorageEngine.begin().
+ * DAO methods that take a Transaction run inside it; row reads named lock*
+ * hold their rows until the transaction ends. A transaction may be committed
+ * or rolled back several times (each call ends one unit and starts the next);
+ * closing it rolls back anything not yet committed.
+ */
+public interface Transaction extends AutoCloseable {
+    void commit() throws SQLException;
+
+    void rollback() throws SQLException;
+
+    @Override
+    void close() throws SQLException;
+}
@@ -0,0 +1,133 @@
+package com.hospital.dao;
+
+import com.hospital.model.Appointment;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.hospital.dao.DataVersions.Table.APPOINTMENTS;
+import static com.hospital.dao.VersionedStorageEngine.unwrap;
+import static com.hospital.dao.VersionedStorageEngine.writing;
+import static com.hospital.dao.VersionedStorageEngine.written;
+
+final class VersionedAppointmentDAO implements AppointmentDAO {
+    private final AppointmentDAO delegate;
+
+    VersionedAppointmentDAO(AppointmentDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int addAppointment(Appointment appointment) {
+        int appointmentId = delegate.addAppointment(appointment);
+        written(null, APPOINTMENTS,
+            appointmentId > 0 ? listener -> listener.onAppointmentAdded(appointmentId, appointment) : null);
+        return appointmentId;
+    }
+
+    @Override
+    public int addAppointment(Transaction tx, Appointment appointment) throws SQLException {
+        int appointmentId = delegate.addAppointment(writing(tx, APPOINTMENTS), appointment);
+        written(tx, APPOINTMENTS,
+            appointmentId > 0 ? listener -> listener.onAppointmentAdded(appointmentId, appointment) : null);
+        return appointmentId;
+    }
+
+    @Override
+    public void addAppointmentsBatch(Transaction tx, List<Appointment> appointments) throws SQLException {
+        delegate.addAppointmentsBatch(writing(tx, APPOINTMENTS), appointments);
+        written(tx, APPOINTMENTS, listener -> listener.onAppointmentsAdded(appointments));
+    }
+
+    @Override
+    public Set<String> findBookedDays(Transaction tx, Collection<Integer> doctorIds, Date from, Date to) throws SQLException {
+        return delegate.findBookedDays(unwrap(tx), doctorIds, from, to);
+    }
+
+    @Override
+    public Appointment getAppointmentById(int appointmentId) {
+        return delegate.getAppointmentById(appointmentId);
+    }
+
+    @Override
+    public List<Appointment> getAllAppointments() {
+        return delegate.getAllAppointments();
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsPage(Date afterDate, int afterId, int limit) {
+        return delegate.getAppointmentsPage(afterDate, afterId, limit);
+    }
+
+    @Override
+    public int streamAllAppointments(Consumer<Appointment> consumer) {
+        return delegate.streamAllAppointments(consumer);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientId(int patientId) {
+        return delegate.getAppointmentsByPatientId(patientId);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientPage(int patientId, Date afterDate, int afterId, int limit) {
+        return delegate.getAppointmentsByPatientPage(patientId, afterDate, afterId, limit);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientId(int patientId, boolean includeArchived) {
+        return delegate.getAppointmentsByPatientId(patientId, includeArchived);
+    }
+
+    @Override
+    public boolean checkDoctorAvailability(int doctorId, Date appointmentDate) {
+        return delegate.checkDoctorAvailability(doctorId, appointmentDate);
+    }
+
+    @Override
+    public boolean checkDoctorAvailability(Transaction tx, int doctorId, Date appointmentDate) throws SQLException {
+        return delegate.checkDoctorAvailability(unwrap(tx), doctorId, appointmentDate);
+    }
+
+    @Override
+    public int streamConfirmedAppointments(Date from, Date to, Consumer<Appointment> consumer) {
+        return delegate.streamConfirmedAppointments(from, to, consumer);
+    }
+
+    @Override
+    public int streamDailyStatusCounts(DailyCountConsumer consumer) {
+        return delegate.streamDailyStatusCounts(consumer);
+    }
+
+    @Override
+    public Appointment lockAppointmentById(Transaction tx, int appointmentId) throws SQLException {
+        return delegate.lockAppointmentById(unwrap(tx), appointmentId);
+    }
+
+    @Override
+    public boolean updateAppointmentStatus(int appointmentId, String status) {
+        boolean updated = delegate.updateAppointmentStatus(appointmentId, status);
+        written(null, APPOINTMENTS,
+            updated ? listener -> listener.onAppointmentStatusChanged(appointmentId, status) : null);
+        return updated;
+    }
+
+    @Override
+    public boolean updateAppointmentStatus(Transaction tx, int appointmentId, String status) throws SQLException {
+        boolean updated = delegate.updateAppointmentStatus(writing(tx, APPOINTMENTS), appointmentId, status);
+        written(tx, APPOINTMENTS,
+            updated ? listener -> listener.onAppointmentStatusChanged(appointmentId, status) : null);
+        return updated;
+    }
+
+    @Override
+    public int archiveAppointmentsBefore(Transaction tx, Date cutoff, int limit) throws SQLException {
+        int moved = delegate.archiveAppointmentsBefore(writing(tx, APPOINTMENTS), cutoff, limit);
+        written(tx, APPOINTMENTS, moved > 0 ? listener -> listener.onAppointmentsArchived(cutoff, moved) : null);
+        return moved;
+    }
+}
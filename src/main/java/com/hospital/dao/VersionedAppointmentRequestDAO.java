@@ -0,0 +1,112 @@
+package com.hospital.dao;
+
+import com.hospital.model.AppointmentRequest;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static com.hospital.dao.DataVersions.Table.APPOINTMENT_REQUESTS;
+import static com.hospital.dao.VersionedStorageEngine.unwrap;
+import static com.hospital.dao.VersionedStorageEngine.writing;
+import static com.hospital.dao.VersionedStorageEngine.written;
+
+final class VersionedAppointmentRequestDAO implements AppointmentRequestDAO {
+    private final AppointmentRequestDAO delegate;
+
+    VersionedAppointmentRequestDAO(AppointmentRequestDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int addAppointmentRequest(AppointmentRequest request) {
+        int requestId = delegate.addAppointmentRequest(request);
+        written(null, APPOINTMENT_REQUESTS,
+            requestId > 0 ? listener -> listener.onRequestAdded(requestId, request) : null);
+        return requestId;
+    }
+
+    @Override
+    public void addAppointmentRequestsBatch(Transaction tx, List<AppointmentRequest> requests) throws SQLException {
+        delegate.addAppointmentRequestsBatch(writing(tx, APPOINTMENT_REQUESTS), requests);
+        written(tx, APPOINTMENT_REQUESTS, listener -> listener.onRequestsAdded(requests));
+    }
+
+    @Override
+    public AppointmentRequest getRequestById(int requestId) {
+        return delegate.getRequestById(requestId);
+    }
+
+    @Override
+    public List<AppointmentRequest> getAllPendingRequests() {
+        return delegate.getAllPendingRequests();
+    }
+
+    @Override
+    public List<AppointmentRequest> getPendingRequestsPage(Date afterDate, int afterId, int limit) {
+        return delegate.getPendingRequestsPage(afterDate, afterId, limit);
+    }
+
+    @Override
+    public int streamPendingRequests(Consumer<AppointmentRequest> consumer) {
+        return delegate.streamPendingRequests(consumer);
+    }
+
+    @Override
+    public int streamStatusCounts(StatusCountConsumer consumer) {
+        return delegate.streamStatusCounts(consumer);
+    }
+
+    @Override
+    public List<AppointmentRequest> getRequestsByPatientId(int patientId) {
+        return delegate.getRequestsByPatientId(patientId);
+    }
+
+    @Override
+    public List<AppointmentRequest> getRequestsByPatientId(int patientId, boolean includeArchived) {
+        return delegate.getRequestsByPatientId(patientId, includeArchived);
+    }
+
+    @Override
+    public AppointmentRequest lockRequestById(Transaction tx, int requestId) throws SQLException {
+        return delegate.lockRequestById(unwrap(tx), requestId);
+    }
+
+    @Override
+    public Map<Integer, AppointmentRequest> lockRequestsByIds(Transaction tx, Collection<Integer> requestIds) throws SQLException {
+        return delegate.lockRequestsByIds(unwrap(tx), requestIds);
+    }
+
+    @Override
+    public void updateRequestStatusBatch(Transaction tx, Collection<Integer> requestIds, String status) throws SQLException {
+        delegate.updateRequestStatusBatch(writing(tx, APPOINTMENT_REQUESTS), requestIds, status);
+        written(tx, APPOINTMENT_REQUESTS, listener -> listener.onRequestStatusChanged(requestIds, status));
+    }
+
+    @Override
+    public boolean updateRequestStatus(int requestId, String status) {
+        boolean updated = delegate.updateRequestStatus(requestId, status);
+        written(null, APPOINTMENT_REQUESTS, updated
+            ? listener -> listener.onRequestStatusChanged(Collections.singletonList(requestId), status) : null);
+        return updated;
+    }
+
+    @Override
+    public boolean updateRequestStatus(Transaction tx, int requestId, String status) throws SQLException {
+        boolean updated = delegate.updateRequestStatus(writing(tx, APPOINTMENT_REQUESTS), requestId, status);
+        written(tx, APPOINTMENT_REQUESTS, updated
+            ? listener -> listener.onRequestStatusChanged(Collections.singletonList(requestId), status) : null);
+        return updated;
+    }
+
+    @Override
+    public int archiveRequestsBefore(Transaction tx, Date cutoff, int limit) throws SQLException {
+        int moved = delegate.archiveRequestsBefore(writing(tx, APPOINTMENT_REQUESTS), cutoff, limit);
+        written(tx, APPOINTMENT_REQUESTS, moved > 0 ? listener -> listener.onRequestsArchived(cutoff, moved) : null);
+        return moved;
+    }
+}
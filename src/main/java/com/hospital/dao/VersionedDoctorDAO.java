@@ -0,0 +1,95 @@
+package com.hospital.dao;
+
+import com.hospital.model.Doctor;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.hospital.dao.DataVersions.Table.DOCTORS;
+import static com.hospital.dao.VersionedStorageEngine.unwrap;
+import static com.hospital.dao.VersionedStorageEngine.writing;
+import static com.hospital.dao.VersionedStorageEngine.written;
+
+final class VersionedDoctorDAO implements DoctorDAO {
+    private final DoctorDAO delegate;
+
+    VersionedDoctorDAO(DoctorDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int addDoctor(Doctor doctor) {
+        int doctorId = delegate.addDoctor(doctor);
+        written(null, DOCTORS, doctorId > 0 ? listener -> listener.onDoctorAdded(doctorId, doctor) : null);
+        return doctorId;
+    }
+
+    @Override
+    public int addDoctor(Transaction tx, Doctor doctor) throws SQLException {
+        int doctorId = delegate.addDoctor(writing(tx, DOCTORS), doctor);
+        written(tx, DOCTORS, doctorId > 0 ? listener -> listener.onDoctorAdded(doctorId, doctor) : null);
+        return doctorId;
+    }
+
+    @Override
+    public void addDoctorsBatch(Transaction tx, List<Doctor> doctors) throws SQLException {
+        delegate.addDoctorsBatch(writing(tx, DOCTORS), doctors);
+        written(tx, DOCTORS, listener -> listener.onDoctorsAdded(doctors));
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Transaction tx, Collection<String> emails) throws SQLException {
+        return delegate.findExistingEmails(unwrap(tx), emails);
+    }
+
+    @Override
+    public Doctor getDoctorById(int doctorId) {
+        return delegate.getDoctorById(doctorId);
+    }
+
+    @Override
+    public Doctor lockDoctorById(Transaction tx, int doctorId) throws SQLException {
+        return delegate.lockDoctorById(unwrap(tx), doctorId);
+    }
+
+    @Override
+    public Map<Integer, Doctor> lockDoctorsByIds(Transaction tx, Collection<Integer> doctorIds) throws SQLException {
+        return delegate.lockDoctorsByIds(unwrap(tx), doctorIds);
+    }
+
+    @Override
+    public List<Doctor> getAllDoctors() {
+        return delegate.getAllDoctors();
+    }
+
+    @Override
+    public List<Doctor> getDoctorsPage(int afterId, int limit) {
+        return delegate.getDoctorsPage(afterId, limit);
+    }
+
+    @Override
+    public int streamAllDoctors(Consumer<Doctor> consumer) {
+        return delegate.streamAllDoctors(consumer);
+    }
+
+    @Override
+    public List<Doctor> getAvailableDoctorsBySpecialization(String specialization) {
+        return delegate.getAvailableDoctorsBySpecialization(specialization);
+    }
+
+    @Override
+    public List<Doctor> getAvailableDoctors() {
+        return delegate.getAvailableDoctors();
+    }
+
+    @Override
+    public boolean updateDoctorAvailability(int doctorId, boolean available) {
+        boolean updated = delegate.updateDoctorAvailability(doctorId, available);
+        written(null, DOCTORS, updated ? listener -> listener.onDoctorAvailabilityChanged(doctorId, available) : null);
+        return updated;
+    }
+}
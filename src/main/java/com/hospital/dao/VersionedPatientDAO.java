@@ -0,0 +1,99 @@
+package com.hospital.dao;
+
+import com.hospital.model.Patient;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.hospital.dao.DataVersions.Table.PATIENTS;
+import static com.hospital.dao.VersionedStorageEngine.unwrap;
+import static com.hospital.dao.VersionedStorageEngine.writing;
+import static com.hospital.dao.VersionedStorageEngine.written;
+
+final class VersionedPatientDAO implements PatientDAO {
+    private final PatientDAO delegate;
+
+    VersionedPatientDAO(PatientDAO delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int addPatient(Patient patient) {
+        int patientId = delegate.addPatient(patient);
+        written(null, PATIENTS, patientId > 0 ? listener -> listener.onPatientAdded(patientId, patient) : null);
+        return patientId;
+    }
+
+    @Override
+    public int addPatient(Transaction tx, Patient patient) throws SQLException {
+        int patientId = delegate.addPatient(writing(tx, PATIENTS), patient);
+        written(tx, PATIENTS, patientId > 0 ? listener -> listener.onPatientAdded(patientId, patient) : null);
+        return patientId;
+    }
+
+    @Override
+    public void addPatientsBatch(Transaction tx, List<Patient> patients) throws SQLException {
+        delegate.addPatientsBatch(writing(tx, PATIENTS), patients);
+        written(tx, PATIENTS, listener -> listener.onPatientsAdded(patients));
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Transaction tx, Collection<String> emails) throws SQLException {
+        return delegate.findExistingEmails(unwrap(tx), emails);
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Transaction tx, Collection<Integer> patientIds) throws SQLException {
+        return delegate.findExistingIds(unwrap(tx), patientIds);
+    }
+
+    @Override
+    public boolean updatePatient(Patient patient) {
+        boolean updated = delegate.updatePatient(patient);
+        written(null, PATIENTS, updated ? listener -> listener.onPatientUpdated(patient) : null);
+        return updated;
+    }
+
+    @Override
+    public Patient getPatientByEmail(String email) {
+        return delegate.getPatientByEmail(email);
+    }
+
+    @Override
+    public List<Patient> getAllPatients() {
+        return delegate.getAllPatients();
+    }
+
+    @Override
+    public List<Patient> getPatientsPage(int afterId, int limit) {
+        return delegate.getPatientsPage(afterId, limit);
+    }
+
+    @Override
+    public int streamAllPatients(Consumer<Patient> consumer) {
+        return delegate.streamAllPatients(consumer);
+    }
+
+    @Override
+    public int streamAllPatientsFromPrimary(Consumer<Patient> consumer) {
+        return delegate.streamAllPatientsFromPrimary(consumer);
+    }
+
+    @Override
+    public int streamAllEmails(Consumer<String> consumer) {
+        return delegate.streamAllEmails(consumer);
+    }
+
+    @Override
+    public Patient getPatientById(int patientId) {
+        return delegate.getPatientById(patientId);
+    }
+
+    @Override
+    public List<Patient> getPatientsByIds(Collection<Integer> patientIds) {
+        return delegate.getPatientsByIds(patientIds);
+    }
+}
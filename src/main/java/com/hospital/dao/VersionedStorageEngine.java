@@ -0,0 +1,150 @@
+package com.hospital.dao;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Wraps another engine so writes through its DAOs bump {@link DataVersions} and
+ * are published to {@link DataChanges}.
+ *
+ * Each DAO is wrapped by a Versioned* class that implements every write method
+ * explicitly, so a new or renamed write does not compile until it says what it
+ * changes. Without a transaction the table is bumped when the call returns; with
+ * one it is bumped when the transaction commits, so a new version never precedes
+ * the data. Changes are published at the same point, and a rolled back
+ * transaction publishes nothing. Transactions handed out by {@link #begin} are
+ * unwrapped before reaching the wrapped engine's DAOs.
+ */
+public class VersionedStorageEngine implements StorageEngine {
+    private final StorageEngine delegate;
+    private final PatientDAO patients;
+    private final DoctorDAO doctors;
+    private final AppointmentDAO appointments;
+    private final AppointmentRequestDAO requests;
+
+    public VersionedStorageEngine(StorageEngine delegate) {
+        this.delegate = delegate;
+        this.patients = new VersionedPatientDAO(delegate.patients());
+        this.doctors = new VersionedDoctorDAO(delegate.doctors());
+        this.appointments = new VersionedAppointmentDAO(delegate.appointments());
+        this.requests = new VersionedAppointmentRequestDAO(delegate.requests());
+    }
+
+    @Override
+    public PatientDAO patients() {
+        return patients;
+    }
+
+    @Override
+    public DoctorDAO doctors() {
+        return doctors;
+    }
+
+    @Override
+    public AppointmentDAO appointments() {
+        return appointments;
+    }
+
+    @Override
+    public AppointmentRequestDAO requests() {
+        return requests;
+    }
+
+    @Override
+    public Transaction begin() throws SQLException {
+        return new VersionedTransaction(delegate.begin());
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    public StorageEngine getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * The wrapped engine's transaction, for reads.
+     */
+    static Transaction unwrap(Transaction tx) {
+        return tx instanceof VersionedTransaction ? ((VersionedTransaction) tx).delegate : tx;
+    }
+
+    /**
+     * The wrapped engine's transaction, for a write to the table. The table is
+     * marked before the write runs, so even a write that fails half way and is
+     * then committed bumps it.
+     */
+    static Transaction writing(Transaction tx, DataVersions.Table table) {
+        if (tx instanceof VersionedTransaction) {
+            VersionedTransaction versioned = (VersionedTransaction) tx;
+            versioned.touched.add(table);
+            return versioned.delegate;
+        }
+        return tx;
+    }
+
+    /**
+     * Records a write that returned: bumps the table and publishes the change now,
+     * or when the transaction commits. The change is null for writes that did
+     * nothing listeners need to hear about.
+     */
+    static void written(Transaction tx, DataVersions.Table table, Consumer<DataChanges.Listener> change) {
+        if (tx instanceof VersionedTransaction) {
+            VersionedTransaction versioned = (VersionedTransaction) tx;
+            versioned.touched.add(table);
+            if (change != null) {
+                versioned.changes.add(change);
+            }
+            return;
+        }
+        DataVersions.bump(table);
+        if (change != null) {
+            DataChanges.publish(change);
+        }
+    }
+
+    private static final class VersionedTransaction implements Transaction {
+        final Transaction delegate;
+        // Tables written since the last commit or rollback; used by one thread at a time
+        final Set<DataVersions.Table> touched = EnumSet.noneOf(DataVersions.Table.class);
+        final List<Consumer<DataChanges.Listener>> changes = new ArrayList<>();
+
+        VersionedTransaction(Transaction delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void commit() throws SQLException {
+            delegate.commit();
+            for (DataVersions.Table table : touched) {
+                DataVersions.bump(table);
+            }
+            touched.clear();
+            List<Consumer<DataChanges.Listener>> committed = new ArrayList<>(changes);
+            changes.clear();
+            for (Consumer<DataChanges.Listener> change : committed) {
+                DataChanges.publish(change);
+            }
+        }
+
+        @Override
+        public void rollback() throws SQLException {
+            touched.clear();
+            changes.clear();
+            delegate.rollback();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            touched.clear();
+            changes.clear();
+            delegate.close();
+        }
+    }
+}
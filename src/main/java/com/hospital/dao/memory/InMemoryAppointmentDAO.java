@@ -0,0 +1,405 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.Transaction;
+import com.hospital.model.Appointment;
+import com.hospital.model.Doctor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Appointments by id with (date, id) ordered indexes over the whole table, per
+ * patient and per doctor; the per-doctor index answers availability checks with a
+ * one-day range scan. Patient and doctor names are joined in at read time.
+ * Archived appointments are kept apart, indexed by patient only.
+ */
+public class InMemoryAppointmentDAO implements AppointmentDAO {
+    private final InMemoryStorageEngine engine;
+    private final InMemoryPatientDAO patients;
+    private final InMemoryDoctorDAO doctors;
+    private final ConcurrentHashMap<Integer, Appointment> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<RowKey> byDate = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<RowKey>> byPatient = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<RowKey>> byDoctor = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Appointment> archived = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<RowKey>> archivedByPatient = new ConcurrentHashMap<>();
+
+    InMemoryAppointmentDAO(InMemoryStorageEngine engine, InMemoryPatientDAO patients, InMemoryDoctorDAO doctors) {
+        this.engine = engine;
+        this.patients = patients;
+        this.doctors = doctors;
+    }
+
+    @Override
+    public int addAppointment(Appointment appointment) {
+        try {
+            return engine.inTransaction(tx -> addAppointment(tx, appointment));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public int addAppointment(Transaction tx, Appointment appointment) throws SQLException {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        Rows.requireNotNull(appointment.getAppointmentDate(), "appointment_date");
+        if (!patients.exists(appointment.getPatientId())) {
+            throw Rows.missingParent("patients", "patient_id", appointment.getPatientId());
+        }
+        if (!doctors.exists(appointment.getDoctorId())) {
+            throw Rows.missingParent("doctors", "doctor_id", appointment.getDoctorId());
+        }
+        Appointment row = Rows.copy(appointment);
+        row.setAppointmentId(lastId.incrementAndGet());
+        insert(row);
+        memoryTx.onRollback(() -> remove(row));
+        return row.getAppointmentId();
+    }
+
+    @Override
+    public void addAppointmentsBatch(Transaction tx, List<Appointment> appointments) throws SQLException {
+        engine.transaction(tx);
+        List<Integer> added = new ArrayList<>(appointments.size());
+        try {
+            for (Appointment appointment : appointments) {
+                added.add(addAppointment(tx, appointment));
+            }
+        } catch (SQLException e) {
+            // All or nothing, like a failed JDBC batch
+            for (Integer id : added) {
+                remove(byId.get(id));
+            }
+            throw e;
+        }
+        for (int i = 0; i < appointments.size(); i++) {
+            appointments.get(i).setAppointmentId(added.get(i));
+        }
+    }
+
+    @Override
+    public Set<String> findBookedDays(Transaction tx, Collection<Integer> doctorIds,
+                                      java.util.Date from, java.util.Date to) {
+        engine.transaction(tx);
+        Set<String> booked = new HashSet<>();
+        long start = Rows.startOfDayMillis(from);
+        long end = Rows.startOfDayMillis(AppointmentDAO.epochDay(to) + 1);
+        for (Integer doctorId : doctorIds) {
+            for (Appointment row : confirmedInRange(byDoctor.get(doctorId), start, end)) {
+                booked.add(AppointmentDAO.bookedDayKey(doctorId, row.getAppointmentDate()));
+            }
+        }
+        return booked;
+    }
+
+    @Override
+    public Appointment getAppointmentById(int appointmentId) {
+        Appointment row = byId.get(appointmentId);
+        return row == null ? null : withNames(row);
+    }
+
+    @Override
+    public List<Appointment> getAllAppointments() {
+        return collect(byDate.descendingSet(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsPage(java.util.Date afterDate, int afterId, int limit) {
+        NavigableSet<RowKey> keys = afterDate == null
+            ? byDate.descendingSet()
+            : byDate.headSet(new RowKey(afterDate.getTime(), afterId), false).descendingSet();
+        return collect(keys, limit);
+    }
+
+    @Override
+    public int streamAllAppointments(Consumer<Appointment> consumer) {
+        int count = 0;
+        for (RowKey key : byDate.descendingSet()) {
+            Appointment row = byId.get(key.id);
+            if (row != null) {
+                consumer.accept(withNames(row));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientId(int patientId) {
+        NavigableSet<RowKey> keys = byPatient.get(patientId);
+        return keys == null ? new ArrayList<>() : collect(keys.descendingSet(), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientPage(int patientId, java.util.Date afterDate, int afterId, int limit) {
+        NavigableSet<RowKey> keys = byPatient.get(patientId);
+        if (keys == null) {
+            return new ArrayList<>();
+        }
+        return collect(afterDate == null
+            ? keys.descendingSet()
+            : keys.headSet(new RowKey(afterDate.getTime(), afterId), false).descendingSet(), limit);
+    }
+
+    @Override
+    public List<Appointment> getAppointmentsByPatientId(int patientId, boolean includeArchived) {
+        if (!includeArchived) {
+            return getAppointmentsByPatientId(patientId);
+        }
+        NavigableSet<RowKey> keys = new TreeSet<>();
+        for (Set<RowKey> patientKeys : Arrays.asList(byPatient.get(patientId), archivedByPatient.get(patientId))) {
+            if (patientKeys != null) {
+                keys.addAll(patientKeys);
+            }
+        }
+        List<Appointment> appointments = new ArrayList<>();
+        for (RowKey key : keys.descendingSet()) {
+            Appointment row = byId.get(key.id);
+            if (row == null) {
+                row = archived.get(key.id);
+            }
+            if (row != null) {
+                appointments.add(withNames(row));
+            }
+        }
+        return appointments;
+    }
+
+    @Override
+    public boolean checkDoctorAvailability(int doctorId, java.util.Date appointmentDate) {
+        long start = Rows.startOfDayMillis(appointmentDate);
+        long end = Rows.startOfDayMillis(AppointmentDAO.epochDay(appointmentDate) + 1);
+        return confirmedInRange(byDoctor.get(doctorId), start, end).isEmpty();
+    }
+
+    @Override
+    public boolean checkDoctorAvailability(Transaction tx, int doctorId, java.util.Date appointmentDate) {
+        engine.transaction(tx);
+        return checkDoctorAvailability(doctorId, appointmentDate);
+    }
+
+    @Override
+    public int streamConfirmedAppointments(java.util.Date from, java.util.Date to, Consumer<Appointment> consumer) {
+        int count = 0;
+        for (RowKey key : byDate.subSet(RowKey.floor(from.getTime()), RowKey.floor(to.getTime()))) {
+            Appointment row = byId.get(key.id);
+            if (row != null && "CONFIRMED".equals(row.getStatus())) {
+                Appointment appointment = new Appointment();
+                appointment.setAppointmentId(row.getAppointmentId());
+                appointment.setDoctorId(row.getDoctorId());
+                appointment.setAppointmentDate(new Timestamp(key.time));
+                appointment.setStatus("CONFIRMED");
+                consumer.accept(appointment);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int streamDailyStatusCounts(DailyCountConsumer consumer) {
+        Map<List<Object>, Integer> counts = engine.betweenTransactions(() -> {
+            Map<List<Object>, Integer> groups = new HashMap<>();
+            for (Appointment row : byId.values()) {
+                groups.merge(Arrays.asList(row.getDoctorId(), AppointmentDAO.epochDay(row.getAppointmentDate()),
+                    row.getStatus()), 1, Integer::sum);
+            }
+            return groups;
+        });
+        for (Map.Entry<List<Object>, Integer> group : counts.entrySet()) {
+            List<Object> key = group.getKey();
+            consumer.accept((Integer) key.get(0), (Long) key.get(1), (String) key.get(2), group.getValue());
+        }
+        return counts.size();
+    }
+
+    @Override
+    public Appointment lockAppointmentById(Transaction tx, int appointmentId) {
+        engine.transaction(tx);
+        Appointment row = byId.get(appointmentId);
+        return row == null ? null : Rows.copy(row);
+    }
+
+    @Override
+    public boolean updateAppointmentStatus(int appointmentId, String status) {
+        try {
+            return engine.inTransaction(tx -> updateAppointmentStatus(tx, appointmentId, status));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updateAppointmentStatus(Transaction tx, int appointmentId, String status) {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        Appointment before = byId.get(appointmentId);
+        if (before == null) {
+            return false;
+        }
+        Appointment row = Rows.copy(before);
+        row.setStatus(status);
+        byId.put(appointmentId, row);
+        memoryTx.onRollback(() -> byId.put(appointmentId, before));
+        return true;
+    }
+
+    @Override
+    public int archiveAppointmentsBefore(Transaction tx, java.util.Date cutoff, int limit) {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        List<Appointment> moved = new ArrayList<>();
+        for (RowKey key : byDate.headSet(RowKey.floor(cutoff.getTime()))) {
+            if (moved.size() >= limit) {
+                break;
+            }
+            Appointment row = byId.get(key.id);
+            if (row != null) {
+                moved.add(row);
+            }
+        }
+        for (Appointment row : moved) {
+            remove(row);
+            archive(row);
+            memoryTx.onRollback(() -> {
+                unarchive(row);
+                insert(row);
+            });
+        }
+        return moved.size();
+    }
+
+    private List<Appointment> confirmedInRange(NavigableSet<RowKey> keys, long start, long end) {
+        List<Appointment> rows = new ArrayList<>();
+        if (keys == null) {
+            return rows;
+        }
+        for (RowKey key : keys.subSet(RowKey.floor(start), RowKey.floor(end))) {
+            Appointment row = byId.get(key.id);
+            if (row != null && "CONFIRMED".equals(row.getStatus())) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private List<Appointment> collect(Iterable<RowKey> keys, int limit) {
+        List<Appointment> appointments = new ArrayList<>();
+        for (RowKey key : keys) {
+            if (appointments.size() >= limit) {
+                break;
+            }
+            Appointment row = byId.get(key.id);
+            if (row != null) {
+                appointments.add(withNames(row));
+            }
+        }
+        return appointments;
+    }
+
+    private Appointment withNames(Appointment row) {
+        Appointment appointment = Rows.copy(row);
+        appointment.setPatientName(patients.nameOf(row.getPatientId()));
+        Doctor doctor = doctors.row(row.getDoctorId());
+        if (doctor != null) {
+            appointment.setDoctorName(doctor.getName());
+            appointment.setSpecialization(doctor.getSpecialization());
+        }
+        return appointment;
+    }
+
+    private void insert(Appointment row) {
+        RowKey key = new RowKey(row.getAppointmentDate().getTime(), row.getAppointmentId());
+        byId.put(row.getAppointmentId(), row);
+        byDate.add(key);
+        byPatient.computeIfAbsent(row.getPatientId(), k -> new ConcurrentSkipListSet<>()).add(key);
+        byDoctor.computeIfAbsent(row.getDoctorId(), k -> new ConcurrentSkipListSet<>()).add(key);
+    }
+
+    private void remove(Appointment row) {
+        RowKey key = new RowKey(row.getAppointmentDate().getTime(), row.getAppointmentId());
+        byDate.remove(key);
+        Set<RowKey> patientKeys = byPatient.get(row.getPatientId());
+        if (patientKeys != null) {
+            patientKeys.remove(key);
+        }
+        Set<RowKey> doctorKeys = byDoctor.get(row.getDoctorId());
+        if (doctorKeys != null) {
+            doctorKeys.remove(key);
+        }
+        byId.remove(row.getAppointmentId());
+    }
+
+    private void archive(Appointment row) {
+        archived.put(row.getAppointmentId(), row);
+        archivedByPatient.computeIfAbsent(row.getPatientId(), k -> new ConcurrentSkipListSet<>())
+            .add(new RowKey(row.getAppointmentDate().getTime(), row.getAppointmentId()));
+    }
+
+    private void unarchive(Appointment row) {
+        Set<RowKey> patientKeys = archivedByPatient.get(row.getPatientId());
+        if (patientKeys != null) {
+            patientKeys.remove(new RowKey(row.getAppointmentDate().getTime(), row.getAppointmentId()));
+        }
+        archived.remove(row.getAppointmentId());
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(lastId.get());
+        writeRows(out, byId.values());
+        writeRows(out, archived.values());
+    }
+
+    private static void writeRows(DataOutputStream out, Collection<Appointment> rows) throws IOException {
+        out.writeInt(rows.size());
+        for (Appointment row : rows) {
+            out.writeInt(row.getAppointmentId());
+            out.writeInt(row.getPatientId());
+            out.writeInt(row.getDoctorId());
+            out.writeLong(row.getAppointmentDate().getTime());
+            Rows.writeString(out, row.getStatus());
+        }
+    }
+
+    /**
+     * Reads what {@link #write} wrote; version 1 snapshots have no archive section.
+     */
+    void read(DataInputStream in, int version) throws IOException {
+        lastId.set(in.readInt());
+        for (Appointment row : readRows(in)) {
+            insert(row);
+        }
+        if (version >= 2) {
+            for (Appointment row : readRows(in)) {
+                archive(row);
+            }
+        }
+    }
+
+    private static List<Appointment> readRows(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Appointment> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Appointment(in.readInt(), in.readInt(), in.readInt(), new Timestamp(in.readLong()), Rows.readString(in)));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,359 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.Transaction;
+import com.hospital.model.AppointmentRequest;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Appointment requests by id with (requested date, id) ordered indexes over the
+ * PENDING queue and per patient. Requested dates are stored as calendar days, like
+ * the DATE column they mirror. Archived requests are kept apart, indexed by patient
+ * only.
+ */
+public class InMemoryAppointmentRequestDAO implements AppointmentRequestDAO {
+    private final InMemoryStorageEngine engine;
+    private final InMemoryPatientDAO patients;
+    private final ConcurrentSkipListMap<Integer, AppointmentRequest> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListSet<RowKey> pending = new ConcurrentSkipListSet<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<RowKey>> byPatient = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, AppointmentRequest> archived = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, ConcurrentSkipListSet<RowKey>> archivedByPatient = new ConcurrentHashMap<>();
+
+    InMemoryAppointmentRequestDAO(InMemoryStorageEngine engine, InMemoryPatientDAO patients) {
+        this.engine = engine;
+        this.patients = patients;
+    }
+
+    @Override
+    public int addAppointmentRequest(AppointmentRequest request) {
+        try {
+            return engine.inTransaction(tx -> addAppointmentRequest(tx, request));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public void addAppointmentRequestsBatch(Transaction tx, List<AppointmentRequest> requests) throws SQLException {
+        // Rows added before a failure are removed when the caller rolls back
+        for (AppointmentRequest request : requests) {
+            request.setRequestId(addAppointmentRequest(tx, request));
+        }
+    }
+
+    private int addAppointmentRequest(Transaction tx, AppointmentRequest request) throws SQLException {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        Rows.requireNotNull(request.getSpecialization(), "specialization");
+        Rows.requireNotNull(request.getRequestedDate(), "requested_date");
+        if (!patients.exists(request.getPatientId())) {
+            throw Rows.missingParent("patients", "patient_id", request.getPatientId());
+        }
+        AppointmentRequest row = Rows.copy(request);
+        row.setRequestId(lastId.incrementAndGet());
+        row.setRequestedDate(new java.sql.Date(Rows.startOfDayMillis(request.getRequestedDate())));
+        row.setDescription(request.getDescription() != null ? request.getDescription() : "");
+        insert(row);
+        memoryTx.onRollback(() -> remove(row));
+        return row.getRequestId();
+    }
+
+    @Override
+    public AppointmentRequest getRequestById(int requestId) {
+        AppointmentRequest row = byId.get(requestId);
+        return row == null ? null : withPatientName(row);
+    }
+
+    @Override
+    public List<AppointmentRequest> getAllPendingRequests() {
+        return collectPending(pending, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<AppointmentRequest> getPendingRequestsPage(java.util.Date afterDate, int afterId, int limit) {
+        NavigableSet<RowKey> keys = afterDate == null
+            ? pending
+            : pending.tailSet(new RowKey(Rows.startOfDayMillis(afterDate), afterId), false);
+        return collectPending(keys, limit);
+    }
+
+    @Override
+    public int streamPendingRequests(Consumer<AppointmentRequest> consumer) {
+        int count = 0;
+        for (RowKey key : pending) {
+            AppointmentRequest row = byId.get(key.id);
+            if (row != null && "PENDING".equals(row.getStatus())) {
+                consumer.accept(withPatientName(row));
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public int streamStatusCounts(StatusCountConsumer consumer) {
+        Map<String, Map<String, Integer>> counts = engine.betweenTransactions(() -> {
+            Map<String, Map<String, Integer>> bySpecialization = new HashMap<>();
+            for (AppointmentRequest row : byId.values()) {
+                bySpecialization.computeIfAbsent(row.getSpecialization(), k -> new HashMap<>())
+                    .merge(row.getStatus(), 1, Integer::sum);
+            }
+            return bySpecialization;
+        });
+        int groups = 0;
+        for (Map.Entry<String, Map<String, Integer>> bySpecialization : counts.entrySet()) {
+            for (Map.Entry<String, Integer> byStatus : bySpecialization.getValue().entrySet()) {
+                consumer.accept(bySpecialization.getKey(), byStatus.getKey(), byStatus.getValue());
+                groups++;
+            }
+        }
+        return groups;
+    }
+
+    @Override
+    public List<AppointmentRequest> getRequestsByPatientId(int patientId) {
+        List<AppointmentRequest> requests = new ArrayList<>();
+        NavigableSet<RowKey> keys = byPatient.get(patientId);
+        if (keys == null) {
+            return requests;
+        }
+        for (RowKey key : keys.descendingSet()) {
+            AppointmentRequest row = byId.get(key.id);
+            if (row != null) {
+                requests.add(withPatientName(row));
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public List<AppointmentRequest> getRequestsByPatientId(int patientId, boolean includeArchived) {
+        if (!includeArchived) {
+            return getRequestsByPatientId(patientId);
+        }
+        NavigableSet<RowKey> keys = new TreeSet<>();
+        for (Set<RowKey> patientKeys : Arrays.asList(byPatient.get(patientId), archivedByPatient.get(patientId))) {
+            if (patientKeys != null) {
+                keys.addAll(patientKeys);
+            }
+        }
+        List<AppointmentRequest> requests = new ArrayList<>();
+        for (RowKey key : keys.descendingSet()) {
+            AppointmentRequest row = byId.get(key.id);
+            if (row == null) {
+                row = archived.get(key.id);
+            }
+            if (row != null) {
+                requests.add(withPatientName(row));
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public AppointmentRequest lockRequestById(Transaction tx, int requestId) {
+        engine.transaction(tx);
+        AppointmentRequest row = byId.get(requestId);
+        return row == null ? null : Rows.copy(row);
+    }
+
+    @Override
+    public Map<Integer, AppointmentRequest> lockRequestsByIds(Transaction tx, Collection<Integer> requestIds) {
+        engine.transaction(tx);
+        Map<Integer, AppointmentRequest> requests = new HashMap<>();
+        for (Integer requestId : requestIds) {
+            AppointmentRequest row = byId.get(requestId);
+            if (row != null) {
+                requests.put(requestId, Rows.copy(row));
+            }
+        }
+        return requests;
+    }
+
+    @Override
+    public void updateRequestStatusBatch(Transaction tx, Collection<Integer> requestIds, String status) {
+        for (Integer requestId : requestIds) {
+            updateRequestStatus(tx, requestId, status);
+        }
+    }
+
+    @Override
+    public boolean updateRequestStatus(int requestId, String status) {
+        try {
+            return engine.inTransaction(tx -> updateRequestStatus(tx, requestId, status));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean updateRequestStatus(Transaction tx, int requestId, String status) {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        AppointmentRequest before = byId.get(requestId);
+        if (before == null) {
+            return false;
+        }
+        AppointmentRequest row = Rows.copy(before);
+        row.setStatus(status);
+        replace(before, row);
+        memoryTx.onRollback(() -> replace(row, before));
+        return true;
+    }
+
+    @Override
+    public int archiveRequestsBefore(Transaction tx, java.util.Date cutoff, int limit) {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        long cutoffDay = Rows.startOfDayMillis(cutoff);
+        List<AppointmentRequest> moved = new ArrayList<>();
+        // No index over all requests by date: scan in id order, which is close to date order
+        for (AppointmentRequest row : byId.values()) {
+            if (moved.size() >= limit) {
+                break;
+            }
+            if (!"PENDING".equals(row.getStatus()) && row.getRequestedDate().getTime() < cutoffDay) {
+                moved.add(row);
+            }
+        }
+        for (AppointmentRequest row : moved) {
+            remove(row);
+            archive(row);
+            memoryTx.onRollback(() -> {
+                unarchive(row);
+                insert(row);
+            });
+        }
+        return moved.size();
+    }
+
+    private List<AppointmentRequest> collectPending(Iterable<RowKey> keys, int limit) {
+        List<AppointmentRequest> requests = new ArrayList<>();
+        for (RowKey key : keys) {
+            if (requests.size() >= limit) {
+                break;
+            }
+            AppointmentRequest row = byId.get(key.id);
+            // Re-check: the index entry may be a moment behind a status change
+            if (row != null && "PENDING".equals(row.getStatus())) {
+                requests.add(withPatientName(row));
+            }
+        }
+        return requests;
+    }
+
+    private AppointmentRequest withPatientName(AppointmentRequest row) {
+        AppointmentRequest request = Rows.copy(row);
+        request.setPatientName(patients.nameOf(row.getPatientId()));
+        return request;
+    }
+
+    private static RowKey keyOf(AppointmentRequest row) {
+        return new RowKey(row.getRequestedDate().getTime(), row.getRequestId());
+    }
+
+    private void insert(AppointmentRequest row) {
+        RowKey key = keyOf(row);
+        byId.put(row.getRequestId(), row);
+        byPatient.computeIfAbsent(row.getPatientId(), k -> new ConcurrentSkipListSet<>()).add(key);
+        if ("PENDING".equals(row.getStatus())) {
+            pending.add(key);
+        }
+    }
+
+    private void remove(AppointmentRequest row) {
+        RowKey key = keyOf(row);
+        pending.remove(key);
+        Set<RowKey> patientKeys = byPatient.get(row.getPatientId());
+        if (patientKeys != null) {
+            patientKeys.remove(key);
+        }
+        byId.remove(row.getRequestId());
+    }
+
+    private void replace(AppointmentRequest before, AppointmentRequest after) {
+        byId.put(after.getRequestId(), after);
+        if ("PENDING".equals(after.getStatus())) {
+            pending.add(keyOf(after));
+        } else if ("PENDING".equals(before.getStatus())) {
+            pending.remove(keyOf(before));
+        }
+    }
+
+    private void archive(AppointmentRequest row) {
+        archived.put(row.getRequestId(), row);
+        archivedByPatient.computeIfAbsent(row.getPatientId(), k -> new ConcurrentSkipListSet<>()).add(keyOf(row));
+    }
+
+    private void unarchive(AppointmentRequest row) {
+        Set<RowKey> patientKeys = archivedByPatient.get(row.getPatientId());
+        if (patientKeys != null) {
+            patientKeys.remove(keyOf(row));
+        }
+        archived.remove(row.getRequestId());
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(lastId.get());
+        writeRows(out, byId.values());
+        writeRows(out, archived.values());
+    }
+
+    private static void writeRows(DataOutputStream out, Collection<AppointmentRequest> rows) throws IOException {
+        out.writeInt(rows.size());
+        for (AppointmentRequest row : rows) {
+            out.writeInt(row.getRequestId());
+            out.writeInt(row.getPatientId());
+            Rows.writeString(out, row.getSpecialization());
+            out.writeLong(row.getRequestedDate().getTime());
+            Rows.writeString(out, row.getStatus());
+            Rows.writeString(out, row.getDescription());
+        }
+    }
+
+    /**
+     * Reads what {@link #write} wrote; version 1 snapshots have no archive section.
+     */
+    void read(DataInputStream in, int version) throws IOException {
+        lastId.set(in.readInt());
+        for (AppointmentRequest row : readRows(in)) {
+            insert(row);
+        }
+        if (version >= 2) {
+            for (AppointmentRequest row : readRows(in)) {
+                archive(row);
+            }
+        }
+    }
+
+    private static List<AppointmentRequest> readRows(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<AppointmentRequest> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AppointmentRequest row = new AppointmentRequest(in.readInt(), in.readInt(), Rows.readString(in),
+                new java.sql.Date(in.readLong()), Rows.readString(in));
+            row.setDescription(Rows.readString(in));
+            rows.add(row);
+        }
+        return rows;
+    }
+}
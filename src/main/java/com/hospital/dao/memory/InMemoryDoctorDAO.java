@@ -0,0 +1,257 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.Transaction;
+import com.hospital.model.Doctor;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Doctors by id with a unique index on email and a secondary index on specialization.
+ */
+public class InMemoryDoctorDAO implements DoctorDAO {
+    private final InMemoryStorageEngine engine;
+    private final ConcurrentSkipListMap<Integer, Doctor> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Integer> byEmail = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<Integer>> bySpecialization = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    InMemoryDoctorDAO(InMemoryStorageEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public int addDoctor(Doctor doctor) {
+        try {
+            return engine.inTransaction(tx -> addDoctor(tx, doctor));
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public int addDoctor(Transaction tx, Doctor doctor) throws SQLException {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        Rows.requireNotNull(doctor.getName(), "name");
+        Rows.requireNotNull(doctor.getSpecialization(), "specialization");
+        Rows.requireNotNull(doctor.getEmail(), "email");
+        Rows.requireNotNull(doctor.getPhone(), "phone");
+        Rows.requireNotNull(doctor.getQualification(), "qualification");
+        String emailKey = Rows.emailKey(doctor.getEmail());
+        if (byEmail.containsKey(emailKey)) {
+            throw Rows.duplicateKey(doctor.getEmail(), "doctors.email");
+        }
+        Doctor row = Rows.copy(doctor);
+        row.setDoctorId(lastId.incrementAndGet());
+        insert(row);
+        memoryTx.onRollback(() -> remove(row));
+        return row.getDoctorId();
+    }
+
+    @Override
+    public void addDoctorsBatch(Transaction tx, List<Doctor> doctors) throws SQLException {
+        engine.transaction(tx);
+        List<Integer> added = new ArrayList<>(doctors.size());
+        try {
+            for (Doctor doctor : doctors) {
+                added.add(addDoctor(tx, doctor));
+            }
+        } catch (SQLException e) {
+            // All or nothing, like a failed JDBC batch
+            for (Integer id : added) {
+                remove(byId.get(id));
+            }
+            throw e;
+        }
+        for (int i = 0; i < doctors.size(); i++) {
+            doctors.get(i).setDoctorId(added.get(i));
+        }
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Transaction tx, Collection<String> emails) {
+        engine.transaction(tx);
+        Set<String> existing = new HashSet<>();
+        for (String email : emails) {
+            String emailKey = Rows.emailKey(email);
+            if (byEmail.containsKey(emailKey)) {
+                existing.add(emailKey);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public Doctor getDoctorById(int doctorId) {
+        Doctor row = byId.get(doctorId);
+        return row == null ? null : Rows.copy(row);
+    }
+
+    @Override
+    public Doctor lockDoctorById(Transaction tx, int doctorId) {
+        engine.transaction(tx);
+        return getDoctorById(doctorId);
+    }
+
+    @Override
+    public Map<Integer, Doctor> lockDoctorsByIds(Transaction tx, Collection<Integer> doctorIds) {
+        engine.transaction(tx);
+        Map<Integer, Doctor> doctors = new HashMap<>();
+        for (Integer doctorId : new TreeSet<>(doctorIds)) {
+            Doctor doctor = getDoctorById(doctorId);
+            if (doctor != null) {
+                doctors.put(doctorId, doctor);
+            }
+        }
+        return doctors;
+    }
+
+    @Override
+    public List<Doctor> getAllDoctors() {
+        List<Doctor> doctors = new ArrayList<>(byId.size());
+        for (Doctor row : byId.values()) {
+            doctors.add(Rows.copy(row));
+        }
+        return doctors;
+    }
+
+    @Override
+    public List<Doctor> getDoctorsPage(int afterId, int limit) {
+        List<Doctor> doctors = new ArrayList<>(Math.min(limit, 1024));
+        for (Doctor row : byId.tailMap(afterId, false).values()) {
+            if (doctors.size() >= limit) {
+                break;
+            }
+            doctors.add(Rows.copy(row));
+        }
+        return doctors;
+    }
+
+    @Override
+    public int streamAllDoctors(Consumer<Doctor> consumer) {
+        int count = 0;
+        for (Doctor row : byId.values()) {
+            consumer.accept(Rows.copy(row));
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public List<Doctor> getAvailableDoctorsBySpecialization(String specialization) {
+        List<Doctor> doctors = new ArrayList<>();
+        Set<Integer> ids = specialization == null ? null : bySpecialization.get(specializationKey(specialization));
+        if (ids == null) {
+            return doctors;
+        }
+        for (Integer id : ids) {
+            Doctor row = byId.get(id);
+            if (row != null && row.isAvailable()) {
+                doctors.add(Rows.copy(row));
+            }
+        }
+        return doctors;
+    }
+
+    @Override
+    public List<Doctor> getAvailableDoctors() {
+        List<Doctor> doctors = new ArrayList<>();
+        for (Doctor row : byId.values()) {
+            if (row.isAvailable()) {
+                doctors.add(Rows.copy(row));
+            }
+        }
+        return doctors;
+    }
+
+    @Override
+    public boolean updateDoctorAvailability(int doctorId, boolean available) {
+        try {
+            return engine.inTransaction(tx -> {
+                MemoryTransaction memoryTx = engine.transaction(tx);
+                Doctor before = byId.get(doctorId);
+                if (before == null) {
+                    return false;
+                }
+                Doctor row = Rows.copy(before);
+                row.setAvailable(available);
+                byId.put(doctorId, row);
+                memoryTx.onRollback(() -> byId.put(doctorId, before));
+                return true;
+            });
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    boolean exists(int doctorId) {
+        return byId.containsKey(doctorId);
+    }
+
+    Doctor row(int doctorId) {
+        return byId.get(doctorId);
+    }
+
+    private void insert(Doctor row) {
+        byId.put(row.getDoctorId(), row);
+        byEmail.put(Rows.emailKey(row.getEmail()), row.getDoctorId());
+        bySpecialization.computeIfAbsent(specializationKey(row.getSpecialization()), k -> new ConcurrentSkipListSet<>())
+            .add(row.getDoctorId());
+    }
+
+    private void remove(Doctor row) {
+        byEmail.remove(Rows.emailKey(row.getEmail()));
+        Set<Integer> ids = bySpecialization.get(specializationKey(row.getSpecialization()));
+        if (ids != null) {
+            ids.remove(row.getDoctorId());
+        }
+        byId.remove(row.getDoctorId());
+    }
+
+    private static String specializationKey(String specialization) {
+        return specialization.toLowerCase(Locale.ROOT);
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(lastId.get());
+        out.writeInt(byId.size());
+        for (Doctor row : byId.values()) {
+            out.writeInt(row.getDoctorId());
+            Rows.writeString(out, row.getName());
+            Rows.writeString(out, row.getSpecialization());
+            Rows.writeString(out, row.getEmail());
+            Rows.writeString(out, row.getPhone());
+            Rows.writeString(out, row.getQualification());
+            out.writeInt(row.getExperience());
+            out.writeBoolean(row.isAvailable());
+        }
+    }
+
+    void read(DataInputStream in) throws IOException {
+        lastId.set(in.readInt());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            insert(new Doctor(in.readInt(), Rows.readString(in), Rows.readString(in), Rows.readString(in),
+                Rows.readString(in), Rows.readString(in), in.readInt(), in.readBoolean()));
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.StorageEngine;
+import com.hospital.dao.Transaction;
+import com.hospital.model.Patient;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Patients by id (ordered, for keyset pages) with a unique index on email.
+ */
+public class InMemoryPatientDAO implements PatientDAO {
+    private final InMemoryStorageEngine engine;
+    private final ConcurrentSkipListMap<Integer, Patient> byId = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Integer> byEmail = new ConcurrentHashMap<>();
+    private final AtomicInteger lastId = new AtomicInteger();
+
+    InMemoryPatientDAO(InMemoryStorageEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public int addPatient(Patient patient) {
+        try {
+            return engine.inTransaction(tx -> addPatient(tx, patient));
+        } catch (SQLException e) {
+            if (StorageEngine.isDuplicateKey(e)) {
+                return DUPLICATE_EMAIL;
+            }
+            System.err.println("Error adding patient: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    @Override
+    public int addPatient(Transaction tx, Patient patient) throws SQLException {
+        MemoryTransaction memoryTx = engine.transaction(tx);
+        Rows.requireNotNull(patient.getName(), "name");
+        Rows.requireNotNull(patient.getEmail(), "email");
+        Rows.requireNotNull(patient.getPhone(), "phone");
+        Rows.requireNotNull(patient.getGender(), "gender");
+        String emailKey = Rows.emailKey(patient.getEmail());
+        if (byEmail.containsKey(emailKey)) {
+            throw Rows.duplicateKey(patient.getEmail(), "patients.email");
+        }
+        Patient row = Rows.copy(patient);
+        row.setPatientId(lastId.incrementAndGet());
+        byId.put(row.getPatientId(), row);
+        byEmail.put(emailKey, row.getPatientId());
+        memoryTx.onRollback(() -> {
+            byEmail.remove(emailKey);
+            byId.remove(row.getPatientId());
+        });
+        return row.getPatientId();
+    }
+
+    @Override
+    public void addPatientsBatch(Transaction tx, List<Patient> patients) throws SQLException {
+        engine.transaction(tx);
+        List<Integer> added = new ArrayList<>(patients.size());
+        try {
+            for (Patient patient : patients) {
+                added.add(addPatient(tx, patient));
+            }
+        } catch (SQLException e) {
+            // All or nothing, like a failed JDBC batch
+            for (Integer id : added) {
+                Patient row = byId.remove(id);
+                byEmail.remove(Rows.emailKey(row.getEmail()));
+            }
+            throw e;
+        }
+        for (int i = 0; i < patients.size(); i++) {
+            patients.get(i).setPatientId(added.get(i));
+        }
+    }
+
+    @Override
+    public Set<String> findExistingEmails(Transaction tx, Collection<String> emails) {
+        engine.transaction(tx);
+        Set<String> existing = new HashSet<>();
+        for (String email : emails) {
+            String emailKey = Rows.emailKey(email);
+            if (byEmail.containsKey(emailKey)) {
+                existing.add(emailKey);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public Set<Integer> findExistingIds(Transaction tx, Collection<Integer> patientIds) {
+        engine.transaction(tx);
+        Set<Integer> existing = new HashSet<>();
+        for (Integer patientId : patientIds) {
+            if (byId.containsKey(patientId)) {
+                existing.add(patientId);
+            }
+        }
+        return existing;
+    }
+
+    @Override
+    public boolean updatePatient(Patient patient) {
+        try {
+            return engine.inTransaction(tx -> {
+                MemoryTransaction memoryTx = engine.transaction(tx);
+                Integer id = patient.getEmail() == null ? null : byEmail.get(Rows.emailKey(patient.getEmail()));
+                if (id == null) {
+                    return false;
+                }
+                Patient before = byId.get(id);
+                Patient row = Rows.copy(patient);
+                row.setPatientId(id);
+                row.setEmail(before.getEmail());
+                byId.put(id, row);
+                memoryTx.onRollback(() -> byId.put(id, before));
+                return true;
+            });
+        } catch (SQLException e) {
+            System.err.println("Error updating patient: " + e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    @Override
+    public Patient getPatientByEmail(String email) {
+        Integer id = email == null ? null : byEmail.get(Rows.emailKey(email));
+        return id == null ? null : getPatientById(id);
+    }
+
+    @Override
+    public List<Patient> getAllPatients() {
+        List<Patient> patients = new ArrayList<>(byId.size());
+        for (Patient row : byId.values()) {
+            patients.add(Rows.copy(row));
+        }
+        return patients;
+    }
+
+    @Override
+    public List<Patient> getPatientsPage(int afterId, int limit) {
+        List<Patient> patients = new ArrayList<>(Math.min(limit, 1024));
+        for (Patient row : byId.tailMap(afterId, false).values()) {
+            if (patients.size() >= limit) {
+                break;
+            }
+            patients.add(Rows.copy(row));
+        }
+        return patients;
+    }
+
+    @Override
+    public int streamAllPatients(Consumer<Patient> consumer) {
+        int count = 0;
+        for (Patient row : byId.values()) {
+            consumer.accept(Rows.copy(row));
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public int streamAllPatientsFromPrimary(Consumer<Patient> consumer) {
+        return streamAllPatients(consumer);
+    }
+
+    @Override
+    public int streamAllEmails(Consumer<String> consumer) {
+        int count = 0;
+        for (Patient row : byId.values()) {
+            consumer.accept(row.getEmail());
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public Patient getPatientById(int patientId) {
+        Patient row = byId.get(patientId);
+        return row == null ? null : Rows.copy(row);
+    }
+
+    @Override
+    public List<Patient> getPatientsByIds(Collection<Integer> patientIds) {
+        List<Patient> patients = new ArrayList<>(patientIds.size());
+        for (Integer patientId : patientIds) {
+            Patient row = byId.get(patientId);
+            if (row != null) {
+                patients.add(Rows.copy(row));
+            }
+        }
+        return patients;
+    }
+
+    boolean exists(int patientId) {
+        return byId.containsKey(patientId);
+    }
+
+    String nameOf(int patientId) {
+        Patient row = byId.get(patientId);
+        return row == null ? null : row.getName();
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(lastId.get());
+        out.writeInt(byId.size());
+        for (Patient row : byId.values()) {
+            out.writeInt(row.getPatientId());
+            Rows.writeString(out, row.getName());
+            Rows.writeString(out, row.getEmail());
+            Rows.writeString(out, row.getPhone());
+            out.writeInt(row.getAge());
+            Rows.writeString(out, row.getGender());
+            Rows.writeString(out, row.getAddress());
+        }
+    }
+
+    void read(DataInputStream in) throws IOException {
+        lastId.set(in.readInt());
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            Patient row = new Patient(in.readInt(), Rows.readString(in), Rows.readString(in), Rows.readString(in),
+                in.readInt(), Rows.readString(in), Rows.readString(in));
+            byId.put(row.getPatientId(), row);
+            byEmail.put(Rows.emailKey(row.getEmail()), row.getPatientId());
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.StorageEngine;
+import com.hospital.dao.Transaction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Concurrent in-memory storage engine for kiosk/edge deployments, load tests and
+ * read-heavy workloads whose data fits in RAM.
+ *
+ * Each table keeps rows in a concurrent map by primary key plus the secondary
+ * indexes its queries need (unique emails, specialization, (date, id) orderings per
+ * patient, doctor and status), so reads are lock-free index walks. Writers are
+ * serialised by one engine-wide lock held for the whole transaction, which gives the
+ * lock* methods their meaning; changes are applied in place and undone on rollback,
+ * so a concurrent reader can see a transaction's writes before it commits.
+ *
+ * With a snapshot file the engine loads it on start and rewrites it (atomically,
+ * under the write lock) on shutdown, on snapshot() and optionally on a timer.
+ * Changes since the last snapshot are lost if the process dies.
+ */
+public class InMemoryStorageEngine implements StorageEngine {
+    private static final int SNAPSHOT_MAGIC = 0x484D5331; // "HMS1"
+    // 2 added the archived appointments and requests; version 1 snapshots still load
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final InMemoryPatientDAO patients;
+    private final InMemoryDoctorDAO doctors;
+    private final InMemoryAppointmentDAO appointments;
+    private final InMemoryAppointmentRequestDAO requests;
+    private final Path snapshotFile;
+    private final ScheduledExecutorService snapshotter;
+    private final AtomicBoolean shutdown = new AtomicBoolean();
+
+    public InMemoryStorageEngine() {
+        this(null, 0);
+    }
+
+    /**
+     * @param snapshotFile file to load from and save to, or null for a purely volatile store
+     * @param snapshotIntervalMillis period between automatic snapshots; 0 disables them
+     */
+    public InMemoryStorageEngine(Path snapshotFile, long snapshotIntervalMillis) {
+        this.patients = new InMemoryPatientDAO(this);
+        this.doctors = new InMemoryDoctorDAO(this);
+        this.appointments = new InMemoryAppointmentDAO(this, patients, doctors);
+        this.requests = new InMemoryAppointmentRequestDAO(this, patients);
+        this.snapshotFile = snapshotFile;
+
+        if (snapshotFile != null && Files.exists(snapshotFile)) {
+            try {
+                load(snapshotFile);
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load snapshot " + snapshotFile, e);
+            }
+        }
+
+        if (snapshotFile != null && snapshotIntervalMillis > 0) {
+            snapshotter = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "storage-snapshot");
+                t.setDaemon(true);
+                return t;
+            });
+            snapshotter.scheduleWithFixedDelay(() -> {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    System.err.println("Error writing snapshot: " + e.getMessage());
+                }
+            }, snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        } else {
+            snapshotter = null;
+        }
+    }
+
+    @Override
+    public PatientDAO patients() {
+        return patients;
+    }
+
+    @Override
+    public DoctorDAO doctors() {
+        return doctors;
+    }
+
+    @Override
+    public AppointmentDAO appointments() {
+        return appointments;
+    }
+
+    @Override
+    public AppointmentRequestDAO requests() {
+        return requests;
+    }
+
+    @Override
+    public Transaction begin() {
+        writeLock.lock();
+        return new MemoryTransaction(this);
+    }
+
+    void endTransaction() {
+        writeLock.unlock();
+    }
+
+    /**
+     * Runs a whole-table read between transactions, so it sees exactly the committed rows.
+     */
+    <T> T betweenTransactions(Supplier<T> read) {
+        writeLock.lock();
+        try {
+            return read.get();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Checks that the transaction came from this engine, is open and is used on its own thread.
+     */
+    MemoryTransaction transaction(Transaction tx) {
+        if (!(tx instanceof MemoryTransaction) || ((MemoryTransaction) tx).engine != this) {
+            throw new IllegalArgumentException("Transaction does not belong to this in-memory storage engine");
+        }
+        MemoryTransaction memoryTx = (MemoryTransaction) tx;
+        memoryTx.ensureOpen();
+        return memoryTx;
+    }
+
+    /**
+     * Writes all committed data to the snapshot file. Waits for any open transaction to end.
+     */
+    public void snapshot() throws IOException {
+        if (snapshotFile == null) {
+            throw new IllegalStateException("No snapshot file configured");
+        }
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        writeLock.lock();
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                patients.write(out);
+                doctors.write(out);
+                appointments.write(out);
+                requests.write(out);
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                throw new IOException("Not a storage snapshot: " + file);
+            }
+            int version = in.readInt();
+            if (version < 1 || version > SNAPSHOT_VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            patients.read(in);
+            doctors.read(in);
+            appointments.read(in, version);
+            requests.read(in, version);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (!shutdown.compareAndSet(false, true)) {
+            return;
+        }
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+        }
+        if (snapshotFile != null) {
+            try {
+                snapshot();
+            } catch (IOException e) {
+                System.err.println("Error writing snapshot on shutdown: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.Transaction;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Holds the engine's write lock from begin() until close() and keeps an undo log of
+ * the changes made since the last commit; rollback replays it newest first.
+ */
+final class MemoryTransaction implements Transaction {
+    final InMemoryStorageEngine engine;
+    private final Thread owner = Thread.currentThread();
+    private final Deque<Runnable> undo = new ArrayDeque<>();
+    private boolean closed;
+
+    MemoryTransaction(InMemoryStorageEngine engine) {
+        this.engine = engine;
+    }
+
+    void onRollback(Runnable action) {
+        ensureOpen();
+        undo.push(action);
+    }
+
+    void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("Transaction is closed");
+        }
+        if (Thread.currentThread() != owner) {
+            throw new IllegalStateException("Transaction used from a thread other than the one that began it");
+        }
+    }
+
+    @Override
+    public void commit() {
+        ensureOpen();
+        undo.clear();
+    }
+
+    @Override
+    public void rollback() {
+        ensureOpen();
+        while (!undo.isEmpty()) {
+            undo.pop().run();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            rollback();
+        } finally {
+            closed = true;
+            engine.endTransaction();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.hospital.dao.memory;
+
+/**
+ * Ordered index entry: a sort time (epoch millis) with the row id as tie-breaker,
+ * the in-memory counterpart of a composite (date, id) B-tree key.
+ */
+final class RowKey implements Comparable<RowKey> {
+    final long time;
+    final int id;
+
+    RowKey(long time, int id) {
+        this.time = time;
+        this.id = id;
+    }
+
+    /**
+     * Sorts before every key with the same or a later time.
+     */
+    static RowKey floor(long time) {
+        return new RowKey(time, Integer.MIN_VALUE);
+    }
+
+    @Override
+    public int compareTo(RowKey other) {
+        int byTime = Long.compare(time, other.time);
+        return byTime != 0 ? byTime : Integer.compare(id, other.id);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RowKey)) {
+            return false;
+        }
+        RowKey other = (RowKey) o;
+        return time == other.time && id == other.id;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(time) * 31 + id;
+    }
+}
@@ -0,0 +1,98 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Locale;
+
+/**
+ * Row copies, constraint errors and snapshot encoding shared by the in-memory tables.
+ * Stored rows are never handed out or mutated in place: callers get copies and
+ * updates replace the stored object, so lock-free readers always see whole rows.
+ */
+final class Rows {
+    private Rows() {
+    }
+
+    static Patient copy(Patient p) {
+        return new Patient(p.getPatientId(), p.getName(), p.getEmail(), p.getPhone(), p.getAge(), p.getGender(), p.getAddress());
+    }
+
+    static Doctor copy(Doctor d) {
+        return new Doctor(d.getDoctorId(), d.getName(), d.getSpecialization(), d.getEmail(), d.getPhone(),
+            d.getQualification(), d.getExperience(), d.isAvailable());
+    }
+
+    static Appointment copy(Appointment a) {
+        return new Appointment(a.getAppointmentId(), a.getPatientId(), a.getDoctorId(),
+            a.getAppointmentDate() == null ? null : new Timestamp(a.getAppointmentDate().getTime()), a.getStatus());
+    }
+
+    static AppointmentRequest copy(AppointmentRequest r) {
+        AppointmentRequest request = new AppointmentRequest(r.getRequestId(), r.getPatientId(), r.getSpecialization(),
+            r.getRequestedDate() == null ? null : new java.sql.Date(r.getRequestedDate().getTime()), r.getStatus());
+        request.setDescription(r.getDescription());
+        return request;
+    }
+
+    /**
+     * Unique-index key for an email; matches MySQL's case-insensitive collation.
+     */
+    static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    static long startOfDayMillis(java.util.Date date) {
+        return startOfDayMillis(AppointmentDAO.epochDay(date));
+    }
+
+    static long startOfDayMillis(long epochDay) {
+        return LocalDate.ofEpochDay(epochDay).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    static void requireNotNull(Object value, String column) throws SQLException {
+        if (value == null) {
+            throw new SQLIntegrityConstraintViolationException("Column '" + column + "' cannot be null", "23000", 1048);
+        }
+    }
+
+    static SQLException duplicateKey(String value, String key) {
+        return new SQLIntegrityConstraintViolationException(
+            "Duplicate entry '" + value + "' for key '" + key + "'", "23000", 1062);
+    }
+
+    static SQLException missingParent(String table, String column, int id) {
+        return new SQLIntegrityConstraintViolationException(
+            "Cannot add or update a child row: no " + table + " row with " + column + " = " + id, "23000", 1452);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
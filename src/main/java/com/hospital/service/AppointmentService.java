@@ -2,34 +2,112 @@ package com.hospital.service;
 
 import com.hospital.dao.AppointmentDAO;
 import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.DataVersions;
 import com.hospital.dao.DoctorDAO;
 import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
 import com.hospital.model.Appointment;
 import com.hospital.model.AppointmentRequest;
 import com.hospital.model.Doctor;
+import com.hospital.util.DatabaseConnection;
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
+import com.hospital.util.SingleFlight;
 
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class AppointmentService {
+    private static final OperationMetrics REQUEST = Metrics.operation("AppointmentService.requestAppointment");
+    private static final OperationMetrics GET_PENDING = Metrics.operation("AppointmentService.getPendingRequests");
+    private static final OperationMetrics GET_PENDING_PAGE = Metrics.operation("AppointmentService.getPendingRequestsPage");
+    private static final OperationMetrics GET_PATIENT_REQUESTS = Metrics.operation("AppointmentService.getPatientRequests");
+    private static final OperationMetrics GET_SUITABLE = Metrics.operation("AppointmentService.getSuitableDoctors");
+    private static final OperationMetrics CHECK_AVAILABILITY = Metrics.operation("AppointmentService.checkDoctorAvailability");
+    private static final OperationMetrics FIX = Metrics.operation("AppointmentService.fixAppointment");
+    private static final OperationMetrics UPDATE_STATUS = Metrics.operation("AppointmentService.updateAppointmentStatus");
+    private static final OperationMetrics GET_ALL = Metrics.operation("AppointmentService.getAllAppointments");
+    private static final OperationMetrics GET_PAGE = Metrics.operation("AppointmentService.getAppointmentsPage");
+    private static final OperationMetrics STREAM_ALL = Metrics.operation("AppointmentService.streamAllAppointments");
+    private static final OperationMetrics GET_PATIENT_APPOINTMENTS = Metrics.operation("AppointmentService.getPatientAppointments");
+    private static final OperationMetrics GET_PATIENT_APPOINTMENTS_PAGE =
+        Metrics.operation("AppointmentService.getPatientAppointmentsPage");
+    private static final OperationMetrics GET_BY_ID = Metrics.operation("AppointmentService.getAppointmentById");
+
+    // Tables behind each coalesced list, including those joined for names
+    private static final DataVersions.Table[] PENDING_TABLES =
+        {DataVersions.Table.APPOINTMENT_REQUESTS, DataVersions.Table.PATIENTS};
+    private static final DataVersions.Table[] APPOINTMENT_TABLES =
+        {DataVersions.Table.APPOINTMENTS, DataVersions.Table.PATIENTS, DataVersions.Table.DOCTORS};
+    private static final List<String> APPOINTMENT_STATUSES = Arrays.asList("CONFIRMED", "CANCELLED", "COMPLETED");
+
     private AppointmentDAO appointmentDAO;
     private AppointmentRequestDAO requestDAO;
     private DoctorDAO doctorDAO;
     private PatientDAO patientDAO;
+    private StorageEngine storage;
+    // Keyed by the versions of the tables read, then the page arguments (see readKey)
+    private final SingleFlight<List<Object>, List<AppointmentRequest>> pendingReads =
+        new SingleFlight<>(Long.getLong("coalesce.ttlMs", 0L));
+    private final SingleFlight<List<Object>, List<Appointment>> appointmentReads =
+        new SingleFlight<>(Long.getLong("coalesce.ttlMs", 0L));
 
     public AppointmentService() {
-        this.appointmentDAO = new AppointmentDAO();
-        this.requestDAO = new AppointmentRequestDAO();
-        this.doctorDAO = new DoctorDAO();
-        this.patientDAO = new PatientDAO();
+        this(Storage.getEngine());
+    }
+
+    /**
+     * Uses the given engine for all DAO access and transactions; the doctor roster
+     * cache and occupancy index remain the process-wide ones.
+     */
+    public AppointmentService(StorageEngine storage) {
+        this.appointmentDAO = storage.appointments();
+        this.requestDAO = storage.requests();
+        this.doctorDAO = storage.doctors();
+        this.patientDAO = storage.patients();
+        this.storage = storage;
     }
 
     public int requestAppointment(int patientId, String specialization, Date requestedDate, String description) {
+        return REQUEST.timeInt(() -> request(patientId, specialization, requestedDate, description), false);
+    }
+
+    /**
+     * Write-behind variant of {@link #requestAppointment}: validates in memory, queues
+     * the request on {@link RequestIntake} and returns at once. The future yields the
+     * request id after the group commit, or fails with IllegalArgumentException if the
+     * patient does not exist.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the intake queue is full
+     */
+    public CompletableFuture<Integer> requestAppointmentAsync(int patientId, String specialization,
+                                                              Date requestedDate, String description) {
+        return RequestIntake.getInstance().submit(newRequest(patientId, specialization, requestedDate, description));
+    }
+
+    private int request(int patientId, String specialization, Date requestedDate, String description) {
         // Validate patient exists
         if (patientDAO.getPatientById(patientId) == null) {
             throw new IllegalArgumentException("Patient not found");
         }
         
+        AppointmentRequest request = newRequest(patientId, specialization, requestedDate, description);
+        int requestId = requestDAO.addAppointmentRequest(request);
+        if (requestId > 0) {
+            DashboardCounters.getInstance().onRequestAdded(request.getSpecialization(), request.getStatus());
+        }
+        return requestId;
+    }
+
+    private static AppointmentRequest newRequest(int patientId, String specialization, Date requestedDate,
+                                                 String description) {
         // Validate specialization
         if (specialization == null || specialization.trim().isEmpty()) {
             throw new IllegalArgumentException("Specialization is required");
@@ -47,82 +125,243 @@ public class AppointmentService {
         
         AppointmentRequest request = new AppointmentRequest(patientId, specialization, requestedDate, "PENDING");
         request.setDescription(description);
-        
-        return requestDAO.addAppointmentRequest(request);
+        return request;
     }
 
+    /**
+     * Concurrent callers share one query (see {@link SingleFlight}); the list is
+     * shared and must not be modified.
+     */
     public List<AppointmentRequest> getPendingRequests() {
-        return requestDAO.getAllPendingRequests();
+        return GET_PENDING.time(() -> pendingReads.get(readKey(PENDING_TABLES),
+            () -> Collections.unmodifiableList(requestDAO.getAllPendingRequests())));
+    }
+
+    public List<AppointmentRequest> getPendingRequestsPage(Date afterDate, int afterId, int limit) {
+        return GET_PENDING_PAGE.time(() -> pendingReads.get(readKey(PENDING_TABLES, afterDate, afterId, limit),
+            () -> Collections.unmodifiableList(requestDAO.getPendingRequestsPage(afterDate, afterId, limit))));
     }
 
     public List<AppointmentRequest> getPatientRequests(int patientId) {
-        return requestDAO.getRequestsByPatientId(patientId);
+        return GET_PATIENT_REQUESTS.time(() -> requestDAO.getRequestsByPatientId(patientId));
+    }
+
+    /**
+     * The patient's requests, including those moved to the archive if asked.
+     */
+    public List<AppointmentRequest> getPatientRequests(int patientId, boolean includeArchived) {
+        return GET_PATIENT_REQUESTS.time(() -> requestDAO.getRequestsByPatientId(patientId, includeArchived));
     }
 
     public List<Doctor> getSuitableDoctors(String specialization) {
-        return doctorDAO.getAvailableDoctorsBySpecialization(specialization);
+        return GET_SUITABLE.time(() -> DoctorRosterCache.getInstance().getAvailableDoctorsBySpecialization(specialization));
+    }
+
+    /**
+     * Available doctors of the specialization with no confirmed appointment on the date,
+     * answered from the roster cache and occupancy index without querying appointments.
+     */
+    public List<Doctor> getSuitableDoctors(String specialization, Date date) {
+        return GET_SUITABLE.time(() -> {
+            DoctorOccupancyIndex occupancy = DoctorOccupancyIndex.getInstance();
+            List<Doctor> free = new ArrayList<>();
+            for (Doctor doctor : DoctorRosterCache.getInstance().getAvailableDoctorsBySpecialization(specialization)) {
+                if (occupancy.isAvailable(doctor.getDoctorId(), date)) {
+                    free.add(doctor);
+                }
+            }
+            return free;
+        });
+    }
+
+    public boolean checkDoctorAvailability(int doctorId, Date date) {
+        return CHECK_AVAILABILITY.time(() -> DoctorOccupancyIndex.getInstance().isAvailable(doctorId, date));
     }
 
+    /**
+     * Assigns a doctor to a pending request in a single transaction. The request and
+     * doctor rows are locked (always in that order) before the availability check, so
+     * two admins cannot double-book a doctor or approve the same request twice, and
+     * the appointment insert and request approval commit or roll back together.
+     */
     public int fixAppointment(int requestId, int doctorId) {
-        // Get the request
-        AppointmentRequest request = requestDAO.getRequestById(requestId);
-        if (request == null) {
-            throw new IllegalArgumentException("Appointment request not found");
-        }
-        
-        if (!"PENDING".equals(request.getStatus())) {
-            throw new IllegalArgumentException("Request is not pending");
-        }
-        
-        // Get the doctor
-        Doctor doctor = doctorDAO.getDoctorById(doctorId);
-        if (doctor == null) {
-            throw new IllegalArgumentException("Doctor not found");
-        }
-        
-        // Check if doctor is available
-        if (!doctor.isAvailable()) {
-            throw new IllegalArgumentException("Doctor is not available");
-        }
-        
-        // Check if doctor matches specialization
-        if (!doctor.getSpecialization().equalsIgnoreCase(request.getSpecialization())) {
-            throw new IllegalArgumentException("Doctor specialization does not match request");
+        return FIX.timeInt(() -> fix(requestId, doctorId), false);
+    }
+
+    private int fix(int requestId, int doctorId) {
+        try {
+            Appointment booked = storage.inTransaction(tx -> {
+                // Get the request
+                AppointmentRequest request = requestDAO.lockRequestById(tx, requestId);
+                if (request == null) {
+                    throw new IllegalArgumentException("Appointment request not found");
+                }
+                
+                if (!"PENDING".equals(request.getStatus())) {
+                    throw new IllegalArgumentException("Request is not pending");
+                }
+                
+                // Get the doctor
+                Doctor doctor = doctorDAO.lockDoctorById(tx, doctorId);
+                if (doctor == null) {
+                    throw new IllegalArgumentException("Doctor not found");
+                }
+                
+                // Check if doctor is available
+                if (!doctor.isAvailable()) {
+                    throw new IllegalArgumentException("Doctor is not available");
+                }
+                
+                // Check if doctor matches specialization
+                if (!doctor.getSpecialization().equalsIgnoreCase(request.getSpecialization())) {
+                    throw new IllegalArgumentException("Doctor specialization does not match request");
+                }
+                
+                // Check if doctor is available on the requested date
+                if (!appointmentDAO.checkDoctorAvailability(tx, doctorId, request.getRequestedDate())) {
+                    throw new IllegalArgumentException("Doctor is not available on the requested date");
+                }
+                
+                // Create appointment
+                Appointment appointment = new Appointment(
+                    request.getPatientId(),
+                    doctorId,
+                    request.getRequestedDate(),
+                    "CONFIRMED"
+                );
+                
+                int appointmentId = appointmentDAO.addAppointment(tx, appointment);
+                if (appointmentId <= 0) {
+                    throw new SQLException("Creating appointment failed, no ID obtained.");
+                }
+                
+                appointment.setAppointmentId(appointmentId);
+                appointment.setSpecialization(request.getSpecialization());
+                
+                // Update request status
+                requestDAO.updateRequestStatus(tx, requestId, "APPROVED");
+                return appointment;
+            });
+            DoctorOccupancyIndex.getInstance().onConfirmed(doctorId, booked.getAppointmentDate());
+            DashboardCounters counters = DashboardCounters.getInstance();
+            counters.onRequestStatusChanged(booked.getSpecialization(), "PENDING", "APPROVED");
+            counters.onAppointmentAdded(doctorId, booked.getAppointmentDate(), booked.getStatus());
+            return booked.getAppointmentId();
+        } catch (SQLException e) {
+            System.err.println("Error fixing appointment: " + e.getMessage());
+            e.printStackTrace();
+            return -1;
         }
-        
-        // Check if doctor is available on the requested date
-        if (!appointmentDAO.checkDoctorAvailability(doctorId, request.getRequestedDate())) {
-            throw new IllegalArgumentException("Doctor is not available on the requested date");
+    }
+
+    /**
+     * Changes an appointment's status to CONFIRMED, CANCELLED or COMPLETED and keeps the
+     * occupancy index and dashboard counters in step with the committed change.
+     * Re-confirming locks the doctor and re-checks the day in the same transaction,
+     * as fixAppointment does, so it cannot double-book the doctor.
+     */
+    public boolean updateAppointmentStatus(int appointmentId, String status) {
+        return UPDATE_STATUS.time(() -> updateStatus(appointmentId, status));
+    }
+
+    private boolean updateStatus(int appointmentId, String status) {
+        if (!APPOINTMENT_STATUSES.contains(status)) {
+            throw new IllegalArgumentException("Status must be one of " + APPOINTMENT_STATUSES);
         }
-        
-        // Create appointment
-        Appointment appointment = new Appointment(
-            request.getPatientId(),
-            doctorId,
-            request.getRequestedDate(),
-            "CONFIRMED"
-        );
-        
-        int appointmentId = appointmentDAO.addAppointment(appointment);
-        
-        if (appointmentId > 0) {
-            // Update request status
-            requestDAO.updateRequestStatus(requestId, "APPROVED");
+        try {
+            Appointment before = storage.inTransaction(tx -> {
+                Appointment existing = appointmentDAO.lockAppointmentById(tx, appointmentId);
+                if (existing == null) {
+                    throw new IllegalArgumentException("Appointment not found");
+                }
+                if ("CONFIRMED".equals(status) && !"CONFIRMED".equals(existing.getStatus())) {
+                    Doctor doctor = doctorDAO.lockDoctorById(tx, existing.getDoctorId());
+                    if (doctor == null) {
+                        throw new IllegalArgumentException("Doctor not found");
+                    }
+                    if (!doctor.isAvailable()) {
+                        throw new IllegalArgumentException("Doctor is not available");
+                    }
+                    if (!appointmentDAO.checkDoctorAvailability(tx, existing.getDoctorId(), existing.getAppointmentDate())) {
+                        throw new IllegalArgumentException("Doctor is not available on the appointment date");
+                    }
+                }
+                appointmentDAO.updateAppointmentStatus(tx, appointmentId, status);
+                return existing;
+            });
+            boolean wasConfirmed = "CONFIRMED".equals(before.getStatus());
+            boolean isConfirmed = "CONFIRMED".equals(status);
+            if (wasConfirmed && !isConfirmed) {
+                DoctorOccupancyIndex.getInstance().onReleased(before.getDoctorId(), before.getAppointmentDate());
+            } else if (!wasConfirmed && isConfirmed) {
+                DoctorOccupancyIndex.getInstance().onConfirmed(before.getDoctorId(), before.getAppointmentDate());
+            }
+            DashboardCounters.getInstance().onAppointmentStatusChanged(before.getDoctorId(),
+                before.getAppointmentDate(), before.getStatus(), status);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error updating appointment status: " + e.getMessage());
+            e.printStackTrace();
+            return false;
         }
-        
-        return appointmentId;
     }
 
+    /**
+     * Concurrent callers share one query; the list is shared and must not be modified.
+     */
     public List<Appointment> getAllAppointments() {
-        return appointmentDAO.getAllAppointments();
+        return GET_ALL.time(() -> appointmentReads.get(readKey(APPOINTMENT_TABLES),
+            () -> Collections.unmodifiableList(appointmentDAO.getAllAppointments())));
+    }
+
+    public List<Appointment> getAppointmentsPage(Date afterDate, int afterId, int limit) {
+        return GET_PAGE.time(() -> appointmentReads.get(readKey(APPOINTMENT_TABLES, afterDate, afterId, limit),
+            () -> Collections.unmodifiableList(appointmentDAO.getAppointmentsPage(afterDate, afterId, limit))));
+    }
+
+    /**
+     * Coalescing key: the current versions of the tables, whether reads are pinned to
+     * the primary, then the arguments. A write committed in this process from anywhere
+     * (this or another service, the request intake, auto-assignment, the archiver)
+     * bumps a version, so no caller after it shares or reuses a load that may have
+     * started before it, and a caller pinned to the primary never gets a replica read.
+     */
+    private static List<Object> readKey(DataVersions.Table[] tables, Object... args) {
+        List<Object> key = new ArrayList<>(tables.length + args.length + 1);
+        for (DataVersions.Table table : tables) {
+            key.add(DataVersions.version(table));
+        }
+        key.add(DatabaseConnection.isReadingOnPrimary());
+        key.addAll(Arrays.asList(args));
+        return key;
+    }
+
+    public int streamAllAppointments(Consumer<Appointment> consumer) {
+        return STREAM_ALL.timeInt(() -> appointmentDAO.streamAllAppointments(consumer), true);
     }
 
     public List<Appointment> getPatientAppointments(int patientId) {
-        return appointmentDAO.getAppointmentsByPatientId(patientId);
+        return GET_PATIENT_APPOINTMENTS.time(() -> appointmentDAO.getAppointmentsByPatientId(patientId));
+    }
+
+    /**
+     * One keyset page of the patient's appointments, newest first; see
+     * {@link #getAppointmentsPage} for the cursor.
+     */
+    public List<Appointment> getPatientAppointmentsPage(int patientId, Date afterDate, int afterId, int limit) {
+        return GET_PATIENT_APPOINTMENTS_PAGE.time(
+            () -> appointmentDAO.getAppointmentsByPatientPage(patientId, afterDate, afterId, limit));
+    }
+
+    /**
+     * The patient's appointments, including those moved to the archive if asked.
+     */
+    public List<Appointment> getPatientAppointments(int patientId, boolean includeArchived) {
+        return GET_PATIENT_APPOINTMENTS.time(() -> appointmentDAO.getAppointmentsByPatientId(patientId, includeArchived));
     }
 
     public Appointment getAppointmentById(int appointmentId) {
-        return appointmentDAO.getAppointmentById(appointmentId);
+        return GET_BY_ID.time(() -> appointmentDAO.getAppointmentById(appointmentId));
     }
 }
 
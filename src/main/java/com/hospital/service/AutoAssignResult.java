@@ -0,0 +1,89 @@
+package com.hospital.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an auto-assignment run: the appointments created and the requests left pending.
+ */
+public class AutoAssignResult {
+    private final List<Assignment> assigned = new ArrayList<>();
+    private final List<Skipped> skipped = new ArrayList<>();
+    private long elapsedMillis;
+
+    void assigned(int requestId, int doctorId, int appointmentId) {
+        assigned.add(new Assignment(requestId, doctorId, appointmentId));
+    }
+
+    void skipped(int requestId, String reason) {
+        skipped.add(new Skipped(requestId, reason));
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<Assignment> getAssigned() {
+        return Collections.unmodifiableList(assigned);
+    }
+
+    public List<Skipped> getSkipped() {
+        return Collections.unmodifiableList(skipped);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "AutoAssignResult{" +
+                "assigned=" + assigned.size() +
+                ", skipped=" + skipped.size() +
+                ", elapsedMillis=" + elapsedMillis +
+                '}';
+    }
+
+    public static class Assignment {
+        private final int requestId;
+        private final int doctorId;
+        private final int appointmentId;
+
+        Assignment(int requestId, int doctorId, int appointmentId) {
+            this.requestId = requestId;
+            this.doctorId = doctorId;
+            this.appointmentId = appointmentId;
+        }
+
+        public int getRequestId() {
+            return requestId;
+        }
+
+        public int getDoctorId() {
+            return doctorId;
+        }
+
+        public int getAppointmentId() {
+            return appointmentId;
+        }
+    }
+
+    public static class Skipped {
+        private final int requestId;
+        private final String reason;
+
+        Skipped(int requestId, String reason) {
+            this.requestId = requestId;
+            this.reason = reason;
+        }
+
+        public int getRequestId() {
+            return requestId;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
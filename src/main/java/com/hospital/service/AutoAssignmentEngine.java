@@ -0,0 +1,215 @@
+package com.hospital.service;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Assigns doctors to the whole pending request queue in one pass.
+ *
+ * Planning happens in memory: requests are taken oldest requested date first and
+ * each goes to the free doctor of its specialization with the fewest assignments
+ * so far in this run (ties to the lower id), using the roster cache and the
+ * occupancy index. Plans are then committed in batches, each batch in one
+ * transaction that locks its requests and then its doctors (the same order
+ * fixAppointment uses), re-checks every plan against the database, and inserts
+ * the surviving appointments and approvals as JDBC batches. Plans invalidated by
+ * a concurrent admin are skipped, not retried.
+ */
+public class AutoAssignmentEngine {
+    public static final int DEFAULT_BATCH_SIZE = 100;
+
+    private static final OperationMetrics ASSIGN_PENDING = Metrics.operation("AutoAssignmentEngine.assignPending");
+
+    private final AppointmentDAO appointmentDAO;
+    private final AppointmentRequestDAO requestDAO;
+    private final DoctorDAO doctorDAO;
+    private final StorageEngine storage;
+    private final int batchSize;
+
+    public AutoAssignmentEngine() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public AutoAssignmentEngine(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.storage = Storage.getEngine();
+        this.appointmentDAO = storage.appointments();
+        this.requestDAO = storage.requests();
+        this.doctorDAO = storage.doctors();
+        this.batchSize = batchSize;
+    }
+
+    public AutoAssignResult assignPending() {
+        long startNanos = System.nanoTime();
+        long start = System.currentTimeMillis();
+        AutoAssignResult result = new AutoAssignResult();
+        List<Plan> plans = plan(requestDAO.getAllPendingRequests(), result);
+
+        for (int from = 0; from < plans.size(); from += batchSize) {
+            commit(plans.subList(from, Math.min(from + batchSize, plans.size())), result);
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        ASSIGN_PENDING.record(startNanos, false, result.getAssigned().size());
+        return result;
+    }
+
+    private List<Plan> plan(List<AppointmentRequest> pending, AutoAssignResult result) {
+        DoctorRosterCache roster = DoctorRosterCache.getInstance();
+        DoctorOccupancyIndex occupancy = DoctorOccupancyIndex.getInstance();
+        Set<String> plannedDays = new HashSet<>();
+        Map<Integer, Integer> load = new HashMap<>();
+        List<Plan> plans = new ArrayList<>(pending.size());
+
+        for (AppointmentRequest request : pending) {
+            Date date = request.getRequestedDate();
+            Doctor best = null;
+            int bestLoad = Integer.MAX_VALUE;
+            for (Doctor doctor : roster.getAvailableDoctorsBySpecialization(request.getSpecialization())) {
+                if (plannedDays.contains(AppointmentDAO.bookedDayKey(doctor.getDoctorId(), date))
+                        || !occupancy.isAvailable(doctor.getDoctorId(), date)) {
+                    continue;
+                }
+                int doctorLoad = load.getOrDefault(doctor.getDoctorId(), 0);
+                if (doctorLoad < bestLoad || (doctorLoad == bestLoad && doctor.getDoctorId() < best.getDoctorId())) {
+                    best = doctor;
+                    bestLoad = doctorLoad;
+                }
+            }
+            if (best == null) {
+                result.skipped(request.getRequestId(), "No " + request.getSpecialization() + " doctor free on the requested date");
+                continue;
+            }
+            plannedDays.add(AppointmentDAO.bookedDayKey(best.getDoctorId(), date));
+            load.merge(best.getDoctorId(), 1, Integer::sum);
+            plans.add(new Plan(request.getRequestId(), best.getDoctorId()));
+        }
+        return plans;
+    }
+
+    private void commit(List<Plan> batch, AutoAssignResult result) {
+        Set<Integer> requestIds = new TreeSet<>();
+        Set<Integer> doctorIds = new TreeSet<>();
+        for (Plan plan : batch) {
+            requestIds.add(plan.requestId);
+            doctorIds.add(plan.doctorId);
+        }
+
+        List<Plan> committed = new ArrayList<>();
+        List<Appointment> appointments = new ArrayList<>();
+        Map<Integer, String> rejected = new HashMap<>();
+        try {
+            storage.inTransaction(tx -> {
+                Map<Integer, AppointmentRequest> requests = requestDAO.lockRequestsByIds(tx, requestIds);
+                Map<Integer, Doctor> doctors = doctorDAO.lockDoctorsByIds(tx, doctorIds);
+
+                Date minDate = null;
+                Date maxDate = null;
+                for (AppointmentRequest request : requests.values()) {
+                    Date date = request.getRequestedDate();
+                    minDate = minDate == null || date.before(minDate) ? date : minDate;
+                    maxDate = maxDate == null || date.after(maxDate) ? date : maxDate;
+                }
+                Set<String> booked = minDate == null ? new HashSet<>()
+                    : appointmentDAO.findBookedDays(tx, doctorIds, minDate, maxDate);
+
+                List<Integer> approved = new ArrayList<>();
+                for (Plan plan : batch) {
+                    AppointmentRequest request = requests.get(plan.requestId);
+                    Doctor doctor = doctors.get(plan.doctorId);
+                    String reason = verify(request, doctor);
+                    String dayKey = request == null ? null : AppointmentDAO.bookedDayKey(plan.doctorId, request.getRequestedDate());
+                    if (reason == null && !booked.add(dayKey)) {
+                        reason = "Doctor is not available on the requested date";
+                    }
+                    if (reason != null) {
+                        rejected.put(plan.requestId, reason);
+                        continue;
+                    }
+                    Appointment appointment = new Appointment(request.getPatientId(), plan.doctorId,
+                        request.getRequestedDate(), "CONFIRMED");
+                    appointment.setSpecialization(request.getSpecialization());
+                    appointments.add(appointment);
+                    approved.add(plan.requestId);
+                    committed.add(plan);
+                }
+
+                if (!appointments.isEmpty()) {
+                    appointmentDAO.addAppointmentsBatch(tx, appointments);
+                    requestDAO.updateRequestStatusBatch(tx, approved, "APPROVED");
+                }
+                return null;
+            });
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Auto-assignment batch failed: " + e.getMessage());
+            for (Plan plan : batch) {
+                result.skipped(plan.requestId, "Batch failed: " + e.getMessage());
+            }
+            return;
+        }
+
+        for (Map.Entry<Integer, String> entry : rejected.entrySet()) {
+            result.skipped(entry.getKey(), entry.getValue());
+        }
+
+        DoctorOccupancyIndex occupancy = DoctorOccupancyIndex.getInstance();
+        DashboardCounters counters = DashboardCounters.getInstance();
+        for (int i = 0; i < committed.size(); i++) {
+            Appointment appointment = appointments.get(i);
+            occupancy.onConfirmed(appointment.getDoctorId(), appointment.getAppointmentDate());
+            counters.onRequestStatusChanged(appointment.getSpecialization(), "PENDING", "APPROVED");
+            counters.onAppointmentAdded(appointment.getDoctorId(), appointment.getAppointmentDate(),
+                appointment.getStatus());
+            result.assigned(committed.get(i).requestId, appointment.getDoctorId(), appointment.getAppointmentId());
+        }
+    }
+
+    private static String verify(AppointmentRequest request, Doctor doctor) {
+        if (request == null) {
+            return "Appointment request not found";
+        }
+        if (!"PENDING".equals(request.getStatus())) {
+            return "Request is not pending";
+        }
+        if (doctor == null) {
+            return "Doctor not found";
+        }
+        if (!doctor.isAvailable()) {
+            return "Doctor is not available";
+        }
+        if (!doctor.getSpecialization().equalsIgnoreCase(request.getSpecialization())) {
+            return "Doctor specialization does not match request";
+        }
+        return null;
+    }
+
+    private static final class Plan {
+        final int requestId;
+        final int doctorId;
+
+        Plan(int requestId, int doctorId) {
+            this.requestId = requestId;
+            this.doctorId = doctorId;
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package com.hospital.service;
+
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
+import com.hospital.dao.Transaction;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import com.hospital.util.CsvReader;
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Imports patients or doctors from CSV using batched inserts and one commit per chunk.
+ *
+ * The first CSV line is a header naming the columns (any order, case-insensitive).
+ * Rows are validated with the same rules as PatientService.registerPatient and
+ * DoctorService.addDoctor; emails already present in the file or the database are
+ * rejected up front with one lookup per chunk. Each chunk is inserted as a single
+ * JDBC batch and committed; if the batch still fails (e.g. a concurrent insert of
+ * the same email), the chunk is rolled back and retried row by row so only the
+ * offending rows are rejected.
+ */
+public class BulkImportService {
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private static final OperationMetrics IMPORT_PATIENTS = Metrics.operation("BulkImportService.importPatients");
+    private static final OperationMetrics IMPORT_DOCTORS = Metrics.operation("BulkImportService.importDoctors");
+
+    private final PatientDAO patientDAO;
+    private final DoctorDAO doctorDAO;
+    private final StorageEngine storage;
+    private final int chunkSize;
+
+    public BulkImportService() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    public BulkImportService(int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.storage = Storage.getEngine();
+        this.patientDAO = storage.patients();
+        this.doctorDAO = storage.doctors();
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Columns: name, email, phone (required); age, gender, address (optional).
+     */
+    public ImportResult importPatients(Reader csv) throws IOException, SQLException {
+        ImportResult result = runImport(IMPORT_PATIENTS, csv, new String[]{"name", "email", "phone"}, new Target<Patient>() {
+            @Override
+            public Patient parse(Map<String, String> row) {
+                Patient patient = new Patient(
+                    row.get("name"),
+                    row.get("email"),
+                    row.get("phone"),
+                    parseInt(row.get("age"), "age"),
+                    valueOrEmpty(row.get("gender")),
+                    row.get("address"));
+                PatientService.validate(patient);
+                return patient;
+            }
+
+            @Override
+            public String email(Patient patient) {
+                return patient.getEmail();
+            }
+
+            @Override
+            public Set<String> existingEmails(Transaction tx, List<String> emails) throws SQLException {
+                return patientDAO.findExistingEmails(tx, emails);
+            }
+
+            @Override
+            public void insertBatch(Transaction tx, List<Patient> rows) throws SQLException {
+                patientDAO.addPatientsBatch(tx, rows);
+            }
+
+            @Override
+            public void insertOne(Transaction tx, Patient patient) throws SQLException {
+                patient.setPatientId(patientDAO.addPatient(tx, patient));
+            }
+        });
+        if (result.getInserted() > 0) {
+            PatientEmailFilter.getInstance().invalidate();
+        }
+        return result;
+    }
+
+    /**
+     * Columns: name, specialization, email (required); phone, qualification,
+     * experience, available (optional; available defaults to true).
+     */
+    public ImportResult importDoctors(Reader csv) throws IOException, SQLException {
+        ImportResult result = runImport(IMPORT_DOCTORS, csv, new String[]{"name", "specialization", "email"}, new Target<Doctor>() {
+            @Override
+            public Doctor parse(Map<String, String> row) {
+                String available = row.get("available");
+                Doctor doctor = new Doctor(
+                    row.get("name"),
+                    row.get("specialization"),
+                    row.get("email"),
+                    valueOrEmpty(row.get("phone")),
+                    valueOrEmpty(row.get("qualification")),
+                    parseInt(row.get("experience"), "experience"),
+                    available == null || available.isEmpty() || Boolean.parseBoolean(available) || "1".equals(available));
+                DoctorService.validate(doctor);
+                return doctor;
+            }
+
+            @Override
+            public String email(Doctor doctor) {
+                return doctor.getEmail();
+            }
+
+            @Override
+            public Set<String> existingEmails(Transaction tx, List<String> emails) throws SQLException {
+                return doctorDAO.findExistingEmails(tx, emails);
+            }
+
+            @Override
+            public void insertBatch(Transaction tx, List<Doctor> rows) throws SQLException {
+                doctorDAO.addDoctorsBatch(tx, rows);
+            }
+
+            @Override
+            public void insertOne(Transaction tx, Doctor doctor) throws SQLException {
+                doctor.setDoctorId(doctorDAO.addDoctor(tx, doctor));
+            }
+        });
+        if (result.getInserted() > 0) {
+            DoctorRosterCache.getInstance().invalidate();
+        }
+        return result;
+    }
+
+    private interface Target<T> {
+        T parse(Map<String, String> row);
+
+        String email(T row);
+
+        Set<String> existingEmails(Transaction tx, List<String> emails) throws SQLException;
+
+        void insertBatch(Transaction tx, List<T> rows) throws SQLException;
+
+        void insertOne(Transaction tx, T row) throws SQLException;
+    }
+
+    private <T> ImportResult runImport(OperationMetrics metrics, Reader csv, String[] requiredColumns,
+                                       Target<T> target) throws IOException, SQLException {
+        long startNanos = System.nanoTime();
+        try {
+            ImportResult result = runImport(csv, requiredColumns, target);
+            metrics.record(startNanos, false, result.getInserted());
+            return result;
+        } catch (IOException | SQLException | RuntimeException e) {
+            metrics.record(startNanos, true, 0);
+            throw e;
+        }
+    }
+
+    private <T> ImportResult runImport(Reader csv, String[] requiredColumns, Target<T> target)
+            throws IOException, SQLException {
+        long start = System.currentTimeMillis();
+        ImportResult result = new ImportResult();
+
+        try (CsvReader reader = new CsvReader(csv);
+             Transaction tx = storage.begin()) {
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV is empty");
+            }
+            List<String> columns = new ArrayList<>();
+            for (String column : header) {
+                columns.add(column.trim().toLowerCase(Locale.ROOT));
+            }
+            for (String required : requiredColumns) {
+                if (!columns.contains(required)) {
+                    throw new IllegalArgumentException("CSV header is missing required column: " + required);
+                }
+            }
+
+            Set<String> seenEmails = new HashSet<>();
+            List<T> chunk = new ArrayList<>(chunkSize);
+            List<Long> chunkLines = new ArrayList<>(chunkSize);
+
+            List<String> record;
+            while ((record = reader.readRecord()) != null) {
+                long line = reader.getRecordLineNumber();
+                if (record.size() == 1 && record.get(0).trim().isEmpty()) {
+                    continue;
+                }
+                if (record.size() != columns.size()) {
+                    result.reject(line, "Expected " + columns.size() + " fields but found " + record.size());
+                    continue;
+                }
+                Map<String, String> row = new HashMap<>();
+                for (int i = 0; i < columns.size(); i++) {
+                    row.put(columns.get(i), record.get(i).trim());
+                }
+
+                T entity;
+                try {
+                    entity = target.parse(row);
+                } catch (IllegalArgumentException e) {
+                    result.reject(line, e.getMessage());
+                    continue;
+                }
+                String email = target.email(entity);
+                if (email != null && !email.isEmpty() && !seenEmails.add(email.toLowerCase(Locale.ROOT))) {
+                    result.reject(line, "Duplicate email in file: " + email);
+                    continue;
+                }
+
+                chunk.add(entity);
+                chunkLines.add(line);
+                if (chunk.size() == chunkSize) {
+                    flush(tx, target, chunk, chunkLines, result);
+                }
+            }
+            flush(tx, target, chunk, chunkLines, result);
+        }
+
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private <T> void flush(Transaction tx, Target<T> target, List<T> chunk, List<Long> lines, ImportResult result)
+            throws SQLException {
+        if (chunk.isEmpty()) {
+            return;
+        }
+
+        // Drop rows whose email is already in the database
+        List<String> emails = new ArrayList<>();
+        for (T row : chunk) {
+            String email = target.email(row);
+            if (email != null && !email.isEmpty()) {
+                emails.add(email);
+            }
+        }
+        Set<String> existing = target.existingEmails(tx, emails);
+        List<T> rows = new ArrayList<>(chunk.size());
+        List<Long> rowLines = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            String email = target.email(chunk.get(i));
+            if (email != null && existing.contains(email.toLowerCase(Locale.ROOT))) {
+                result.reject(lines.get(i), "Email already registered: " + email);
+            } else {
+                rows.add(chunk.get(i));
+                rowLines.add(lines.get(i));
+            }
+        }
+        chunk.clear();
+        lines.clear();
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            target.insertBatch(tx, rows);
+            tx.commit();
+            result.addInserted(rows.size());
+        } catch (SQLException batchFailure) {
+            tx.rollback();
+            // Find the offending rows one at a time; each good row commits on its own
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    target.insertOne(tx, rows.get(i));
+                    tx.commit();
+                    result.addInserted(1);
+                } catch (SQLException e) {
+                    tx.rollback();
+                    result.reject(rowLines.get(i), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static int parseInt(String value, String column) {
+        if (value == null || value.isEmpty()) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static String valueOrEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !("patients".equals(args[0]) || "doctors".equals(args[0]))) {
+            System.err.println("Usage: BulkImportService <patients|doctors> <file.csv> [chunkSize]");
+            System.exit(2);
+        }
+        BulkImportService importer = new BulkImportService(
+            args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_CHUNK_SIZE);
+        ImportResult result;
+        try (Reader reader = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            result = "patients".equals(args[0]) ? importer.importPatients(reader) : importer.importDoctors(reader);
+        }
+        for (ImportResult.Reject reject : result.getRejects()) {
+            System.out.println("REJECTED " + reject);
+        }
+        System.out.println(result);
+        Storage.getEngine().shutdown();
+    }
+}
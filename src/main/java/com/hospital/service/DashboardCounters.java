@@ -0,0 +1,246 @@
+package com.hospital.service;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.Storage;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Live counts for the admin dashboard: requests per specialization and status,
+ * CONFIRMED appointments per doctor per day, and the status breakdown of requests
+ * and appointments.
+ *
+ * The counts are rebuilt from two GROUP BY queries on first use, and from then on
+ * kept up to date by the services right after each write commits, so every tile is
+ * one map lookup. Writes made by other processes are picked up by a full rebuild
+ * every dashboard.ttlMs (default 300000).
+ *
+ * A rebuild scans without holding the write lock. Each scan records the updates
+ * that arrive once it has started; they are applied to the rebuilt counts just
+ * before those replace the live ones. The scans read committed rows as of their
+ * start, so the recorded updates are the ones they missed; only a write that
+ * commits in the instant before a scan starts and reports just after can still be
+ * counted twice, until the next rebuild.
+ */
+public class DashboardCounters {
+    private static final DashboardCounters INSTANCE = new DashboardCounters(Storage.getEngine().appointments(),
+        Storage.getEngine().requests(), Long.getLong("dashboard.ttlMs", 300000L));
+
+    private final AppointmentDAO appointmentDAO;
+    private final AppointmentRequestDAO requestDAO;
+    private final long ttlMillis;
+    private final Object writeLock = new Object();
+    private final Object loadLock = new Object();
+
+    private volatile Counts counts;
+    // Guarded by writeLock; non-null while a rebuild's request or appointment scan runs
+    private List<Consumer<Counts>> missedRequests;
+    private List<Consumer<Counts>> missedAppointments;
+
+    DashboardCounters(AppointmentDAO appointmentDAO, AppointmentRequestDAO requestDAO, long ttlMillis) {
+        this.appointmentDAO = appointmentDAO;
+        this.requestDAO = requestDAO;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static DashboardCounters getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Rebuilds every count from the database. Called lazily on first use and when the
+     * counts are older than the TTL.
+     */
+    public void load() {
+        synchronized (loadLock) {
+            Counts loaded = new Counts(System.currentTimeMillis());
+            int requestGroups = -1;
+            int appointmentGroups = -1;
+            try {
+                synchronized (writeLock) {
+                    missedRequests = new ArrayList<>();
+                }
+                requestGroups = requestDAO.streamStatusCounts((specialization, status, count) -> {
+                    if (specialization == null || status == null) {
+                        return;
+                    }
+                    loaded.requests.computeIfAbsent(specialization, k -> new ConcurrentHashMap<>())
+                        .computeIfAbsent(status, k -> new AtomicInteger()).addAndGet(count);
+                    loaded.requestTotals.computeIfAbsent(status, k -> new AtomicInteger()).addAndGet(count);
+                });
+                synchronized (writeLock) {
+                    missedAppointments = new ArrayList<>();
+                }
+                appointmentGroups = appointmentDAO.streamDailyStatusCounts((doctorId, day, status, count) -> {
+                    if (status == null) {
+                        return;
+                    }
+                    if ("CONFIRMED".equals(status)) {
+                        loaded.confirmed.computeIfAbsent(key(doctorId, day), k -> new AtomicInteger()).addAndGet(count);
+                    }
+                    loaded.appointmentTotals.computeIfAbsent(status, k -> new AtomicInteger()).addAndGet(count);
+                });
+            } finally {
+                synchronized (writeLock) {
+                    if (requestGroups >= 0 && appointmentGroups >= 0) {
+                        missedRequests.forEach(update -> update.accept(loaded));
+                        missedAppointments.forEach(update -> update.accept(loaded));
+                        counts = loaded;
+                    }
+                    missedRequests = null;
+                    missedAppointments = null;
+                }
+            }
+        }
+    }
+
+    public int getPendingCount(String specialization) {
+        Map<String, AtomicInteger> byStatus = current().requests.get(specialization);
+        return byStatus == null ? 0 : value(byStatus.get("PENDING"));
+    }
+
+    /**
+     * Pending requests per specialization, specializations with none left out.
+     */
+    public Map<String, Integer> getPendingBySpecialization() {
+        Map<String, Integer> pending = new TreeMap<>();
+        for (Map.Entry<String, Map<String, AtomicInteger>> entry : current().requests.entrySet()) {
+            int count = value(entry.getValue().get("PENDING"));
+            if (count > 0) {
+                pending.put(entry.getKey(), count);
+            }
+        }
+        return pending;
+    }
+
+    public int getConfirmedCount(int doctorId, Date date) {
+        return value(current().confirmed.get(key(doctorId, AppointmentDAO.epochDay(date))));
+    }
+
+    public Map<String, Integer> getRequestStatusCounts() {
+        return copy(current().requestTotals);
+    }
+
+    public Map<String, Integer> getAppointmentStatusCounts() {
+        return copy(current().appointmentTotals);
+    }
+
+    /**
+     * Records a request committed with the given status (normally PENDING).
+     */
+    public void onRequestAdded(String specialization, String status) {
+        synchronized (writeLock) {
+            apply(target -> target.adjustRequest(specialization, status, 1), missedRequests);
+        }
+    }
+
+    public void onRequestStatusChanged(String specialization, String from, String to) {
+        synchronized (writeLock) {
+            apply(target -> {
+                target.adjustRequest(specialization, from, -1);
+                target.adjustRequest(specialization, to, 1);
+            }, missedRequests);
+        }
+    }
+
+    public void onAppointmentAdded(int doctorId, Date date, String status) {
+        synchronized (writeLock) {
+            apply(target -> target.adjustAppointment(doctorId, date, status, 1), missedAppointments);
+        }
+    }
+
+    public void onAppointmentStatusChanged(int doctorId, Date date, String from, String to) {
+        synchronized (writeLock) {
+            apply(target -> {
+                target.adjustAppointment(doctorId, date, from, -1);
+                target.adjustAppointment(doctorId, date, to, 1);
+            }, missedAppointments);
+        }
+    }
+
+    /**
+     * Applies an update to the live counts and, while a rebuild scan is running,
+     * records it for the rebuilt ones. Called under writeLock.
+     */
+    private void apply(Consumer<Counts> update, List<Consumer<Counts>> missed) {
+        Counts current = counts;
+        if (current != null) {
+            update.accept(current);
+        }
+        if (missed != null) {
+            missed.add(update);
+        }
+    }
+
+    private Counts current() {
+        Counts current = counts;
+        if (current == null || System.currentTimeMillis() - current.loadedAt > ttlMillis) {
+            synchronized (loadLock) {
+                // Only the first of several callers that found the counts stale reloads them
+                if (counts == current) {
+                    load();
+                }
+                current = counts;
+            }
+        }
+        return current != null ? current : new Counts(0);
+    }
+
+    private static long key(int doctorId, long epochDay) {
+        return ((long) doctorId << 32) | (epochDay & 0xffffffffL);
+    }
+
+    private static int value(AtomicInteger counter) {
+        return counter == null ? 0 : counter.get();
+    }
+
+    private static Map<String, Integer> copy(Map<String, AtomicInteger> counters) {
+        Map<String, Integer> copy = new TreeMap<>();
+        for (Map.Entry<String, AtomicInteger> entry : counters.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().get());
+        }
+        return copy;
+    }
+
+    private static final class Counts {
+        final long loadedAt;
+        final Map<String, Map<String, AtomicInteger>> requests = new ConcurrentHashMap<>();
+        final Map<String, AtomicInteger> requestTotals = new ConcurrentHashMap<>();
+        final Map<Long, AtomicInteger> confirmed = new ConcurrentHashMap<>();
+        final Map<String, AtomicInteger> appointmentTotals = new ConcurrentHashMap<>();
+
+        Counts(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        void adjustRequest(String specialization, String status, int delta) {
+            adjust(requests.computeIfAbsent(specialization, k -> new ConcurrentHashMap<>()), status, delta);
+            adjust(requestTotals, status, delta);
+        }
+
+        void adjustAppointment(int doctorId, Date date, String status, int delta) {
+            if ("CONFIRMED".equals(status)) {
+                AtomicInteger counter = confirmed.computeIfAbsent(key(doctorId, AppointmentDAO.epochDay(date)),
+                    k -> new AtomicInteger());
+                if (counter.addAndGet(delta) < 0) {
+                    counter.set(0);
+                }
+            }
+            adjust(appointmentTotals, status, delta);
+        }
+
+        private static void adjust(Map<String, AtomicInteger> counters, String status, int delta) {
+            if (counters.computeIfAbsent(status, k -> new AtomicInteger()).addAndGet(delta) < 0) {
+                counters.get(status).set(0);
+            }
+        }
+    }
+}
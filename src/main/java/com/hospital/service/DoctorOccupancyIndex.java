@@ -0,0 +1,215 @@
+package com.hospital.service;
+
+import com.hospital.dao.AppointmentDAO;
+import com.hospital.dao.Storage;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of CONFIRMED appointments per doctor per day, used to answer
+ * "is this doctor free on that day" without a COUNT query.
+ *
+ * Each doctor has one counter slot per day over a rolling window (a few weeks
+ * back, a year ahead) anchored at the day the index was loaded; the window is
+ * reloaded from the database when the date rolls over. Days outside the window
+ * fall back to the database. The index is advisory: fixAppointment still makes
+ * the authoritative check under a row lock.
+ *
+ * A load streams without holding the write lock and records the updates that
+ * arrive once it has started; they are applied to the loaded window just before
+ * it replaces the live one, as DashboardCounters does for its rebuilds. Only a
+ * booking that commits in the instant before the stream starts and reports just
+ * after can still be counted twice, until the next day's reload.
+ */
+public class DoctorOccupancyIndex {
+    private static final DoctorOccupancyIndex INSTANCE = new DoctorOccupancyIndex(Storage.getEngine().appointments(),
+        Integer.getInteger("occupancy.pastDays", 30), Integer.getInteger("occupancy.futureDays", 365));
+
+    private final AppointmentDAO appointmentDAO;
+    private final int pastDays;
+    private final int futureDays;
+    private final Object writeLock = new Object();
+    private final Object loadLock = new Object();
+
+    private volatile Window window;
+    // Guarded by writeLock; non-null while a load's stream runs
+    private List<Consumer<Window>> missed;
+
+    DoctorOccupancyIndex(AppointmentDAO appointmentDAO, int pastDays, int futureDays) {
+        this.appointmentDAO = appointmentDAO;
+        this.pastDays = pastDays;
+        this.futureDays = futureDays;
+    }
+
+    public static DoctorOccupancyIndex getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Loads (or reloads) the window from the database. Called lazily on first use
+     * and whenever the date has moved on since the last load.
+     */
+    public void load() {
+        synchronized (loadLock) {
+            long today = LocalDate.now().toEpochDay();
+            Window loaded = new Window(today - pastDays, pastDays + futureDays + 1, today);
+            LocalDate first = LocalDate.ofEpochDay(loaded.firstDay);
+            LocalDate end = first.plusDays(loaded.length);
+            int rows = -1;
+            try {
+                synchronized (writeLock) {
+                    missed = new ArrayList<>();
+                }
+                rows = appointmentDAO.streamConfirmedAppointments(toDate(first), toDate(end),
+                    appointment -> loaded.adjust(appointment.getDoctorId(), epochDay(appointment.getAppointmentDate()), 1));
+            } finally {
+                synchronized (writeLock) {
+                    if (rows >= 0) {
+                        missed.forEach(update -> update.accept(loaded));
+                        window = loaded;
+                    }
+                    missed = null;
+                }
+            }
+        }
+    }
+
+    public boolean isAvailable(int doctorId, Date date) {
+        Window current = current();
+        long day = epochDay(date);
+        if (current == null || !current.covers(day)) {
+            return appointmentDAO.checkDoctorAvailability(doctorId, date);
+        }
+        return current.count(doctorId, day) == 0;
+    }
+
+    /**
+     * Returns the subset of the given doctors that have no confirmed appointment on the date.
+     */
+    public List<Integer> freeDoctors(Collection<Integer> doctorIds, Date date) {
+        List<Integer> free = new ArrayList<>(doctorIds.size());
+        for (Integer doctorId : doctorIds) {
+            if (isAvailable(doctorId, date)) {
+                free.add(doctorId);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Returns the days in [from, to] on which the doctor has no confirmed appointment.
+     */
+    public List<LocalDate> freeDays(int doctorId, LocalDate from, LocalDate to) {
+        List<LocalDate> free = new ArrayList<>();
+        Window current = current();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            long epochDay = day.toEpochDay();
+            boolean available = current != null && current.covers(epochDay)
+                ? current.count(doctorId, epochDay) == 0
+                : appointmentDAO.checkDoctorAvailability(doctorId, toDate(day));
+            if (available) {
+                free.add(day);
+            }
+        }
+        return free;
+    }
+
+    /**
+     * Records that a CONFIRMED appointment was committed for the doctor on the date.
+     */
+    public void onConfirmed(int doctorId, Date date) {
+        adjust(doctorId, date, 1);
+    }
+
+    /**
+     * Records that a CONFIRMED appointment for the doctor on the date was cancelled or
+     * otherwise moved out of CONFIRMED.
+     */
+    public void onReleased(int doctorId, Date date) {
+        adjust(doctorId, date, -1);
+    }
+
+    /**
+     * Applies an update to the live window and, while a load is streaming, records
+     * it for the loaded one.
+     */
+    private void adjust(int doctorId, Date date, int delta) {
+        long day = epochDay(date);
+        Consumer<Window> update = target -> target.adjust(doctorId, day, delta);
+        synchronized (writeLock) {
+            Window current = window;
+            if (current != null) {
+                update.accept(current);
+            }
+            if (missed != null) {
+                missed.add(update);
+            }
+        }
+    }
+
+    private Window current() {
+        Window current = window;
+        long today = LocalDate.now().toEpochDay();
+        if (current == null || current.loadedDay != today) {
+            synchronized (loadLock) {
+                // Callers queued behind a reload reuse its window instead of loading again
+                current = window;
+                if (current == null || current.loadedDay != today) {
+                    load();
+                    current = window;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static long epochDay(Date date) {
+        return AppointmentDAO.epochDay(date);
+    }
+
+    private static Date toDate(LocalDate day) {
+        return Date.from(day.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    private static final class Window {
+        final long firstDay;
+        final int length;
+        final long loadedDay;
+        final Map<Integer, AtomicIntegerArray> slots = new ConcurrentHashMap<>();
+
+        Window(long firstDay, int length, long loadedDay) {
+            this.firstDay = firstDay;
+            this.length = length;
+            this.loadedDay = loadedDay;
+        }
+
+        boolean covers(long day) {
+            return day >= firstDay && day < firstDay + length;
+        }
+
+        int count(int doctorId, long day) {
+            AtomicIntegerArray days = slots.get(doctorId);
+            return days == null ? 0 : days.get((int) (day - firstDay));
+        }
+
+        void adjust(int doctorId, long day, int delta) {
+            if (!covers(day)) {
+                return;
+            }
+            AtomicIntegerArray days = slots.computeIfAbsent(doctorId, id -> new AtomicIntegerArray(length));
+            int index = (int) (day - firstDay);
+            if (days.addAndGet(index, delta) < 0) {
+                days.set(index, 0);
+            }
+        }
+    }
+}
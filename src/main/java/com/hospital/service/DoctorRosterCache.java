@@ -0,0 +1,190 @@
+package com.hospital.service;
+
+import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.Storage;
+import com.hospital.model.Doctor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide, read-through cache of the doctor roster.
+ *
+ * The whole roster is loaded in one query into an immutable snapshot indexed by
+ * id and by specialization. Writes made through DoctorService update the
+ * snapshot in place; the TTL is only a safety net for changes made outside this
+ * process. Returned lists and Doctor instances are shared and must be treated
+ * as read-only.
+ */
+public class DoctorRosterCache {
+    private static final DoctorRosterCache INSTANCE =
+        new DoctorRosterCache(Storage.getEngine().doctors(), Long.getLong("doctor.cache.ttlMs", 300000L));
+
+    private final DoctorDAO doctorDAO;
+    private final long ttlMillis;
+    private volatile Snapshot snapshot;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    DoctorRosterCache(DoctorDAO doctorDAO, long ttlMillis) {
+        this.doctorDAO = doctorDAO;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static DoctorRosterCache getInstance() {
+        return INSTANCE;
+    }
+
+    public Doctor getDoctorById(int doctorId) {
+        Doctor doctor = current(false).byId.get(doctorId);
+        if (doctor != null) {
+            hits.incrementAndGet();
+            return doctor;
+        }
+        // Unknown id: the doctor may have been added by another process since the last load
+        misses.incrementAndGet();
+        doctor = doctorDAO.getDoctorById(doctorId);
+        if (doctor != null) {
+            invalidate();
+        }
+        return doctor;
+    }
+
+    public List<Doctor> getAllDoctors() {
+        return current(true).all;
+    }
+
+    public List<Doctor> getAvailableDoctors() {
+        return current(true).available;
+    }
+
+    public List<Doctor> getAvailableDoctorsBySpecialization(String specialization) {
+        if (specialization == null) {
+            return Collections.emptyList();
+        }
+        List<Doctor> doctors = current(true).availableBySpecialization.get(key(specialization));
+        return doctors != null ? doctors : Collections.emptyList();
+    }
+
+    /**
+     * Records a doctor just inserted through the DAO.
+     */
+    public void onDoctorAdded(Doctor doctor) {
+        synchronized (this) {
+            Snapshot current = snapshot;
+            // A reload between the insert's commit and this call already has the doctor
+            if (current == null || current.byId.containsKey(doctor.getDoctorId())) {
+                return;
+            }
+            List<Doctor> doctors = new ArrayList<>(current.all);
+            doctors.add(new Doctor(doctor.getDoctorId(), doctor.getName(), doctor.getSpecialization(),
+                doctor.getEmail(), doctor.getPhone(), doctor.getQualification(),
+                doctor.getExperience(), doctor.isAvailable()));
+            snapshot = new Snapshot(doctors, current.loadedAt);
+        }
+    }
+
+    /**
+     * Records an availability change just written through the DAO.
+     */
+    public void onAvailabilityChanged(int doctorId, boolean available) {
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            Doctor existing = current.byId.get(doctorId);
+            if (existing == null) {
+                snapshot = null;
+                return;
+            }
+            Doctor updated = new Doctor(existing.getDoctorId(), existing.getName(), existing.getSpecialization(),
+                existing.getEmail(), existing.getPhone(), existing.getQualification(),
+                existing.getExperience(), available);
+            List<Doctor> doctors = new ArrayList<>(current.all.size());
+            for (Doctor d : current.all) {
+                doctors.add(d.getDoctorId() == doctorId ? updated : d);
+            }
+            snapshot = new Snapshot(doctors, current.loadedAt);
+        }
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    private Snapshot current(boolean countHit) {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < ttlMillis) {
+            if (countHit) {
+                hits.incrementAndGet();
+            }
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || System.currentTimeMillis() - current.loadedAt >= ttlMillis) {
+                misses.incrementAndGet();
+                loads.incrementAndGet();
+                current = new Snapshot(doctorDAO.getAllDoctors(), System.currentTimeMillis());
+                // The DAO returns an empty list on failure; don't pin that for a whole TTL
+                snapshot = current.all.isEmpty() ? null : current;
+            } else if (countHit) {
+                hits.incrementAndGet();
+            }
+            return current;
+        }
+    }
+
+    private static String key(String specialization) {
+        return specialization.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        final long loadedAt;
+        final List<Doctor> all;
+        final List<Doctor> available;
+        final Map<Integer, Doctor> byId;
+        final Map<String, List<Doctor>> availableBySpecialization;
+
+        Snapshot(List<Doctor> doctors, long loadedAt) {
+            this.loadedAt = loadedAt;
+            Map<Integer, Doctor> ids = new HashMap<>();
+            Map<String, List<Doctor>> bySpecialization = new HashMap<>();
+            List<Doctor> availableDoctors = new ArrayList<>();
+            for (Doctor doctor : doctors) {
+                ids.put(doctor.getDoctorId(), doctor);
+                if (doctor.isAvailable()) {
+                    availableDoctors.add(doctor);
+                    if (doctor.getSpecialization() != null) {
+                        bySpecialization.computeIfAbsent(key(doctor.getSpecialization()), k -> new ArrayList<>()).add(doctor);
+                    }
+                }
+            }
+            bySpecialization.replaceAll((k, v) -> Collections.unmodifiableList(v));
+            this.all = Collections.unmodifiableList(new ArrayList<>(doctors));
+            this.available = Collections.unmodifiableList(availableDoctors);
+            this.byId = ids;
+            this.availableBySpecialization = bySpecialization;
+        }
+    }
+}
@@ -1,18 +1,56 @@
 package com.hospital.service;
 
 import com.hospital.dao.DoctorDAO;
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
 import com.hospital.model.Doctor;
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
 
 import java.util.List;
 
 public class DoctorService {
+    private static final OperationMetrics ADD = Metrics.operation("DoctorService.addDoctor");
+    private static final OperationMetrics GET_BY_ID = Metrics.operation("DoctorService.getDoctorById");
+    private static final OperationMetrics GET_ALL = Metrics.operation("DoctorService.getAllDoctors");
+    private static final OperationMetrics GET_PAGE = Metrics.operation("DoctorService.getDoctorsPage");
+    private static final OperationMetrics GET_AVAILABLE_BY_SPECIALIZATION =
+        Metrics.operation("DoctorService.getAvailableDoctorsBySpecialization");
+    private static final OperationMetrics GET_AVAILABLE = Metrics.operation("DoctorService.getAvailableDoctors");
+    private static final OperationMetrics UPDATE_AVAILABILITY = Metrics.operation("DoctorService.updateDoctorAvailability");
+
     private DoctorDAO doctorDAO;
+    private DoctorRosterCache rosterCache;
 
     public DoctorService() {
-        this.doctorDAO = new DoctorDAO();
+        this(Storage.getEngine());
+    }
+
+    /**
+     * Reads and writes doctors through the given engine. The roster cache is shared
+     * process-wide and loads from Storage.getEngine().
+     */
+    public DoctorService(StorageEngine storage) {
+        this.doctorDAO = storage.doctors();
+        this.rosterCache = DoctorRosterCache.getInstance();
     }
 
     public int addDoctor(Doctor doctor) {
+        return ADD.timeInt(() -> add(doctor), false);
+    }
+
+    private int add(Doctor doctor) {
+        validate(doctor);
+        
+        int doctorId = doctorDAO.addDoctor(doctor);
+        if (doctorId > 0) {
+            doctor.setDoctorId(doctorId);
+            rosterCache.onDoctorAdded(doctor);
+        }
+        return doctorId;
+    }
+
+    static void validate(Doctor doctor) {
         // Validate doctor data
         if (doctor.getName() == null || doctor.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Doctor name is required");
@@ -20,28 +58,43 @@ public class DoctorService {
         if (doctor.getSpecialization() == null || doctor.getSpecialization().trim().isEmpty()) {
             throw new IllegalArgumentException("Doctor specialization is required");
         }
-        
-        return doctorDAO.addDoctor(doctor);
+        if (doctor.getEmail() == null || doctor.getEmail().trim().isEmpty()) {
+            throw new IllegalArgumentException("Doctor email is required");
+        }
     }
 
+    // Reads are served from the shared roster cache; returned doctors are read-only
+
     public Doctor getDoctorById(int doctorId) {
-        return doctorDAO.getDoctorById(doctorId);
+        return GET_BY_ID.time(() -> rosterCache.getDoctorById(doctorId));
     }
 
     public List<Doctor> getAllDoctors() {
-        return doctorDAO.getAllDoctors();
+        return GET_ALL.time(rosterCache::getAllDoctors);
+    }
+
+    public List<Doctor> getDoctorsPage(int afterId, int limit) {
+        return GET_PAGE.time(() -> doctorDAO.getDoctorsPage(afterId, limit));
     }
 
     public List<Doctor> getAvailableDoctorsBySpecialization(String specialization) {
-        return doctorDAO.getAvailableDoctorsBySpecialization(specialization);
+        return GET_AVAILABLE_BY_SPECIALIZATION.time(() -> rosterCache.getAvailableDoctorsBySpecialization(specialization));
     }
 
     public List<Doctor> getAvailableDoctors() {
-        return doctorDAO.getAvailableDoctors();
+        return GET_AVAILABLE.time(rosterCache::getAvailableDoctors);
     }
 
     public boolean updateDoctorAvailability(int doctorId, boolean available) {
-        return doctorDAO.updateDoctorAvailability(doctorId, available);
+        return UPDATE_AVAILABILITY.time(() -> updateAvailability(doctorId, available));
+    }
+
+    private boolean updateAvailability(int doctorId, boolean available) {
+        boolean updated = doctorDAO.updateDoctorAvailability(doctorId, available);
+        if (updated) {
+            rosterCache.onAvailabilityChanged(doctorId, available);
+        }
+        return updated;
     }
 }
 
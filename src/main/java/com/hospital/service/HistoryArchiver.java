@@ -0,0 +1,135 @@
+package com.hospital.service;
+
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
+import com.hospital.dao.Transaction;
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves history out of the live appointment tables so they stay small enough for
+ * their indexes to stay in memory.
+ *
+ * Appointments dated more than archive.afterDays (default 365) days ago, and
+ * requests for such dates that are no longer PENDING, are moved to the archive
+ * tables in batches of archive.batchSize (default 1000) rows, one transaction per
+ * batch, so locks are held briefly and a failure loses at most one batch of work.
+ * Listings then only see live rows; patient history includes the archive when asked.
+ *
+ * {@link #start} runs the job at once and then at a fixed interval on a daemon
+ * thread; {@link #archive} runs it once.
+ */
+public class HistoryArchiver {
+    private static final OperationMetrics ARCHIVE_BATCH = Metrics.operation("HistoryArchiver.archiveBatch");
+
+    private static HistoryArchiver instance;
+
+    @FunctionalInterface
+    private interface ArchiveStep {
+        int archive(Transaction tx, Date cutoff, int limit) throws SQLException;
+    }
+
+    private final StorageEngine storage;
+    private final int afterDays;
+    private final int batchSize;
+    private ScheduledExecutorService scheduler;
+
+    HistoryArchiver(StorageEngine storage, int afterDays, int batchSize) {
+        if (afterDays < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Archive age and batch size must be positive");
+        }
+        this.storage = storage;
+        this.afterDays = afterDays;
+        this.batchSize = batchSize;
+    }
+
+    public static synchronized HistoryArchiver getInstance() {
+        if (instance == null) {
+            instance = new HistoryArchiver(Storage.getEngine(),
+                Integer.getInteger("archive.afterDays", 365),
+                Integer.getInteger("archive.batchSize", 1000));
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the process-wide archiver's schedule if it was ever started.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.stop();
+        }
+    }
+
+    public synchronized void start(long intervalMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "history-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::archive, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    /**
+     * Archives everything past the age limit. Returns the number of rows moved.
+     */
+    public int archive() {
+        LocalDate cutoffDay = LocalDate.now().minusDays(afterDays);
+        Date cutoff = Date.from(cutoffDay.atStartOfDay(ZoneId.systemDefault()).toInstant());
+        int appointments = archiveInBatches(storage.appointments()::archiveAppointmentsBefore, cutoff);
+        int requests = archiveInBatches(storage.requests()::archiveRequestsBefore, cutoff);
+        if (appointments + requests > 0) {
+            System.out.println("Archived " + appointments + " appointment(s) and " + requests
+                + " request(s) from before " + cutoffDay);
+            // The counters cover the live tables only
+            DashboardCounters.getInstance().load();
+        }
+        return appointments + requests;
+    }
+
+    private int archiveInBatches(ArchiveStep step, Date cutoff) {
+        int total = 0;
+        while (!Thread.currentThread().isInterrupted()) {
+            long start = System.nanoTime();
+            int moved;
+            try {
+                moved = storage.inTransaction(tx -> step.archive(tx, cutoff, batchSize));
+            } catch (SQLException | RuntimeException e) {
+                System.err.println("Archive batch failed: " + e.getMessage());
+                e.printStackTrace();
+                record(start, true, 0);
+                break;
+            }
+            record(start, false, moved);
+            total += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private static void record(long start, boolean error, int rows) {
+        if (Metrics.isEnabled()) {
+            ARCHIVE_BATCH.record(start, error, rows);
+        }
+    }
+}
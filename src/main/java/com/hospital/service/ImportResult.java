@@ -0,0 +1,75 @@
+package com.hospital.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk import: how many rows were inserted and why each other row was rejected.
+ */
+public class ImportResult {
+    private int inserted;
+    private final List<Reject> rejects = new ArrayList<>();
+    private long elapsedMillis;
+
+    void addInserted(int count) {
+        inserted += count;
+    }
+
+    void reject(long lineNumber, String reason) {
+        rejects.add(new Reject(lineNumber, reason));
+    }
+
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public int getInserted() {
+        return inserted;
+    }
+
+    public List<Reject> getRejects() {
+        return Collections.unmodifiableList(rejects);
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? inserted : inserted * 1000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResult{" +
+                "inserted=" + inserted +
+                ", rejected=" + rejects.size() +
+                ", elapsedMillis=" + elapsedMillis +
+                ", rowsPerSecond=" + String.format("%.0f", getRowsPerSecond()) +
+                '}';
+    }
+
+    public static class Reject {
+        private final long lineNumber;
+        private final String reason;
+
+        Reject(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "line " + lineNumber + ": " + reason;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.hospital.service;
+
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.util.BloomFilter;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide Bloom filter of registered patient emails, so lookups for an email
+ * that was never registered (failed logins, availability checks) skip the database.
+ *
+ * The filter is built from one streaming query on first use and rebuilt after the
+ * TTL, after {@link #invalidate}, or once registrations outgrow its sizing.
+ * Registrations made through PatientService are added as they commit and bulk
+ * imports invalidate the filter, so writes made in this process are never missed.
+ * A "maybe" answer still goes to the database, so false positives cost one query.
+ *
+ * A patient registered by another process is not in the filter until the next
+ * rebuild: for up to patient.emailFilter.ttlMs (default 60000) that patient's
+ * email is reported as not registered, so a login fails and the email looks
+ * available (registering it then fails on the unique key). Lower the TTL where
+ * several processes register patients and that window matters.
+ */
+public class PatientEmailFilter {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MIN_CAPACITY = 1 << 16;
+
+    private static final PatientEmailFilter INSTANCE =
+        new PatientEmailFilter(Storage.getEngine().patients(), Long.getLong("patient.emailFilter.ttlMs", 60000L));
+
+    private final PatientDAO patientDAO;
+    private final long ttlMillis;
+    private volatile Snapshot snapshot;
+    // Emails seen by the last load plus registrations since; sizes the next filter
+    private long registeredCount;
+
+    private final AtomicLong negatives = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+
+    PatientEmailFilter(PatientDAO patientDAO, long ttlMillis) {
+        this.patientDAO = patientDAO;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static PatientEmailFilter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * False only if no patient is registered with the email; true means "look it up".
+     */
+    public boolean mightBeRegistered(String email) {
+        if (email == null) {
+            return false;
+        }
+        Snapshot current = current();
+        if (current == null || current.filter.mightContain(key(email))) {
+            return true;
+        }
+        negatives.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Records an email whose registration has committed.
+     */
+    public void onRegistered(String email) {
+        synchronized (this) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            current.filter.add(key(email));
+            registeredCount++;
+            if (current.filter.isSaturated()) {
+                // Resize on the next lookup before false positives climb
+                snapshot = null;
+            }
+        }
+    }
+
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Lookups answered "not registered" without a query.
+     */
+    public long getNegativeCount() {
+        return negatives.get();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < ttlMillis) {
+            return current;
+        }
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || System.currentTimeMillis() - current.loadedAt >= ttlMillis) {
+                current = load();
+                if (current != null && current.filter.isSaturated()) {
+                    // More rows than the last count suggested; size again from the real count
+                    current = load();
+                }
+                // On failure answer "maybe" for everything rather than pin a partial filter
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    // Caller holds the monitor
+    private Snapshot load() {
+        loads.incrementAndGet();
+        BloomFilter filter = new BloomFilter(Math.max(MIN_CAPACITY, registeredCount * 2), FALSE_POSITIVE_RATE);
+        long loadedAt = System.currentTimeMillis();
+        int rows = patientDAO.streamAllEmails(email -> filter.add(key(email)));
+        if (rows < 0) {
+            return null;
+        }
+        registeredCount = rows;
+        return new Snapshot(filter, loadedAt);
+    }
+
+    private static String key(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        final BloomFilter filter;
+        final long loadedAt;
+
+        Snapshot(BloomFilter filter, long loadedAt) {
+            this.filter = filter;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
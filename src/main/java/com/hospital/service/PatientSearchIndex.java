@@ -0,0 +1,620 @@
+package com.hospital.service;
+
+import com.hospital.dao.DataChanges;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.model.Patient;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory index for front-desk lookups by partial name, phone or email, so a
+ * search never loads the patients table.
+ *
+ * Names are split into lowercase words with accents removed, kept in a sorted map
+ * so each query word finds every name word it begins with in one range scan.
+ * Phone digits and emails are indexed by their three-character fragments: a query
+ * fragment takes the shortest posting list among its own fragments and checks
+ * those patients' stored value. Matches are ranked (exact, then prefix, then
+ * anywhere) and only the requested window is kept, so a page costs one pass over
+ * the candidates and no sort of all of them.
+ *
+ * The index is built with one streaming query on first use and follows writes made
+ * in this process through {@link DataChanges} as they commit (registrations, bulk
+ * imports and updates). It is rebuilt in the background every patient.search.ttlMs
+ * (default 3600000) to pick up patients added by other processes.
+ */
+public class PatientSearchIndex {
+    private static final long TTL_MILLIS = Long.getLong("patient.search.ttlMs", 3600000L);
+    // Deepest result (offset + limit) a search may ask for
+    private static final int MAX_WINDOW = Integer.getInteger("patient.search.maxResults", 1000);
+    private static final int GRAM = 3;
+    private static final int FIRST_WORD = 2;
+    private static final int ONLY_WORD = 1;
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern PHONE_QUERY = Pattern.compile("[\\d\\s()+.\\-]+");
+
+    private static final int EXACT = 100;
+    private static final int NAME_PREFIX = 80;
+    private static final int PHONE_SUFFIX = 70;
+    private static final int STARTS_WITH = 60;
+    private static final int WHOLE_WORDS = 50;
+    private static final int WORD_PREFIXES = 40;
+    private static final int ANYWHERE = 30;
+
+    private static final class Holder {
+        static final PatientSearchIndex INSTANCE = new PatientSearchIndex(Storage.getEngine().patients());
+    }
+
+    private final PatientDAO patientDAO;
+    private final Object lock = new Object();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+    private volatile Index index;
+    // Changes seen while a rebuild streams the table, replayed onto it; guarded by lock
+    private List<Consumer<Index>> missed;
+
+    PatientSearchIndex(PatientDAO patientDAO) {
+        this.patientDAO = patientDAO;
+        DataChanges.subscribe(new DataChanges.Listener() {
+            @Override
+            public void onPatientAdded(int patientId, Patient patient) {
+                String name = patient.getName();
+                String phone = patient.getPhone();
+                String email = patient.getEmail();
+                apply(target -> target.put(patientId, name, phone, email));
+            }
+
+            @Override
+            public void onPatientsAdded(List<Patient> patients) {
+                List<Patient> added = new ArrayList<>(patients);
+                apply(target -> added.forEach(target::put));
+            }
+
+            @Override
+            public void onPatientUpdated(Patient patient) {
+                String name = patient.getName();
+                String phone = patient.getPhone();
+                String email = patient.getEmail();
+                // Updates are keyed by email, which never changes
+                apply(target -> {
+                    int patientId = target.idOfEmail(email);
+                    if (patientId > 0) {
+                        target.put(patientId, name, phone, email);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * The index starts following writes the first time this is called.
+     */
+    public static PatientSearchIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Rebuilds the index from the primary database, so no recent registration is
+     * missed behind a lagging replica. Called on first use and, in the
+     * background, when the index is older than the TTL.
+     */
+    public void load() {
+        synchronized (lock) {
+            if (missed != null) {
+                // Another rebuild is already running
+                return;
+            }
+            missed = new ArrayList<>();
+        }
+        Index fresh = new Index(System.currentTimeMillis());
+        int rows = -1;
+        try {
+            rows = patientDAO.streamAllPatientsFromPrimary(fresh::put);
+        } finally {
+            synchronized (lock) {
+                List<Consumer<Index>> changes = missed;
+                missed = null;
+                if (rows >= 0) {
+                    // Rows that were also streamed are simply indexed again
+                    changes.forEach(change -> change.accept(fresh));
+                    index = fresh;
+                }
+            }
+        }
+    }
+
+    /**
+     * Ranked matches for a name, phone or email fragment. Returns the total number of
+     * matches and the ids of those in [offset, offset + limit), best first.
+     */
+    public PatientSearchResult search(String query, int offset, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.length() < 2) {
+            throw new IllegalArgumentException("Search needs at least 2 characters");
+        }
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("Offset must not be negative and limit must be positive");
+        }
+        if (offset + limit > MAX_WINDOW) {
+            throw new IllegalArgumentException("Only the first " + MAX_WINDOW + " matches can be paged through");
+        }
+        Index current = current();
+        if (current == null) {
+            return new PatientSearchResult(0, new ArrayList<>());
+        }
+        return current.search(trimmed, offset, limit);
+    }
+
+    /**
+     * Patients indexed, or -1 if the index could not be built.
+     */
+    public int size() {
+        Index current = current();
+        return current == null ? -1 : current.size();
+    }
+
+    private Index current() {
+        Index current = index;
+        if (current == null) {
+            load();
+            return index;
+        }
+        if (System.currentTimeMillis() - current.loadedAt > TTL_MILLIS && reloading.compareAndSet(false, true)) {
+            // Keep answering from the current index while the next one is built
+            Thread reload = new Thread(() -> {
+                try {
+                    load();
+                } finally {
+                    reloading.set(false);
+                }
+            }, "patient-search-reload");
+            reload.setDaemon(true);
+            reload.start();
+        }
+        return current;
+    }
+
+    private void apply(Consumer<Index> change) {
+        synchronized (lock) {
+            Index current = index;
+            if (current != null) {
+                change.accept(current);
+            }
+            if (missed != null) {
+                missed.add(change);
+            }
+        }
+    }
+
+    static String[] words(String name) {
+        if (name == null) {
+            return new String[0];
+        }
+        String plain = name.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < plain.length(); i++) {
+            if (plain.charAt(i) > 0x7f) {
+                plain = COMBINING_MARKS.matcher(Normalizer.normalize(plain, Normalizer.Form.NFD)).replaceAll("");
+                break;
+            }
+        }
+        List<String> words = new ArrayList<>(3);
+        int start = -1;
+        for (int i = 0; i <= plain.length(); i++) {
+            boolean letter = i < plain.length() && Character.isLetterOrDigit(plain.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                words.add(plain.substring(start, i));
+                start = -1;
+            }
+        }
+        return words.toArray(new String[0]);
+    }
+
+    static String digits(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    static String emailKey(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Entry {
+        final String[] words;
+        final String phone;
+        final String email;
+
+        Entry(String[] words, String phone, String email) {
+            this.words = words;
+            this.phone = phone;
+            this.email = email;
+        }
+    }
+
+    private static final class Index {
+        final long loadedAt;
+        private final ReadWriteLock rw = new ReentrantReadWriteLock();
+        // Indexed by patient id, which the database hands out densely
+        private Entry[] entries = new Entry[1024];
+        private int size;
+        // Name postings are id << 2 | flags, so one-word queries are ranked without reading entries
+        private final NavigableMap<String, IdList> names = new TreeMap<>();
+        private final Map<String, IdList> phoneGrams = new HashMap<>();
+        private final Map<String, IdList> emailGrams = new HashMap<>();
+
+        Index(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        int size() {
+            rw.readLock().lock();
+            try {
+                return size;
+            } finally {
+                rw.readLock().unlock();
+            }
+        }
+
+        void put(Patient patient) {
+            put(patient.getPatientId(), patient.getName(), patient.getPhone(), patient.getEmail());
+        }
+
+        // Adds or replaces the patient's entry
+        void put(int patientId, String name, String phone, String email) {
+            if (patientId <= 0) {
+                return;
+            }
+            Entry entry = new Entry(words(name), digits(phone), emailKey(email));
+            rw.writeLock().lock();
+            try {
+                if (patientId >= entries.length) {
+                    entries = Arrays.copyOf(entries, Math.max(patientId + 1, entries.length + (entries.length >> 1)));
+                }
+                Entry before = entries[patientId];
+                entries[patientId] = entry;
+                if (before != null) {
+                    unindex(patientId, before);
+                } else {
+                    size++;
+                }
+                for (Map.Entry<String, Integer> word : nameFlags(entry.words).entrySet()) {
+                    names.computeIfAbsent(word.getKey(), k -> new IdList()).add(patientId << 2 | word.getValue());
+                }
+                forEachGram(entry.phone, gram -> phoneGrams.computeIfAbsent(gram, k -> new IdList()).add(patientId));
+                forEachGram(entry.email, gram -> emailGrams.computeIfAbsent(gram, k -> new IdList()).add(patientId));
+            } finally {
+                rw.writeLock().unlock();
+            }
+        }
+
+        private void unindex(int patientId, Entry entry) {
+            for (Map.Entry<String, Integer> word : nameFlags(entry.words).entrySet()) {
+                remove(names, word.getKey(), patientId << 2 | word.getValue());
+            }
+            forEachGram(entry.phone, gram -> remove(phoneGrams, gram, patientId));
+            forEachGram(entry.email, gram -> remove(emailGrams, gram, patientId));
+        }
+
+        // Each distinct word of the name with its posting flags
+        private static Map<String, Integer> nameFlags(String[] words) {
+            Map<String, Integer> flags = new LinkedHashMap<>();
+            for (int i = 0; i < words.length; i++) {
+                int flag = i == 0 ? (words.length == 1 ? FIRST_WORD | ONLY_WORD : FIRST_WORD) : 0;
+                flags.merge(words[i], flag, (a, b) -> a | b);
+            }
+            return flags;
+        }
+
+        private static void remove(Map<String, IdList> postings, String key, int patientId) {
+            IdList ids = postings.get(key);
+            if (ids != null && ids.remove(patientId) && ids.size() == 0) {
+                postings.remove(key);
+            }
+        }
+
+        int idOfEmail(String email) {
+            String key = emailKey(email);
+            rw.readLock().lock();
+            try {
+                int[] found = {-1};
+                candidates(emailGrams, key, patientId -> {
+                    if (entries[patientId].email.equals(key)) {
+                        found[0] = patientId;
+                    }
+                });
+                return found[0];
+            } finally {
+                rw.readLock().unlock();
+            }
+        }
+
+        PatientSearchResult search(String query, int offset, int limit) {
+            Ranking ranking = new Ranking(offset + limit);
+            rw.readLock().lock();
+            try {
+                String phone = digits(query);
+                if (query.indexOf('@') >= 0) {
+                    matchEmail(emailKey(query), ranking, 0);
+                } else if (phone.length() >= GRAM && PHONE_QUERY.matcher(query).matches()) {
+                    matchPhone(phone, ranking);
+                } else {
+                    String[] queryWords = words(query);
+                    BitSet seen = new BitSet();
+                    matchName(queryWords, ranking, seen);
+                    if (query.indexOf(' ') < 0) {
+                        // "smith" also finds smith@example.com, ranked below name matches
+                        matchEmail(emailKey(query), ranking, ANYWHERE, seen);
+                    }
+                }
+            } finally {
+                rw.readLock().unlock();
+            }
+            return ranking.page(offset);
+        }
+
+        private void matchName(String[] queryWords, Ranking ranking, BitSet seen) {
+            if (queryWords.length == 0) {
+                return;
+            }
+            if (queryWords.length == 1) {
+                matchWord(queryWords[0], ranking, seen);
+                return;
+            }
+            // The longest word has the fewest name words beginning with it; check the rest per patient
+            String driver = queryWords[0];
+            for (String word : queryWords) {
+                if (word.length() > driver.length()) {
+                    driver = word;
+                }
+            }
+            for (IdList postings : names.subMap(driver, true, driver + Character.MAX_VALUE, false).values()) {
+                postings.forEach(posting -> {
+                    int patientId = posting >>> 2;
+                    if (seen.get(patientId)) {
+                        return;
+                    }
+                    seen.set(patientId);
+                    int score = nameScore(entries[patientId].words, queryWords);
+                    if (score > 0) {
+                        ranking.offer(patientId, score);
+                    }
+                });
+            }
+        }
+
+        // Ranked from the postings alone. A patient can have several words in the range: first
+        // words go in the first pass and the word equal to the query sorts first in the second,
+        // so the first posting seen for a patient is its best.
+        private void matchWord(String queryWord, Ranking ranking, BitSet seen) {
+            NavigableMap<String, IdList> range = names.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false);
+            for (boolean firstWords : new boolean[]{true, false}) {
+                for (Map.Entry<String, IdList> word : range.entrySet()) {
+                    boolean whole = word.getKey().length() == queryWord.length();
+                    word.getValue().forEach(posting -> {
+                        if (((posting & FIRST_WORD) != 0) != firstWords || seen.get(posting >>> 2)) {
+                            return;
+                        }
+                        seen.set(posting >>> 2);
+                        int score;
+                        if (firstWords) {
+                            score = whole && (posting & ONLY_WORD) != 0 ? EXACT : NAME_PREFIX;
+                        } else {
+                            score = whole ? WHOLE_WORDS : WORD_PREFIXES;
+                        }
+                        ranking.offer(posting >>> 2, score);
+                    });
+                }
+            }
+        }
+
+        private static int nameScore(String[] words, String[] queryWords) {
+            boolean allWhole = true;
+            for (String queryWord : queryWords) {
+                boolean prefix = false;
+                boolean whole = false;
+                for (String word : words) {
+                    if (word.startsWith(queryWord)) {
+                        prefix = true;
+                        whole |= word.length() == queryWord.length();
+                    }
+                }
+                if (!prefix) {
+                    return 0;
+                }
+                allWhole &= whole;
+            }
+            // The name begins with the query: earlier words equal, the last one a prefix
+            int last = queryWords.length - 1;
+            boolean begins = words.length > last && words[last].startsWith(queryWords[last]);
+            for (int i = 0; begins && i < last; i++) {
+                begins = words[i].equals(queryWords[i]);
+            }
+            if (begins) {
+                return words.length == queryWords.length && words[last].length() == queryWords[last].length()
+                    ? EXACT : NAME_PREFIX;
+            }
+            return allWhole ? WHOLE_WORDS : WORD_PREFIXES;
+        }
+
+        private void matchPhone(String fragment, Ranking ranking) {
+            candidates(phoneGrams, fragment, patientId -> {
+                String phone = entries[patientId].phone;
+                if (phone.equals(fragment)) {
+                    ranking.offer(patientId, EXACT);
+                } else if (phone.endsWith(fragment)) {
+                    // Callers usually read out the last digits
+                    ranking.offer(patientId, PHONE_SUFFIX);
+                } else if (phone.startsWith(fragment)) {
+                    ranking.offer(patientId, STARTS_WITH);
+                } else if (phone.contains(fragment)) {
+                    ranking.offer(patientId, ANYWHERE);
+                }
+            });
+        }
+
+        private void matchEmail(String fragment, Ranking ranking, int maxScore) {
+            matchEmail(fragment, ranking, maxScore, null);
+        }
+
+        // maxScore caps the rank given to email matches; 0 for no cap
+        private void matchEmail(String fragment, Ranking ranking, int maxScore, BitSet seen) {
+            candidates(emailGrams, fragment, patientId -> {
+                if (seen != null && seen.get(patientId)) {
+                    return;
+                }
+                String email = entries[patientId].email;
+                int score;
+                if (email.equals(fragment)) {
+                    score = EXACT;
+                } else if (email.startsWith(fragment)) {
+                    score = STARTS_WITH;
+                } else if (email.contains(fragment)) {
+                    score = ANYWHERE;
+                } else {
+                    return;
+                }
+                ranking.offer(patientId, maxScore > 0 ? Math.min(score, maxScore) : score);
+            });
+        }
+
+        // Every patient in the shortest posting list among the fragment's own fragments
+        private static void candidates(Map<String, IdList> grams, String fragment, IntConsumer consumer) {
+            if (fragment.length() < GRAM) {
+                return;
+            }
+            IdList shortest = null;
+            for (int i = 0; i + GRAM <= fragment.length(); i++) {
+                IdList ids = grams.get(fragment.substring(i, i + GRAM));
+                if (ids == null) {
+                    return;
+                }
+                if (shortest == null || ids.size() < shortest.size()) {
+                    shortest = ids;
+                }
+            }
+            shortest.forEach(consumer);
+        }
+
+        private static void forEachGram(String value, Consumer<String> consumer) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                consumer.accept(value.substring(i, i + GRAM));
+            }
+        }
+    }
+
+    /**
+     * Keeps the best {@code window} matches seen, best score first and lowest id
+     * among equal scores, and counts all of them.
+     */
+    private static final class Ranking {
+        private final int window;
+        // Worst kept match on top; score in the high half, inverted id in the low half
+        private final PriorityQueue<Long> best;
+        private int total;
+
+        Ranking(int window) {
+            this.window = window;
+            this.best = new PriorityQueue<>(Math.min(window, 64) + 1);
+        }
+
+        void offer(int patientId, int score) {
+            total++;
+            long rank = ((long) score << 32) | (Integer.MAX_VALUE - patientId);
+            if (best.size() < window) {
+                best.add(rank);
+            } else if (rank > best.peek()) {
+                best.poll();
+                best.add(rank);
+            }
+        }
+
+        PatientSearchResult page(int offset) {
+            long[] ranks = new long[best.size()];
+            for (int i = ranks.length - 1; i >= 0; i--) {
+                ranks[i] = best.poll();
+            }
+            List<Integer> ids = new ArrayList<>();
+            for (int i = offset; i < ranks.length; i++) {
+                ids.add(Integer.MAX_VALUE - (int) ranks[i]);
+            }
+            return new PatientSearchResult(total, ids);
+        }
+    }
+
+    /**
+     * Sorted set of patient ids backed by an int array; ids mostly arrive in
+     * increasing order, so adds are usually appends.
+     */
+    private static final class IdList {
+        private int[] ids = new int[2];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        void add(int id) {
+            if (size > 0 && ids[size - 1] >= id) {
+                int at = Arrays.binarySearch(ids, 0, size, id);
+                if (at >= 0) {
+                    return;
+                }
+                insert(-at - 1, id);
+                return;
+            }
+            insert(size, id);
+        }
+
+        private void insert(int at, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        boolean remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at < 0) {
+                return false;
+            }
+            System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+            size--;
+            return true;
+        }
+
+        void forEach(IntConsumer consumer) {
+            for (int i = 0; i < size; i++) {
+                consumer.accept(ids[i]);
+            }
+        }
+    }
+}
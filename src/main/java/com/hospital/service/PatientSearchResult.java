@@ -0,0 +1,38 @@
+package com.hospital.service;
+
+import com.hospital.model.Patient;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a patient search: how many patients matched in all, and the page's
+ * patients, best match first.
+ */
+public class PatientSearchResult {
+    private final int total;
+    private final List<Integer> patientIds;
+    private List<Patient> patients = new ArrayList<>();
+
+    PatientSearchResult(int total, List<Integer> patientIds) {
+        this.total = total;
+        this.patientIds = patientIds;
+    }
+
+    void setPatients(List<Patient> patients) {
+        this.patients = patients;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public List<Integer> getPatientIds() {
+        return Collections.unmodifiableList(patientIds);
+    }
+
+    public List<Patient> getPatients() {
+        return Collections.unmodifiableList(patients);
+    }
+}
@@ -1,18 +1,57 @@
 package com.hospital.service;
 
 import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
 import com.hospital.model.Patient;
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public class PatientService {
+    private static final OperationMetrics REGISTER = Metrics.operation("PatientService.registerPatient");
+    private static final OperationMetrics GET_BY_ID = Metrics.operation("PatientService.getPatientById");
+    private static final OperationMetrics GET_BY_EMAIL = Metrics.operation("PatientService.getPatientByEmail");
+    private static final OperationMetrics EMAIL_AVAILABLE = Metrics.operation("PatientService.isEmailAvailable");
+    private static final OperationMetrics GET_ALL = Metrics.operation("PatientService.getAllPatients");
+    private static final OperationMetrics GET_PAGE = Metrics.operation("PatientService.getPatientsPage");
+    private static final OperationMetrics STREAM_ALL = Metrics.operation("PatientService.streamAllPatients");
+    private static final OperationMetrics SEARCH = Metrics.operation("PatientService.searchPatients");
+
     private PatientDAO patientDAO;
 
     public PatientService() {
-        this.patientDAO = new PatientDAO();
+        this(Storage.getEngine());
+    }
+
+    public PatientService(StorageEngine storage) {
+        this.patientDAO = storage.patients();
     }
 
     public int registerPatient(Patient patient) {
+        return REGISTER.timeInt(() -> register(patient), false);
+    }
+
+    private int register(Patient patient) {
+        validate(patient);
+        
+        // One INSERT; the unique key on email is what rejects an existing patient
+        int patientId = patientDAO.addPatient(patient);
+        if (patientId == PatientDAO.DUPLICATE_EMAIL) {
+            throw new IllegalArgumentException("Patient with this email already exists");
+        }
+        if (patientId > 0) {
+            PatientEmailFilter.getInstance().onRegistered(patient.getEmail());
+        }
+        return patientId;
+    }
+
+    static void validate(Patient patient) {
         // Validate patient data
         if (patient.getName() == null || patient.getName().trim().isEmpty()) {
             throw new IllegalArgumentException("Patient name is required");
@@ -23,26 +62,60 @@ public class PatientService {
         if (patient.getPhone() == null || patient.getPhone().trim().isEmpty()) {
             throw new IllegalArgumentException("Patient phone is required");
         }
-        
-        // Check if patient already exists
-        Patient existingPatient = patientDAO.getPatientByEmail(patient.getEmail());
-        if (existingPatient != null) {
-            throw new IllegalArgumentException("Patient with this email already exists");
-        }
-        
-        return patientDAO.addPatient(patient);
     }
 
     public Patient getPatientById(int patientId) {
-        return patientDAO.getPatientById(patientId);
+        return GET_BY_ID.time(() -> patientDAO.getPatientById(patientId));
     }
 
+    /**
+     * Returns null without a query when the email filter knows the email is not registered;
+     * a patient registered by another process may be missed until the filter's next
+     * rebuild (see PatientEmailFilter).
+     */
     public Patient getPatientByEmail(String email) {
-        return patientDAO.getPatientByEmail(email);
+        return GET_BY_EMAIL.time(() -> PatientEmailFilter.getInstance().mightBeRegistered(email)
+            ? patientDAO.getPatientByEmail(email)
+            : null);
+    }
+
+    public boolean isEmailAvailable(String email) {
+        return EMAIL_AVAILABLE.time(() -> !PatientEmailFilter.getInstance().mightBeRegistered(email)
+            || patientDAO.getPatientByEmail(email) == null);
     }
 
     public List<Patient> getAllPatients() {
-        return patientDAO.getAllPatients();
+        return GET_ALL.time(patientDAO::getAllPatients);
     }
-}
 
+    public List<Patient> getPatientsPage(int afterId, int limit) {
+        return GET_PAGE.time(() -> patientDAO.getPatientsPage(afterId, limit));
+    }
+
+    public int streamAllPatients(Consumer<Patient> consumer) {
+        return STREAM_ALL.timeInt(() -> patientDAO.streamAllPatients(consumer), true);
+    }
+
+    /**
+     * Patients matching a partial name, phone number or email, best match first, from
+     * the search index; only the page's patients are read from the database.
+     */
+    public PatientSearchResult searchPatients(String query, int offset, int limit) {
+        return SEARCH.time(() -> {
+            PatientSearchResult result = PatientSearchIndex.getInstance().search(query, offset, limit);
+            Map<Integer, Patient> byId = new HashMap<>();
+            for (Patient patient : patientDAO.getPatientsByIds(result.getPatientIds())) {
+                byId.put(patient.getPatientId(), patient);
+            }
+            List<Patient> ranked = new ArrayList<>(byId.size());
+            for (Integer patientId : result.getPatientIds()) {
+                Patient patient = byId.get(patientId);
+                if (patient != null) {
+                    ranked.add(patient);
+                }
+            }
+            result.setPatients(ranked);
+            return result;
+        });
+    }
+}
@@ -0,0 +1,275 @@
+package com.hospital.service;
+
+import com.hospital.dao.DataChanges;
+import com.hospital.dao.DataVersions;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Patient;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Turns writes to appointment requests and appointments into compact deltas for
+ * the admin pending queue, so desks can apply changes instead of re-fetching the
+ * whole list:
+ *
+ *   added  - a new PENDING request (the request, with the patient's name)
+ *   status - requests that changed status: {"requestIds": [...], "status": ...}
+ *   booked - an appointment was created (the appointment, without names)
+ *   reset  - events were lost; the list must be re-fetched
+ *
+ * Changes are picked up from {@link DataChanges} on the writing thread, copied and
+ * queued; a daemon thread ("pending-feed") builds the events, keeps the last
+ * feed.replaySize (default 256) for clients that reconnect, and hands them to the
+ * subscribers in order. If more than feed.queueCapacity (default 10000) changes are
+ * waiting, the backlog is dropped and a reset is sent instead.
+ *
+ * Event ids are "&lt;process start, base 36&gt;-&lt;sequence&gt;", so an id from before
+ * a restart is never mistaken for a recent one.
+ */
+public class PendingQueueFeed {
+    private static final int REPLAY_SIZE = Integer.getInteger("feed.replaySize", 256);
+    private static final int QUEUE_CAPACITY = Integer.getInteger("feed.queueCapacity", 10000);
+    private static final String ID_PREFIX = Long.toString(DataVersions.getStartedAt(), 36) + "-";
+
+    public static final class Event {
+        private final String id;
+        private final String type;
+        private final Object data;
+
+        Event(String id, String type, Object data) {
+            this.id = id;
+            this.type = type;
+            this.data = data;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * An AppointmentRequest, an Appointment, a Map or null, depending on the type.
+         */
+        public Object getData() {
+            return data;
+        }
+    }
+
+    private static final class Holder {
+        static final PendingQueueFeed INSTANCE = new PendingQueueFeed(Storage.getEngine().patients());
+    }
+
+    private final PatientDAO patientDAO;
+    private final BlockingQueue<Object> changes = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicBoolean overflowed = new AtomicBoolean();
+    private final List<Consumer<Event>> subscribers = new CopyOnWriteArrayList<>();
+    // Guarded by this
+    private final Deque<Event> recent = new ArrayDeque<>();
+    private long sequence;
+
+    PendingQueueFeed(PatientDAO patientDAO) {
+        this.patientDAO = patientDAO;
+        Thread writer = new Thread(this::run, "pending-feed");
+        writer.setDaemon(true);
+        writer.start();
+        DataChanges.subscribe(new DataChanges.Listener() {
+            // Writing thread: copy what is needed now, the caller may reuse its objects
+            @Override
+            public void onRequestAdded(int requestId, AppointmentRequest request) {
+                queue(copyRequests(List.of(request), requestId));
+            }
+
+            @Override
+            public void onRequestsAdded(List<AppointmentRequest> requests) {
+                queue(copyRequests(requests, 0));
+            }
+
+            @Override
+            public void onRequestStatusChanged(Collection<Integer> requestIds, String status) {
+                queue(statusChange(requestIds, status));
+            }
+
+            @Override
+            public void onAppointmentAdded(int appointmentId, Appointment appointment) {
+                queue(copyAppointments(List.of(appointment), appointmentId));
+            }
+
+            @Override
+            public void onAppointmentsAdded(List<Appointment> appointments) {
+                queue(copyAppointments(appointments, 0));
+            }
+        });
+    }
+
+    /**
+     * The feed starts listening for writes the first time this is called.
+     */
+    public static PendingQueueFeed getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Delivers every event after lastEventId (null for none) and then each new
+     * event as it happens. If the events after lastEventId are no longer held, a
+     * reset is delivered first. The missed events are delivered on the calling
+     * thread and later ones on the feed thread, always under the feed's lock so
+     * none overtakes another: the subscriber must hand events off, never block.
+     */
+    public synchronized void subscribe(String lastEventId, Consumer<Event> subscriber) {
+        if (lastEventId != null) {
+            List<Event> missed = since(lastEventId);
+            if (missed == null) {
+                subscriber.accept(new Event(lastId(), "reset", null));
+            } else {
+                missed.forEach(subscriber);
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Consumer<Event> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    private void queue(Object change) {
+        if (!changes.offer(change)) {
+            overflowed.set(true);
+            changes.clear();
+        }
+    }
+
+    // Single-row inserts return the new id rather than set it; batches set it on each row
+    private static ArrayList<AppointmentRequest> copyRequests(Collection<AppointmentRequest> requests, int requestId) {
+        ArrayList<AppointmentRequest> copies = new ArrayList<>(requests.size());
+        for (AppointmentRequest r : requests) {
+            AppointmentRequest copy = new AppointmentRequest(requestId > 0 ? requestId : r.getRequestId(),
+                r.getPatientId(), r.getSpecialization(), r.getRequestedDate(), r.getStatus() != null ? r.getStatus() : "PENDING");
+            copy.setDescription(r.getDescription());
+            copy.setPatientName(r.getPatientName());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private static Map<String, Object> statusChange(Collection<Integer> requestIds, String status) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("requestIds", new ArrayList<>(requestIds));
+        data.put("status", status);
+        return data;
+    }
+
+    private static Appointment[] copyAppointments(Collection<Appointment> appointments, int appointmentId) {
+        Appointment[] copies = new Appointment[appointments.size()];
+        int i = 0;
+        for (Appointment a : appointments) {
+            copies[i++] = new Appointment(appointmentId > 0 ? appointmentId : a.getAppointmentId(), a.getPatientId(), a.getDoctorId(),
+                a.getAppointmentDate(), a.getStatus());
+        }
+        return copies;
+    }
+
+    private void run() {
+        while (true) {
+            Object change;
+            try {
+                change = changes.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (overflowed.getAndSet(false)) {
+                    changes.clear();
+                    emit("reset", null);
+                    continue;
+                }
+                publish(change);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void publish(Object change) {
+        if (change instanceof Map) {
+            emit("status", change);
+        } else if (change instanceof Appointment[]) {
+            for (Appointment appointment : (Appointment[]) change) {
+                emit("booked", appointment);
+            }
+        } else {
+            // Requests added by id come without the name the pending list shows
+            Map<Integer, String> names = new HashMap<>();
+            for (AppointmentRequest request : (List<AppointmentRequest>) change) {
+                if (request.getPatientName() == null) {
+                    request.setPatientName(names.computeIfAbsent(request.getPatientId(), id -> {
+                        Patient patient = patientDAO.getPatientById(id);
+                        return patient != null ? patient.getName() : null;
+                    }));
+                }
+                emit("added", request);
+            }
+        }
+    }
+
+    private synchronized void emit(String type, Object data) {
+        Event event = new Event(ID_PREFIX + (++sequence), type, data);
+        recent.addLast(event);
+        if (recent.size() > REPLAY_SIZE) {
+            recent.removeFirst();
+        }
+        for (Consumer<Event> subscriber : subscribers) {
+            try {
+                subscriber.accept(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Events after the given id, or null if some of them are no longer held
+    private List<Event> since(String lastEventId) {
+        if (!lastEventId.startsWith(ID_PREFIX)) {
+            return null;
+        }
+        long last;
+        try {
+            last = Long.parseLong(lastEventId.substring(ID_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        long oldest = sequence - recent.size() + 1;
+        if (last > sequence || last < oldest - 1) {
+            return null;
+        }
+        List<Event> missed = new ArrayList<>();
+        for (Event event : recent) {
+            if (Long.parseLong(event.getId().substring(ID_PREFIX.length())) > last) {
+                missed.add(event);
+            }
+        }
+        return missed;
+    }
+
+    private String lastId() {
+        return ID_PREFIX + sequence;
+    }
+}
@@ -0,0 +1,253 @@
+package com.hospital.service;
+
+import com.hospital.dao.AppointmentRequestDAO;
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.Storage;
+import com.hospital.dao.StorageEngine;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.util.Metrics;
+import com.hospital.util.OperationMetrics;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind intake for appointment requests.
+ *
+ * Callers validate in memory and {@link #submit} the request onto a bounded queue;
+ * a single writer thread takes whatever has accumulated (up to intake.batchSize)
+ * and commits it as one transaction: one patient-existence lookup and one batched
+ * insert. Each caller's future completes with the generated request id once its
+ * batch has committed, or fails with IllegalArgumentException for an unknown
+ * patient. Under load batches grow, so the database sees a few large commits
+ * instead of one per request.
+ *
+ * When the queue stays full for intake.offerTimeoutMs, submit throws
+ * RejectedExecutionException. {@link #shutdown} stops accepting and commits
+ * everything already queued before returning, so no acknowledged request is lost.
+ */
+public class RequestIntake {
+    private static final OperationMetrics COMMIT_BATCH = Metrics.operation("RequestIntake.commitBatch");
+
+    private static RequestIntake instance;
+
+    private final StorageEngine storage;
+    private final PatientDAO patientDAO;
+    private final AppointmentRequestDAO requestDAO;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long offerTimeoutMillis;
+    private final Thread writer;
+    // Held shared while enqueueing, exclusively to stop accepting
+    private final ReadWriteLock acceptLock = new ReentrantReadWriteLock();
+    private volatile boolean accepting = true;
+
+    RequestIntake(StorageEngine storage, int queueCapacity, int batchSize, long lingerMillis, long offerTimeoutMillis) {
+        if (queueCapacity < 1 || batchSize < 1) {
+            throw new IllegalArgumentException("Queue capacity and batch size must be positive");
+        }
+        this.storage = storage;
+        this.patientDAO = storage.patients();
+        this.requestDAO = storage.requests();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.writer = new Thread(this::run, "request-intake");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Returns the process-wide intake, starting its writer thread on first use.
+     */
+    public static synchronized RequestIntake getInstance() {
+        if (instance == null) {
+            instance = new RequestIntake(Storage.getEngine(),
+                Integer.getInteger("intake.queueCapacity", 10000),
+                Integer.getInteger("intake.batchSize", 200),
+                Long.getLong("intake.lingerMs", 0L),
+                Long.getLong("intake.offerTimeoutMs", 100L));
+            instance.writer.start();
+        }
+        return instance;
+    }
+
+    /**
+     * Drains and stops the process-wide intake if it was ever started.
+     */
+    public static synchronized void shutdownInstance() {
+        if (instance != null) {
+            instance.shutdown();
+        }
+    }
+
+    /**
+     * Queues an already validated request. The future completes with the request id
+     * once the request is committed.
+     *
+     * @throws RejectedExecutionException if the intake is shut down or the queue stayed full
+     */
+    public CompletableFuture<Integer> submit(AppointmentRequest request) {
+        Pending pending = new Pending(request);
+        acceptLock.readLock().lock();
+        try {
+            if (!accepting) {
+                throw new RejectedExecutionException("Request intake is shut down");
+            }
+            if (!queue.offer(pending, offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Request intake queue is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing request");
+        } finally {
+            acceptLock.readLock().unlock();
+        }
+        return pending.future;
+    }
+
+    public int getQueuedCount() {
+        return queue.size();
+    }
+
+    /**
+     * Stops accepting requests and waits until everything queued has been committed.
+     * Safe to call more than once.
+     */
+    public void shutdown() {
+        acceptLock.writeLock().lock();
+        try {
+            accepting = false;
+        } finally {
+            acceptLock.writeLock().unlock();
+        }
+        boolean interrupted = false;
+        while (writer.isAlive()) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (accepting || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(50, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize && accepting) {
+                    long wait = deadline - System.nanoTime();
+                    Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+            } catch (InterruptedException e) {
+                // Only shutdown() stops the writer; keep whatever was taken
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<Pending> batch) {
+        long start = System.nanoTime();
+        try {
+            insert(batch);
+            complete(batch);
+            record(start, false, batch.size());
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error committing request batch, retrying one by one: " + e.getMessage());
+            record(start, true, 0);
+            // One bad row must not fail the others
+            for (Pending pending : batch) {
+                long oneStart = System.nanoTime();
+                try {
+                    insert(Collections.singletonList(pending));
+                    complete(Collections.singletonList(pending));
+                    record(oneStart, false, 1);
+                } catch (SQLException | RuntimeException oneError) {
+                    oneError.printStackTrace();
+                    record(oneStart, true, 0);
+                    pending.future.completeExceptionally(oneError);
+                }
+            }
+        }
+    }
+
+    // Commits the requests whose patient exists and flags the rest
+    private void insert(List<Pending> batch) throws SQLException {
+        storage.inTransaction(tx -> {
+            Set<Integer> patientIds = new HashSet<>();
+            for (Pending pending : batch) {
+                patientIds.add(pending.request.getPatientId());
+            }
+            Set<Integer> existing = patientDAO.findExistingIds(tx, patientIds);
+            List<AppointmentRequest> rows = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                pending.unknownPatient = !existing.contains(pending.request.getPatientId());
+                if (!pending.unknownPatient) {
+                    rows.add(pending.request);
+                }
+            }
+            if (!rows.isEmpty()) {
+                requestDAO.addAppointmentRequestsBatch(tx, rows);
+            }
+            return null;
+        });
+    }
+
+    private static void complete(List<Pending> batch) {
+        DashboardCounters counters = DashboardCounters.getInstance();
+        for (Pending pending : batch) {
+            if (pending.unknownPatient) {
+                pending.future.completeExceptionally(new IllegalArgumentException("Patient not found"));
+            } else {
+                counters.onRequestAdded(pending.request.getSpecialization(), pending.request.getStatus());
+                pending.future.complete(pending.request.getRequestId());
+            }
+        }
+    }
+
+    private static void record(long start, boolean error, int rows) {
+        if (Metrics.isEnabled()) {
+            COMMIT_BATCH.record(start, error, rows);
+        }
+    }
+
+    private static final class Pending {
+        final AppointmentRequest request;
+        final CompletableFuture<Integer> future = new CompletableFuture<>();
+        boolean unknownPatient;
+
+        Pending(AppointmentRequest request) {
+            this.request = request;
+        }
+    }
+}
@@ -3,23 +3,33 @@ package com.hospital.ui;
 import com.hospital.model.Appointment;
 import com.hospital.model.AppointmentRequest;
 import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
 import com.hospital.service.AppointmentService;
+import com.hospital.service.AutoAssignResult;
+import com.hospital.service.AutoAssignmentEngine;
+import com.hospital.service.DashboardCounters;
 import com.hospital.service.DoctorService;
+import com.hospital.service.PatientSearchResult;
+import com.hospital.service.PatientService;
 
-import java.text.SimpleDateFormat;
 import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 
 public class AdminUI {
     private Scanner scanner;
     private AppointmentService appointmentService;
     private DoctorService doctorService;
+    private PatientService patientService;
     private static final String ADMIN_PASSWORD = "admin123"; // Simple password for demo
+    private static final int PAGE_SIZE = 50;
+    private static final int SEARCH_PAGE_SIZE = 20;
 
     public AdminUI() {
         this.scanner = new Scanner(System.in);
         this.appointmentService = new AppointmentService();
         this.doctorService = new DoctorService();
+        this.patientService = new PatientService();
     }
 
     public void start() {
@@ -46,7 +56,10 @@ public class AdminUI {
             System.out.println("4. View All Appointments");
             System.out.println("5. Add New Doctor");
             System.out.println("6. View All Doctors");
-            System.out.println("7. Exit");
+            System.out.println("7. Auto-Assign All Pending Requests");
+            System.out.println("8. View Dashboard Counts");
+            System.out.println("9. Search Patients");
+            System.out.println("10. Exit");
             System.out.print("Choose an option: ");
             
             int choice = scanner.nextInt();
@@ -72,6 +85,15 @@ public class AdminUI {
                     viewAllDoctors();
                     break;
                 case 7:
+                    autoAssignPendingRequests();
+                    break;
+                case 8:
+                    viewDashboardCounts();
+                    break;
+                case 9:
+                    searchPatients();
+                    break;
+                case 10:
                     System.out.println("Exiting Admin Panel...");
                     return;
                 default:
@@ -82,24 +104,35 @@ public class AdminUI {
 
     private void viewPendingRequests() {
         System.out.println("\n========== PENDING APPOINTMENT REQUESTS ==========");
-        List<AppointmentRequest> requests = appointmentService.getPendingRequests();
+        List<AppointmentRequest> requests = appointmentService.getPendingRequestsPage(null, 0, PAGE_SIZE);
         
         if (requests.isEmpty()) {
             System.out.println("No pending appointment requests.");
-        } else {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            System.out.printf("%-10s %-20s %-20s %-15s %-20s %-30s\n",
-                "Request ID", "Patient Name", "Specialization", "Requested Date", "Status", "Description");
-            System.out.println("--------------------------------------------------------------------------------------------------------");
+            return;
+        }
+        
+        TableRenderer table = new TableRenderer(10, 20, 20, 15, 20, 30)
+            .header("Request ID", "Patient Name", "Specialization", "Requested Date", "Status", "Description");
+        while (true) {
             for (AppointmentRequest request : requests) {
-                System.out.printf("%-10d %-20s %-20s %-15s %-20s %-30s\n",
-                    request.getRequestId(),
+                table.row(request.getRequestId(),
                     request.getPatientName(),
                     request.getSpecialization(),
-                    sdf.format(request.getRequestedDate()),
+                    TableRenderer.date(request.getRequestedDate()),
                     request.getStatus(),
                     request.getDescription() != null ? request.getDescription() : "N/A");
             }
+            if (requests.size() < PAGE_SIZE || !table.more(scanner)) {
+                table.flush();
+                return;
+            }
+            // Continue after the last row shown (keyset cursor)
+            AppointmentRequest last = requests.get(requests.size() - 1);
+            requests = appointmentService.getPendingRequestsPage(last.getRequestedDate(), last.getRequestId(), PAGE_SIZE);
+            if (requests.isEmpty()) {
+                System.out.println("No more pending requests.");
+                return;
+            }
         }
     }
 
@@ -144,12 +177,11 @@ public class AdminUI {
         }
         
         System.out.println("\nPending Requests:");
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
         for (AppointmentRequest request : requests) {
             System.out.println("Request ID: " + request.getRequestId() + 
                 " | Patient: " + request.getPatientName() + 
                 " | Specialization: " + request.getSpecialization() + 
-                " | Date: " + sdf.format(request.getRequestedDate()));
+                " | Date: " + TableRenderer.date(request.getRequestedDate()));
         }
         
         System.out.print("\nEnter Request ID: ");
@@ -172,10 +204,11 @@ public class AdminUI {
         
         // Show suitable doctors
         System.out.println("\nAvailable Doctors for " + selectedRequest.getSpecialization() + ":");
-        List<Doctor> suitableDoctors = appointmentService.getSuitableDoctors(selectedRequest.getSpecialization());
+        List<Doctor> suitableDoctors = appointmentService.getSuitableDoctors(
+            selectedRequest.getSpecialization(), selectedRequest.getRequestedDate());
         
         if (suitableDoctors.isEmpty()) {
-            System.out.println("No available doctors found for this specialization.");
+            System.out.println("No available doctors found for this specialization on the requested date.");
             return;
         }
         
@@ -204,26 +237,108 @@ public class AdminUI {
         }
     }
 
+    private void viewDashboardCounts() {
+        DashboardCounters counters = DashboardCounters.getInstance();
+        System.out.println("\n========== DASHBOARD ==========");
+        System.out.println("Pending requests by specialization:");
+        Map<String, Integer> pending = counters.getPendingBySpecialization();
+        if (pending.isEmpty()) {
+            System.out.println("  (none)");
+        }
+        for (Map.Entry<String, Integer> entry : pending.entrySet()) {
+            System.out.printf("  %-20s %d\n", entry.getKey(), entry.getValue());
+        }
+        System.out.println("Requests by status:");
+        for (Map.Entry<String, Integer> entry : counters.getRequestStatusCounts().entrySet()) {
+            System.out.printf("  %-20s %d\n", entry.getKey(), entry.getValue());
+        }
+        System.out.println("Appointments by status:");
+        for (Map.Entry<String, Integer> entry : counters.getAppointmentStatusCounts().entrySet()) {
+            System.out.printf("  %-20s %d\n", entry.getKey(), entry.getValue());
+        }
+    }
+
+    private void searchPatients() {
+        System.out.println("\n========== SEARCH PATIENTS ==========");
+        System.out.print("Enter part of a name, phone number or email: ");
+        String query = scanner.nextLine();
+        int offset = 0;
+        while (true) {
+            PatientSearchResult result;
+            try {
+                result = patientService.searchPatients(query, offset, SEARCH_PAGE_SIZE);
+            } catch (IllegalArgumentException e) {
+                System.out.println("Error: " + e.getMessage());
+                return;
+            }
+            if (result.getTotal() == 0) {
+                System.out.println("No matching patients.");
+                return;
+            }
+            TableRenderer table = new TableRenderer(10, 25, 30, 15).header("Patient ID", "Name", "Email", "Phone");
+            for (Patient patient : result.getPatients()) {
+                table.row(patient.getPatientId(), patient.getName(), patient.getEmail(), patient.getPhone());
+            }
+            table.flush();
+            offset += result.getPatientIds().size();
+            System.out.println("Showing " + offset + " of " + result.getTotal() + " match(es).");
+            if (offset >= result.getTotal() || result.getPatientIds().isEmpty()) {
+                return;
+            }
+            System.out.print("Show more? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+                return;
+            }
+        }
+    }
+
+    private void autoAssignPendingRequests() {
+        System.out.println("\n========== AUTO-ASSIGN PENDING REQUESTS ==========");
+        System.out.print("Assign a doctor to every pending request? (y/n): ");
+        if (!scanner.nextLine().trim().equalsIgnoreCase("y")) {
+            return;
+        }
+        
+        AutoAssignResult result = new AutoAssignmentEngine().assignPending();
+        System.out.println("Assigned: " + result.getAssigned().size() +
+            " | Left pending: " + result.getSkipped().size() +
+            " | Time: " + result.getElapsedMillis() + " ms");
+        for (AutoAssignResult.Skipped skipped : result.getSkipped()) {
+            System.out.println("Request ID: " + skipped.getRequestId() + " | " + skipped.getReason());
+        }
+    }
+
     private void viewAllAppointments() {
         System.out.println("\n========== ALL APPOINTMENTS ==========");
-        List<Appointment> appointments = appointmentService.getAllAppointments();
+        List<Appointment> appointments = appointmentService.getAppointmentsPage(null, 0, PAGE_SIZE);
         
         if (appointments.isEmpty()) {
             System.out.println("No appointments found.");
-        } else {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
-            System.out.printf("%-15s %-20s %-20s %-20s %-15s %-15s\n",
-                "Appointment ID", "Patient Name", "Doctor Name", "Specialization", "Date & Time", "Status");
-            System.out.println("--------------------------------------------------------------------------------------------------------");
+            return;
+        }
+        
+        TableRenderer table = new TableRenderer(15, 20, 20, 20, 16, 15)
+            .header("Appointment ID", "Patient Name", "Doctor Name", "Specialization", "Date & Time", "Status");
+        while (true) {
             for (Appointment appointment : appointments) {
-                System.out.printf("%-15d %-20s %-20s %-20s %-15s %-15s\n",
-                    appointment.getAppointmentId(),
+                table.row(appointment.getAppointmentId(),
                     appointment.getPatientName(),
                     appointment.getDoctorName(),
                     appointment.getSpecialization(),
-                    sdf.format(appointment.getAppointmentDate()),
+                    TableRenderer.dateTime(appointment.getAppointmentDate()),
                     appointment.getStatus());
             }
+            if (appointments.size() < PAGE_SIZE || !table.more(scanner)) {
+                table.flush();
+                return;
+            }
+            // Continue after the last row shown (keyset cursor)
+            Appointment last = appointments.get(appointments.size() - 1);
+            appointments = appointmentService.getAppointmentsPage(last.getAppointmentDate(), last.getAppointmentId(), PAGE_SIZE);
+            if (appointments.isEmpty()) {
+                System.out.println("No more appointments.");
+                return;
+            }
         }
     }
 
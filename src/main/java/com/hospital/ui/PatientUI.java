@@ -16,6 +16,7 @@ public class PatientUI {
     private PatientService patientService;
     private AppointmentService appointmentService;
     private Patient currentPatient;
+    private static final int PAGE_SIZE = 50;
 
     public PatientUI() {
         this.scanner = new Scanner(System.in);
@@ -85,7 +86,8 @@ public class PatientUI {
             int patientId = patientService.registerPatient(patient);
             if (patientId > 0) {
                 System.out.println("\nRegistration successful! Your Patient ID is: " + patientId);
-                currentPatient = patientService.getPatientById(patientId);
+                patient.setPatientId(patientId);
+                currentPatient = patient;
             } else {
                 System.out.println("Registration failed. Please try again.");
             }
@@ -178,41 +180,51 @@ public class PatientUI {
         if (requests.isEmpty()) {
             System.out.println("No appointment requests found.");
         } else {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd");
-            System.out.printf("%-10s %-20s %-15s %-15s %-10s\n", 
-                "Request ID", "Specialization", "Requested Date", "Status", "Description");
-            System.out.println("------------------------------------------------------------------------");
+            TableRenderer table = new TableRenderer(10, 20, 15, 15, 10)
+                .header("Request ID", "Specialization", "Requested Date", "Status", "Description");
             for (AppointmentRequest request : requests) {
-                System.out.printf("%-10d %-20s %-15s %-15s %-10s\n",
-                    request.getRequestId(),
+                table.row(request.getRequestId(),
                     request.getSpecialization(),
-                    sdf.format(request.getRequestedDate()),
+                    TableRenderer.date(request.getRequestedDate()),
                     request.getStatus(),
                     request.getDescription() != null ? request.getDescription() : "N/A");
             }
+            table.flush();
         }
     }
 
     private void viewMyAppointments() {
         System.out.println("\n========== MY CONFIRMED APPOINTMENTS ==========");
-        List<Appointment> appointments = appointmentService.getPatientAppointments(currentPatient.getPatientId());
+        int patientId = currentPatient.getPatientId();
+        List<Appointment> appointments = appointmentService.getPatientAppointmentsPage(patientId, null, 0, PAGE_SIZE);
         
         if (appointments.isEmpty()) {
             System.out.println("No confirmed appointments found.");
-        } else {
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm");
-            System.out.printf("%-15s %-20s %-20s %-15s %-15s\n",
-                "Appointment ID", "Doctor Name", "Specialization", "Date & Time", "Status");
-            System.out.println("----------------------------------------------------------------------------------------");
+            return;
+        }
+        
+        TableRenderer table = new TableRenderer(15, 20, 20, 16, 15)
+            .header("Appointment ID", "Doctor Name", "Specialization", "Date & Time", "Status");
+        while (true) {
             for (Appointment appointment : appointments) {
-                System.out.printf("%-15d %-20s %-20s %-15s %-15s\n",
-                    appointment.getAppointmentId(),
+                table.row(appointment.getAppointmentId(),
                     appointment.getDoctorName(),
                     appointment.getSpecialization(),
-                    sdf.format(appointment.getAppointmentDate()),
+                    TableRenderer.dateTime(appointment.getAppointmentDate()),
                     appointment.getStatus());
             }
+            if (appointments.size() < PAGE_SIZE || !table.more(scanner)) {
+                table.flush();
+                return;
+            }
+            // Continue after the last row shown (keyset cursor)
+            Appointment last = appointments.get(appointments.size() - 1);
+            appointments = appointmentService.getPatientAppointmentsPage(patientId,
+                last.getAppointmentDate(), last.getAppointmentId(), PAGE_SIZE);
+            if (appointments.isEmpty()) {
+                System.out.println("No more appointments.");
+                return;
+            }
         }
     }
 }
-
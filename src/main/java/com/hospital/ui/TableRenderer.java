@@ -0,0 +1,98 @@
+package com.hospital.ui;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Scanner;
+
+/**
+ * Fixed-width console table. Rows are padded into one reused buffer and written
+ * out in large chunks rather than one printf per row, which is what made long
+ * listings crawl over a remote terminal. Dates use shared java.time formatters,
+ * which are immutable and so, unlike SimpleDateFormat, safe to create once.
+ */
+final class TableRenderer {
+    private static final DateTimeFormatter DATE =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd").withZone(ZoneId.systemDefault());
+    private static final DateTimeFormatter DATE_TIME =
+        DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+    private static final int FLUSH_AT = 32 * 1024;
+
+    private final PrintStream out;
+    private final int[] widths;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_AT + 1024);
+
+    /**
+     * @param widths minimum width of each column; longer values are not cut
+     */
+    TableRenderer(PrintStream out, int... widths) {
+        this.out = out;
+        this.widths = widths;
+    }
+
+    TableRenderer(int... widths) {
+        this(System.out, widths);
+    }
+
+    /**
+     * Column titles followed by a rule as wide as the table.
+     */
+    TableRenderer header(String... titles) {
+        row((Object[]) titles);
+        int width = widths.length - 1;
+        for (int w : widths) {
+            width += w;
+        }
+        for (int i = 0; i < width; i++) {
+            buffer.append('-');
+        }
+        buffer.append('\n');
+        return this;
+    }
+
+    TableRenderer row(Object... cells) {
+        for (int i = 0; i < cells.length; i++) {
+            int start = buffer.length();
+            buffer.append(cells[i]);
+            if (i < cells.length - 1) {
+                for (int pad = i < widths.length ? widths[i] - (buffer.length() - start) : 0; pad > 0; pad--) {
+                    buffer.append(' ');
+                }
+                buffer.append(' ');
+            }
+        }
+        buffer.append('\n');
+        if (buffer.length() >= FLUSH_AT) {
+            flush();
+        }
+        return this;
+    }
+
+    void flush() {
+        if (buffer.length() > 0) {
+            out.append(buffer);
+            out.flush();
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Flushes what has been rendered and asks whether to show the next page.
+     */
+    boolean more(Scanner scanner) {
+        flush();
+        out.print("-- Press Enter for more, or 'q' to return: ");
+        out.flush();
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
+    }
+
+    static String date(Date date) {
+        return date == null ? "" : DATE.format(Instant.ofEpochMilli(date.getTime()));
+    }
+
+    static String dateTime(Date date) {
+        return date == null ? "" : DATE_TIME.format(Instant.ofEpochMilli(date.getTime()));
+    }
+}
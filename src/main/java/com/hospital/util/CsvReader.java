@@ -0,0 +1,90 @@
+package com.hospital.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180-style CSV reader: comma separated, double-quoted fields
+ * may contain commas, doubled quotes and line breaks. Records are read one at a
+ * time so arbitrarily large files use constant memory.
+ */
+public class CsvReader implements Closeable {
+    private final BufferedReader reader;
+    private long lineNumber;
+    private long recordStartLine;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader, 64 * 1024);
+    }
+
+    /**
+     * Returns the next record's fields, or null at end of input.
+     */
+    public List<String> readRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        lineNumber++;
+        recordStartLine = lineNumber;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i >= line.length()) {
+                if (quoted) {
+                    // Quoted field continues on the next physical line
+                    String next = reader.readLine();
+                    if (next == null) {
+                        throw new IOException("Unterminated quoted field starting on line " + recordStartLine);
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    line = next;
+                    i = 0;
+                    continue;
+                }
+                fields.add(field.toString());
+                return fields;
+            }
+            char c = line.charAt(i++);
+            if (quoted) {
+                if (c == '"') {
+                    if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+    }
+
+    /**
+     * Line number on which the most recently read record started (1-based).
+     */
+    public long getRecordLineNumber() {
+        return recordStartLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
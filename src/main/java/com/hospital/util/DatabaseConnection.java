@@ -3,12 +3,15 @@ package com.hospital.util;
 import java.io.IOException;
 import java.io.InputStream;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Properties;
 
 public class DatabaseConnection {
     private static Properties properties = null;
+    private static volatile ConnectionPool pool = null;
+    // Null when db.replica.urls is empty; set before pool is published
+    private static volatile ReplicaRouter replicas = null;
+    private static final ThreadLocal<Boolean> READS_ON_PRIMARY = ThreadLocal.withInitial(() -> Boolean.FALSE);
 
     static {
         try {
@@ -19,7 +22,7 @@ public class DatabaseConnection {
         }
     }
 
-    private static Properties loadProperties() {
+    private static synchronized Properties loadProperties() {
         if (properties == null) {
             properties = new Properties();
             try (InputStream input = DatabaseConnection.class.getClassLoader().getResourceAsStream("db.properties")) {
@@ -30,29 +33,114 @@ public class DatabaseConnection {
             } catch (IOException e) {
                 throw new RuntimeException("Error loading properties file", e);
             }
+            // -Ddb.* system properties take precedence over the bundled file
+            for (String key : System.getProperties().stringPropertyNames()) {
+                if (key.startsWith("db.")) {
+                    properties.setProperty(key, System.getProperty(key));
+                }
+            }
         }
         return properties;
     }
 
     /**
-     * Returns a new, dedicated Connection for each call.
-     * Callers should close the Connection (try-with-resources) when done.
+     * Borrows a Connection from the shared pool, traced by QueryTracer unless db.trace.enabled=false.
+     * Callers should close the Connection (try-with-resources) when done; closing
+     * returns it to the pool rather than tearing down the physical connection.
      */
     public static Connection getConnection() {
-        Properties props = loadProperties();
         try {
-            String url = props.getProperty("db.url");
-            String username = props.getProperty("db.username");
-            String password = props.getProperty("db.password");
+            return QueryTracer.wrap(getPool().borrow());
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to establish database connection", e);
+        }
+    }
+
+    /**
+     * Borrows a Connection for a read that can tolerate replica lag (listings, pages,
+     * exports). It comes from a replica in db.replica.urls when one is in rotation,
+     * otherwise from the primary pool. Writes and reads that must see the caller's own
+     * writes use {@link #getConnection()}. While {@link #setReadsOnPrimary} is on for
+     * the calling thread it always comes from the primary.
+     */
+    public static Connection getReadConnection() {
+        if (READS_ON_PRIMARY.get()) {
+            return getConnection();
+        }
+        getPool();
+        ReplicaRouter router = replicas;
+        Connection replica = router == null ? null : router.borrow();
+        return replica != null ? QueryTracer.wrap(replica) : getConnection();
+    }
+
+    /**
+     * Routes this thread's getReadConnection() calls to the primary (or back), for
+     * reads that must not be older than something the caller already observed, such
+     * as a DataVersions stamp. Returns the previous setting, to be restored in a
+     * finally block.
+     */
+    public static boolean setReadsOnPrimary(boolean onPrimary) {
+        boolean previous = READS_ON_PRIMARY.get();
+        READS_ON_PRIMARY.set(onPrimary);
+        return previous;
+    }
+
+    public static boolean isReadingOnPrimary() {
+        return READS_ON_PRIMARY.get();
+    }
 
-            if (url == null || username == null) {
-                throw new RuntimeException("Database configuration properties are missing");
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DatabaseConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = createPool(loadProperties());
+                    replicas = ReplicaRouter.create(loadProperties());
+                    pool = current;
+                }
             }
+        }
+        return current;
+    }
 
-            return DriverManager.getConnection(url, username, password);
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to establish database connection", e);
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        if (replicas != null) {
+            replicas.shutdown();
+            replicas = null;
         }
     }
-}
 
+    private static ConnectionPool createPool(Properties props) {
+        QueryTracer.configure(props);
+        String url = props.getProperty("db.url");
+        String username = props.getProperty("db.username");
+        String password = props.getProperty("db.password");
+
+        if (url == null || username == null) {
+            throw new RuntimeException("Database configuration properties are missing");
+        }
+
+        return new ConnectionPool(url, username, password,
+            intProperty(props, "db.pool.minSize", 2),
+            intProperty(props, "db.pool.maxSize", 10),
+            longProperty(props, "db.pool.idleTimeoutMs", 600000L),
+            longProperty(props, "db.pool.borrowTimeoutMs", 30000L),
+            intProperty(props, "db.pool.validationTimeoutSeconds", 2),
+            longProperty(props, "db.pool.leakDetectionThresholdMs", 0L));
+    }
+
+    static int intProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    static long longProperty(Properties props, String key, long defaultValue) {
+        String value = props.getProperty(key);
+        return value == null || value.trim().isEmpty() ? defaultValue : Long.parseLong(value.trim());
+    }
+}
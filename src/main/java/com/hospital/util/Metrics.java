@@ -0,0 +1,100 @@
+package com.hospital.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Process-wide registry of per-operation metrics. DAO calls are recorded by the
+ * storage engine wrapper (see com.hospital.dao.Storage), service calls by the
+ * services themselves. Counters are cumulative since start-up.
+ *
+ * Recording can be switched off with {@code -Dmetrics.enabled=false}.
+ */
+public final class Metrics {
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("metrics.enabled", "true"));
+    private static final ConcurrentMap<String, OperationMetrics> OPERATIONS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Returns the metrics for the named operation, creating them on first use.
+     */
+    public static OperationMetrics operation(String name) {
+        OperationMetrics metrics = OPERATIONS.get(name);
+        return metrics != null ? metrics : OPERATIONS.computeIfAbsent(name, OperationMetrics::new);
+    }
+
+    /**
+     * Returns a snapshot of every operation that has been called at least once, by name.
+     */
+    public static List<OperationMetrics.Snapshot> snapshot() {
+        List<OperationMetrics.Snapshot> snapshots = new ArrayList<>();
+        for (OperationMetrics metrics : OPERATIONS.values()) {
+            OperationMetrics.Snapshot snapshot = metrics.snapshot();
+            if (snapshot.getCalls() > 0) {
+                snapshots.add(snapshot);
+            }
+        }
+        snapshots.sort(Comparator.comparing(OperationMetrics.Snapshot::getName));
+        return snapshots;
+    }
+
+    /**
+     * Renders the snapshot in the Prometheus text exposition format.
+     */
+    public static String renderText() {
+        List<OperationMetrics.Snapshot> snapshots = snapshot();
+        StringBuilder out = new StringBuilder(256 + snapshots.size() * 512);
+        out.append("# HELP hospital_operation_calls_total Calls per DAO/service operation.\n");
+        out.append("# TYPE hospital_operation_calls_total counter\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_operation_calls_total", s.getName(), null, Long.toString(s.getCalls()));
+        }
+        out.append("# HELP hospital_operation_errors_total Calls that threw or reported failure.\n");
+        out.append("# TYPE hospital_operation_errors_total counter\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_operation_errors_total", s.getName(), null, Long.toString(s.getErrors()));
+        }
+        out.append("# HELP hospital_operation_rows_total Rows returned.\n");
+        out.append("# TYPE hospital_operation_rows_total counter\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_operation_rows_total", s.getName(), null, Long.toString(s.getRows()));
+        }
+        out.append("# HELP hospital_operation_latency_seconds Call latency.\n");
+        out.append("# TYPE hospital_operation_latency_seconds summary\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_operation_latency_seconds", s.getName(), "0.5", seconds(s.getP50Nanos()));
+            line(out, "hospital_operation_latency_seconds", s.getName(), "0.99", seconds(s.getP99Nanos()));
+            line(out, "hospital_operation_latency_seconds", s.getName(), "0.999", seconds(s.getP999Nanos()));
+            line(out, "hospital_operation_latency_seconds_sum", s.getName(), null, seconds(s.getTotalNanos()));
+            line(out, "hospital_operation_latency_seconds_count", s.getName(), null, Long.toString(s.getCalls()));
+        }
+        out.append("# HELP hospital_operation_latency_max_seconds Slowest call.\n");
+        out.append("# TYPE hospital_operation_latency_max_seconds gauge\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_operation_latency_max_seconds", s.getName(), null, seconds(s.getMaxNanos()));
+        }
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, String metric, String operation, String quantile, String value) {
+        out.append(metric).append("{op=\"").append(operation).append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    static String seconds(long nanos) {
+        return String.format(Locale.ROOT, "%.9f", nanos / 1e9);
+    }
+}
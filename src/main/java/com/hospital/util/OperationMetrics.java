@@ -0,0 +1,182 @@
+package com.hospital.util;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Call count, error count, rows returned and a latency histogram for one named
+ * operation (e.g. "PatientDAO.getPatientById"). Obtain instances from
+ * {@link Metrics#operation(String)}; all methods are thread-safe.
+ *
+ * A call counts as an error when it throws or returns a negative int, the
+ * convention the DAOs use for a swallowed SQLException.
+ */
+public final class OperationMetrics {
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Records one finished call that started at {@code startNanos} (from System.nanoTime).
+     */
+    public void record(long startNanos, boolean error, long rowCount) {
+        recordElapsed(System.nanoTime() - startNanos, error, rowCount);
+    }
+
+    /**
+     * Records one finished call that took {@code elapsed} nanoseconds.
+     */
+    public void recordElapsed(long elapsed, boolean error, long rowCount) {
+        calls.increment();
+        totalNanos.add(elapsed);
+        latency.record(elapsed);
+        if (error) {
+            errors.increment();
+        }
+        if (rowCount > 0) {
+            rows.add(rowCount);
+        }
+    }
+
+    /**
+     * Records one call with the outcome inferred from its result: collections and maps
+     * count their size as rows, any other non-null object one row, a negative Integer
+     * is an error. When {@code resultIsRowCount} the int result is the number of rows
+     * (the stream* methods).
+     */
+    public void recordResult(long startNanos, Object result, boolean resultIsRowCount) {
+        long rowCount = 0;
+        boolean error = false;
+        if (result instanceof Collection) {
+            rowCount = ((Collection<?>) result).size();
+        } else if (result instanceof Map) {
+            rowCount = ((Map<?, ?>) result).size();
+        } else if (result instanceof Integer) {
+            int value = (Integer) result;
+            error = value < 0;
+            rowCount = resultIsRowCount ? value : 0;
+        } else if (result != null && !(result instanceof Boolean)) {
+            rowCount = 1;
+        }
+        record(startNanos, error, rowCount);
+    }
+
+    /**
+     * Times the call and records its outcome as {@link #recordResult} does.
+     */
+    public <T> T time(Supplier<T> call) {
+        if (!Metrics.isEnabled()) {
+            return call.get();
+        }
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException | Error e) {
+            record(start, true, 0);
+            throw e;
+        }
+        recordResult(start, result, false);
+        return result;
+    }
+
+    /**
+     * Times an int-returning call; the result is an id (or -1 on failure), or with
+     * {@code resultIsRowCount} the number of rows delivered.
+     */
+    public int timeInt(IntSupplier call, boolean resultIsRowCount) {
+        if (!Metrics.isEnabled()) {
+            return call.getAsInt();
+        }
+        long start = System.nanoTime();
+        int result;
+        try {
+            result = call.getAsInt();
+        } catch (RuntimeException | Error e) {
+            record(start, true, 0);
+            throw e;
+        }
+        record(start, result < 0, resultIsRowCount ? Math.max(result, 0) : 0);
+        return result;
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(name, calls.sum(), errors.sum(), rows.sum(), totalNanos.sum(), latency.snapshot());
+    }
+
+    /**
+     * Point-in-time copy of one operation's numbers. Latencies are in nanoseconds.
+     */
+    public static final class Snapshot {
+        private final String name;
+        private final long calls;
+        private final long errors;
+        private final long rows;
+        private final long totalNanos;
+        private final LatencyHistogram.Snapshot latency;
+
+        private Snapshot(String name, long calls, long errors, long rows, long totalNanos,
+                         LatencyHistogram.Snapshot latency) {
+            this.name = name;
+            this.calls = calls;
+            this.errors = errors;
+            this.rows = rows;
+            this.totalNanos = totalNanos;
+            this.latency = latency;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getMeanNanos() {
+            return calls == 0 ? 0 : totalNanos / calls;
+        }
+
+        public long getP50Nanos() {
+            return latency.quantileNanos(0.50);
+        }
+
+        public long getP99Nanos() {
+            return latency.quantileNanos(0.99);
+        }
+
+        public long getP999Nanos() {
+            return latency.quantileNanos(0.999);
+        }
+
+        public long getMaxNanos() {
+            return latency.getMaxNanos();
+        }
+    }
+}
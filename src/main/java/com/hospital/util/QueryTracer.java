@@ -0,0 +1,547 @@
+package com.hospital.util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Traces every statement run on connections from DatabaseConnection.
+ *
+ * Connections are wrapped in proxies that hand out traced Statements and
+ * PreparedStatements. Each execution records its time (execute plus time spent in
+ * ResultSet.next), rows fetched or updated, and bind parameters. Timings are
+ * aggregated per SQL text (IN lists of any length share one entry); executions
+ * slower than the threshold are written to the slow-query log with their binds.
+ * Binds for patient columns (name, email, phone, age, gender, address,
+ * description), and string binds whose column cannot be worked out, are logged
+ * as {@code <redacted>}.
+ *
+ * Configured from db.properties / -Ddb.* by DatabaseConnection:
+ * <ul>
+ *   <li>{@code db.trace.enabled} - default true</li>
+ *   <li>{@code db.trace.slowQueryMs} - slow-query threshold, default 500</li>
+ *   <li>{@code db.trace.slowQueryLog} - file to append slow queries to; stderr if unset</li>
+ * </ul>
+ */
+public final class QueryTracer {
+    private static final Set<String> REDACTED_COLUMNS = new HashSet<>(Arrays.asList(
+        "name", "email", "phone", "age", "gender", "address", "description"));
+    private static final String REDACTED = "<redacted>";
+
+    private static final ConcurrentMap<String, OperationMetrics> STATEMENTS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, String[]> PARAMETER_COLUMNS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled;
+    private static volatile long slowQueryNanos = 500_000_000L;
+    private static volatile String slowQueryLog;
+
+    private QueryTracer() {
+    }
+
+    static void configure(Properties props) {
+        enabled = Boolean.parseBoolean(props.getProperty("db.trace.enabled", "true").trim());
+        slowQueryNanos = DatabaseConnection.longProperty(props, "db.trace.slowQueryMs", 500L) * 1_000_000L;
+        String log = props.getProperty("db.trace.slowQueryLog");
+        slowQueryLog = log == null || log.trim().isEmpty() ? null : log.trim();
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns a tracing view of the connection, or the connection itself when tracing is off.
+     */
+    static Connection wrap(Connection conn) {
+        if (!enabled) {
+            return conn;
+        }
+        return (Connection) Proxy.newProxyInstance(QueryTracer.class.getClassLoader(),
+            new Class<?>[]{Connection.class}, new ConnectionHandler(conn));
+    }
+
+    /**
+     * Per-SQL statistics, most total database time first. Snapshot names are the SQL text.
+     */
+    public static List<OperationMetrics.Snapshot> snapshot() {
+        List<OperationMetrics.Snapshot> snapshots = new ArrayList<>();
+        for (OperationMetrics metrics : STATEMENTS.values()) {
+            snapshots.add(metrics.snapshot());
+        }
+        snapshots.sort(Comparator.comparingLong(OperationMetrics.Snapshot::getTotalNanos).reversed());
+        return snapshots;
+    }
+
+    /**
+     * Renders the per-SQL statistics in the Prometheus text format.
+     */
+    public static String renderText() {
+        List<OperationMetrics.Snapshot> snapshots = snapshot();
+        StringBuilder out = new StringBuilder(256 + snapshots.size() * 1024);
+        out.append("# HELP hospital_sql_calls_total Executions per SQL text.\n");
+        out.append("# TYPE hospital_sql_calls_total counter\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_sql_calls_total", s.getName(), null, Long.toString(s.getCalls()));
+        }
+        out.append("# HELP hospital_sql_errors_total Executions that threw.\n");
+        out.append("# TYPE hospital_sql_errors_total counter\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_sql_errors_total", s.getName(), null, Long.toString(s.getErrors()));
+        }
+        out.append("# HELP hospital_sql_rows_total Rows fetched or updated.\n");
+        out.append("# TYPE hospital_sql_rows_total counter\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_sql_rows_total", s.getName(), null, Long.toString(s.getRows()));
+        }
+        out.append("# HELP hospital_sql_latency_seconds Database time per execution.\n");
+        out.append("# TYPE hospital_sql_latency_seconds summary\n");
+        for (OperationMetrics.Snapshot s : snapshots) {
+            line(out, "hospital_sql_latency_seconds", s.getName(), "0.5", Metrics.seconds(s.getP50Nanos()));
+            line(out, "hospital_sql_latency_seconds", s.getName(), "0.99", Metrics.seconds(s.getP99Nanos()));
+            line(out, "hospital_sql_latency_seconds", s.getName(), "0.999", Metrics.seconds(s.getP999Nanos()));
+            line(out, "hospital_sql_latency_seconds_sum", s.getName(), null, Metrics.seconds(s.getTotalNanos()));
+            line(out, "hospital_sql_latency_seconds_count", s.getName(), null, Long.toString(s.getCalls()));
+        }
+        return out.toString();
+    }
+
+    private static void line(StringBuilder out, String metric, String sql, String quantile, String value) {
+        out.append(metric).append("{sql=\"");
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+        if (quantile != null) {
+            out.append(",quantile=\"").append(quantile).append('"');
+        }
+        out.append("} ").append(value).append('\n');
+    }
+
+    private static void record(String sql, long elapsedNanos, boolean error, long rows, StatementHandler statement) {
+        OperationMetrics metrics = STATEMENTS.get(sql);
+        if (metrics == null) {
+            metrics = STATEMENTS.computeIfAbsent(sql, OperationMetrics::new);
+        }
+        metrics.recordElapsed(elapsedNanos, error, rows);
+        if (elapsedNanos >= slowQueryNanos) {
+            logSlow(sql, elapsedNanos, error, rows, statement.columns, statement.currentBinds());
+        }
+    }
+
+    private static void logSlow(String sql, long elapsedNanos, boolean error, long rows,
+                                String[] columns, Object[] binds) {
+        String entry = LocalDateTime.now() + " " + String.format(Locale.ROOT, "%.1f", elapsedNanos / 1e6) + " ms"
+            + (error ? " FAILED" : " rows=" + rows) + " " + sql + " binds=" + describeBinds(columns, binds);
+        String file = slowQueryLog;
+        if (file == null) {
+            System.err.println("Slow query: " + entry);
+            return;
+        }
+        synchronized (QueryTracer.class) {
+            try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(file), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(entry);
+                writer.newLine();
+            } catch (IOException e) {
+                System.err.println("Could not write slow-query log: " + e.getMessage());
+            }
+        }
+    }
+
+    static String describeBinds(String[] columns, Object[] binds) {
+        if (binds == null) {
+            return "[]";
+        }
+        StringBuilder out = new StringBuilder("[");
+        for (int i = 1; i < binds.length; i++) {
+            if (i > 1) {
+                out.append(", ");
+            }
+            Object value = binds[i];
+            String column = columns != null && i - 1 < columns.length ? columns[i - 1] : null;
+            if (value == null) {
+                out.append("NULL");
+            } else if (column == null ? value instanceof String : REDACTED_COLUMNS.contains(column)) {
+                out.append(REDACTED);
+            } else if (value instanceof String) {
+                out.append('\'').append(value).append('\'');
+            } else {
+                out.append(value);
+            }
+        }
+        return out.append(']').toString();
+    }
+
+    /**
+     * Collapses "(?, ?, ?)" lists to "(?...)" so IN queries of any length share statistics.
+     */
+    static String normalize(String sql) {
+        StringBuilder out = null;
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '(') {
+                int j = i + 1;
+                int placeholders = 0;
+                boolean list = true;
+                while (j < n && sql.charAt(j) != ')') {
+                    char d = sql.charAt(j);
+                    if (d == '?') {
+                        placeholders++;
+                    } else if (d != ',' && !Character.isWhitespace(d)) {
+                        list = false;
+                        break;
+                    }
+                    j++;
+                }
+                if (list && j < n && placeholders > 1) {
+                    if (out == null) {
+                        out = new StringBuilder(n).append(sql, 0, i);
+                    }
+                    out.append("(?...)");
+                    i = j + 1;
+                    continue;
+                }
+            }
+            if (out != null) {
+                out.append(c);
+            }
+            i++;
+        }
+        return out == null ? sql : out.toString();
+    }
+
+    /**
+     * Works out the column each "?" is compared with or inserted into, lower-cased and
+     * without table alias; null where it cannot tell.
+     */
+    static String[] parameterColumns(String sql) {
+        String[] cached = PARAMETER_COLUMNS.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        List<Integer> positions = new ArrayList<>();
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                positions.add(i);
+            }
+        }
+        String[] columns = new String[positions.size()];
+        String upper = sql.toUpperCase(Locale.ROOT);
+        int values = upper.indexOf("VALUES");
+        List<String> insertColumns = null;
+        if (upper.startsWith("INSERT") && values > 0) {
+            int open = sql.indexOf('(');
+            int close = sql.indexOf(')', open);
+            if (open > 0 && close > open && close < values) {
+                insertColumns = new ArrayList<>();
+                for (String column : sql.substring(open + 1, close).split(",")) {
+                    insertColumns.add(column.trim().toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        for (int k = 0; k < columns.length; k++) {
+            int pos = positions.get(k);
+            if (insertColumns != null && pos > values) {
+                columns[k] = k < insertColumns.size() ? insertColumns.get(k) : null;
+            } else {
+                columns[k] = columnBefore(sql, pos);
+            }
+        }
+        if (PARAMETER_COLUMNS.size() < 10_000) {
+            PARAMETER_COLUMNS.put(sql, columns);
+        }
+        return columns;
+    }
+
+    private static String columnBefore(String sql, int pos) {
+        int i = skipBack(sql, pos - 1);
+        int end = i + 1;
+        while (i >= 0 && isIdentifier(sql.charAt(i))) {
+            i--;
+        }
+        String word = sql.substring(i + 1, end);
+        if ("IN".equalsIgnoreCase(word) || "LIKE".equalsIgnoreCase(word)) {
+            i = skipBack(sql, i);
+            end = i + 1;
+            while (i >= 0 && isIdentifier(sql.charAt(i))) {
+                i--;
+            }
+            word = sql.substring(i + 1, end);
+        }
+        if (word.isEmpty() || Character.isDigit(word.charAt(0)) || isKeyword(word)) {
+            return null;
+        }
+        int dot = word.lastIndexOf('.');
+        return word.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    private static int skipBack(String sql, int i) {
+        while (i >= 0 && " \t\r\n=<>!,?(".indexOf(sql.charAt(i)) >= 0) {
+            i--;
+        }
+        return i;
+    }
+
+    private static boolean isIdentifier(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '.';
+    }
+
+    private static boolean isKeyword(String word) {
+        switch (word.toUpperCase(Locale.ROOT)) {
+            case "LIMIT":
+            case "OFFSET":
+            case "AND":
+            case "OR":
+            case "WHERE":
+            case "SET":
+            case "NOT":
+            case "BETWEEN":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+
+        ConnectionHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TracedConnection[" + target + "]";
+                default:
+                    break;
+            }
+            Object result = QueryTracer.invoke(method, target, args);
+            if (result instanceof Statement && (name.equals("prepareStatement") || name.equals("prepareCall")
+                    || name.equals("createStatement"))) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                    : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(QueryTracer.class.getClassLoader(), new Class<?>[]{type},
+                    new StatementHandler((Statement) result, (Connection) proxy, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Tracks one statement: its binds and the execution whose ResultSet is still open.
+     */
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final Connection connection;
+        private final String preparedSql;
+        private final String[] columns;
+        private Object[] binds;
+        private int bindCount;
+
+        // The execution in progress while its ResultSet is being read
+        private String openSql;
+        private long openNanos;
+        private long openRows;
+
+        StatementHandler(Statement target, Connection connection, String preparedSql) {
+            this.target = target;
+            this.connection = connection;
+            this.preparedSql = preparedSql;
+            this.columns = preparedSql == null ? null : parameterColumns(preparedSql);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "TracedStatement[" + target + "]";
+                case "getConnection":
+                    return connection;
+                case "clearParameters":
+                    bindCount = 0;
+                    break;
+                case "close":
+                    finishOpen();
+                    break;
+                case "executeQuery":
+                    return executeQuery(method, args);
+                case "executeUpdate":
+                case "executeLargeUpdate":
+                case "execute":
+                case "executeBatch":
+                case "executeLargeBatch":
+                    return execute(method, args);
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                        bind((Integer) args[0], name.equals("setNull") ? null : args[1]);
+                    }
+                    break;
+            }
+            return QueryTracer.invoke(method, target, args);
+        }
+
+        private void bind(int index, Object value) {
+            if (binds == null) {
+                binds = new Object[Math.max(index + 1, 8)];
+            } else if (index >= binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index + 1, binds.length * 2));
+            }
+            binds[index] = value;
+            bindCount = Math.max(bindCount, index + 1);
+        }
+
+        private Object[] currentBinds() {
+            return binds == null ? null : Arrays.copyOf(binds, bindCount);
+        }
+
+        private String sqlFor(Object[] args) {
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : preparedSql;
+            return sql == null ? "<unknown>" : normalize(sql);
+        }
+
+        private Object executeQuery(Method method, Object[] args) throws Throwable {
+            finishOpen();
+            String sql = sqlFor(args);
+            long start = System.nanoTime();
+            ResultSet rs;
+            try {
+                rs = (ResultSet) QueryTracer.invoke(method, target, args);
+            } catch (Throwable t) {
+                record(sql, System.nanoTime() - start, true, 0, this);
+                throw t;
+            }
+            openSql = sql;
+            openNanos = System.nanoTime() - start;
+            openRows = 0;
+            return Proxy.newProxyInstance(QueryTracer.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                new ResultSetHandler(rs, this));
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishOpen();
+            String sql = sqlFor(args);
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = QueryTracer.invoke(method, target, args);
+            } catch (Throwable t) {
+                record(sql, System.nanoTime() - start, true, 0, this);
+                throw t;
+            }
+            long elapsed = System.nanoTime() - start;
+            long rows = 0;
+            if (result instanceof Integer || result instanceof Long) {
+                rows = ((Number) result).longValue();
+            } else if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            record(sql, elapsed, false, rows, this);
+            return result;
+        }
+
+        void fetched(long nanos, boolean row) {
+            openNanos += nanos;
+            if (row) {
+                openRows++;
+            }
+        }
+
+        void finishOpen() {
+            if (openSql != null) {
+                record(openSql, openNanos, false, openRows, this);
+                openSql = null;
+            }
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final StatementHandler statement;
+
+        ResultSetHandler(ResultSet target, StatementHandler statement) {
+            this.target = target;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    long start = System.nanoTime();
+                    boolean row = (Boolean) QueryTracer.invoke(method, target, args);
+                    statement.fetched(System.nanoTime() - start, row);
+                    return row;
+                }
+                case "close":
+                    statement.finishOpen();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            return QueryTracer.invoke(method, target, args);
+        }
+    }
+}
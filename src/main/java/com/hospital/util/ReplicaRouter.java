@@ -0,0 +1,178 @@
+package com.hospital.util;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read-only connections spread round-robin over the replicas in db.replica.urls.
+ *
+ * Each replica has its own pool. A background check runs SHOW REPLICA STATUS (or
+ * SHOW SLAVE STATUS on MySQL before 8.0.22) every db.replica.lagCheckIntervalMs and
+ * takes a replica out of rotation while it is unreachable, its replication thread
+ * is stopped, or it is more than db.replica.maxLagSeconds behind. A server that is
+ * not configured as a replica at all reports no status and stays in rotation, which
+ * is what a local two-instance setup looks like.
+ *
+ * {@link #borrow} returns null when no replica is usable; callers then fall back to
+ * the primary.
+ */
+class ReplicaRouter {
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagSeconds;
+    private final ScheduledExecutorService checker;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<Replica> rotation = Collections.emptyList();
+
+    ReplicaRouter(List<String> urls, Properties props) {
+        String username = props.getProperty("db.username");
+        String password = props.getProperty("db.password");
+        for (String url : urls) {
+            replicas.add(new Replica(url, new ConnectionPool(url, username, password,
+                DatabaseConnection.intProperty(props, "db.replica.pool.minSize", 0),
+                DatabaseConnection.intProperty(props, "db.replica.pool.maxSize",
+                    DatabaseConnection.intProperty(props, "db.pool.maxSize", 10)),
+                DatabaseConnection.longProperty(props, "db.pool.idleTimeoutMs", 600000L),
+                DatabaseConnection.longProperty(props, "db.replica.pool.borrowTimeoutMs", 1000L),
+                DatabaseConnection.intProperty(props, "db.pool.validationTimeoutSeconds", 2),
+                DatabaseConnection.longProperty(props, "db.pool.leakDetectionThresholdMs", 0L))));
+        }
+        this.maxLagSeconds = DatabaseConnection.longProperty(props, "db.replica.maxLagSeconds", 5L);
+        long interval = DatabaseConnection.longProperty(props, "db.replica.lagCheckIntervalMs", 5000L);
+
+        // First check runs now so the rotation is known before the first read
+        checkAll();
+        this.checker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-lag-check");
+            t.setDaemon(true);
+            return t;
+        });
+        checker.scheduleWithFixedDelay(this::checkAll, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns null when the property lists no replica URLs.
+     */
+    static ReplicaRouter create(Properties props) {
+        String value = props.getProperty("db.replica.urls", "");
+        List<String> urls = new ArrayList<>();
+        for (String url : value.split(",")) {
+            if (!url.trim().isEmpty()) {
+                urls.add(url.trim());
+            }
+        }
+        return urls.isEmpty() ? null : new ReplicaRouter(urls, props);
+    }
+
+    /**
+     * Borrows a connection from the next replica in rotation, or returns null if none
+     * is usable. A replica that fails to hand out a connection leaves the rotation
+     * until its next successful check.
+     */
+    Connection borrow() {
+        List<Replica> current = rotation;
+        for (int attempt = 0; attempt < current.size(); attempt++) {
+            Replica replica = current.get(Math.floorMod(next.getAndIncrement(), current.size()));
+            try {
+                return replica.pool.borrow();
+            } catch (SQLException e) {
+                System.err.println("Replica " + replica.url + " out of rotation: " + e.getMessage());
+                markDown(replica);
+            }
+        }
+        return null;
+    }
+
+    void shutdown() {
+        checker.shutdownNow();
+        for (Replica replica : replicas) {
+            replica.pool.shutdown();
+        }
+    }
+
+    private void checkAll() {
+        for (Replica replica : replicas) {
+            String reason;
+            try {
+                long lag = measureLag(replica);
+                reason = lag > maxLagSeconds ? "lag " + lag + "s exceeds " + maxLagSeconds + "s" : null;
+            } catch (SQLException | RuntimeException e) {
+                reason = e.getMessage();
+            }
+            if (reason == null && !replica.healthy) {
+                System.err.println("Replica " + replica.url + " back in rotation");
+            } else if (reason != null && replica.healthy) {
+                System.err.println("Replica " + replica.url + " out of rotation: " + reason);
+            }
+            replica.healthy = reason == null;
+        }
+        updateRotation();
+    }
+
+    /**
+     * Seconds behind the source, or -1 if the server reports no replication status.
+     */
+    private static long measureLag(Replica replica) throws SQLException {
+        try (Connection conn = replica.pool.borrow();
+             Statement stmt = conn.createStatement()) {
+            ResultSet rs;
+            String column;
+            try {
+                rs = stmt.executeQuery("SHOW REPLICA STATUS");
+                column = "Seconds_Behind_Source";
+            } catch (SQLException e) {
+                // MySQL before 8.0.22
+                rs = stmt.executeQuery("SHOW SLAVE STATUS");
+                column = "Seconds_Behind_Master";
+            }
+            try {
+                if (!rs.next()) {
+                    return -1;
+                }
+                long lag = rs.getLong(column);
+                if (rs.wasNull()) {
+                    throw new SQLException("replication is not running");
+                }
+                return lag;
+            } finally {
+                rs.close();
+            }
+        }
+    }
+
+    private synchronized void markDown(Replica replica) {
+        replica.healthy = false;
+        updateRotation();
+    }
+
+    private synchronized void updateRotation() {
+        List<Replica> healthy = new ArrayList<>();
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy.add(replica);
+            }
+        }
+        rotation = Collections.unmodifiableList(healthy);
+    }
+
+    private static final class Replica {
+        final String url;
+        final ConnectionPool pool;
+        // Starts healthy so the first failed check is logged
+        volatile boolean healthy = true;
+
+        Replica(String url, ConnectionPool pool) {
+            this.url = url;
+            this.pool = pool;
+        }
+    }
+}
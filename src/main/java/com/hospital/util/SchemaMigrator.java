@@ -0,0 +1,136 @@
+package com.hospital.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the versioned scripts under db/migration in order, recording each
+ * applied version in the schema_migrations table so every script runs once.
+ *
+ * database_schema.sql already creates the latest tables and indexes, so on a
+ * fresh database this only records the versions: an index a script would create
+ * is skipped when it already exists. Otherwise it upgrades databases created
+ * from an older schema.
+ */
+public class SchemaMigrator {
+    // Ordered; append new scripts at the end and never edit an applied one
+    private static final String[] MIGRATIONS = {
+        "V1__appointment_and_request_indexes.sql",
+        "V2__appointment_date_index.sql",
+        "V3__archive_tables.sql"
+    };
+
+    private static final Pattern CREATE_INDEX = Pattern.compile(
+        "CREATE\\s+INDEX\\s+(\\w+)\\s+ON\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
+
+    public static int migrate() throws SQLException, IOException {
+        int applied = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE IF NOT EXISTS schema_migrations (" +
+                             "version INT PRIMARY KEY, " +
+                             "script VARCHAR(255) NOT NULL, " +
+                             "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)");
+            }
+
+            Set<Integer> done = new HashSet<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT version FROM schema_migrations")) {
+                while (rs.next()) {
+                    done.add(rs.getInt("version"));
+                }
+            }
+
+            for (String script : MIGRATIONS) {
+                int version = versionOf(script);
+                if (done.contains(version)) {
+                    continue;
+                }
+                System.out.println("Applying migration " + script);
+                // MySQL DDL commits implicitly, so each statement is applied on its own
+                try (Statement stmt = conn.createStatement()) {
+                    for (String sql : readStatements("db/migration/" + script)) {
+                        if (!indexExists(conn, sql)) {
+                            stmt.execute(sql);
+                        }
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(
+                        "INSERT INTO schema_migrations (version, script) VALUES (?, ?)")) {
+                    stmt.setInt(1, version);
+                    stmt.setString(2, script);
+                    stmt.executeUpdate();
+                }
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private static boolean indexExists(Connection conn, String sql) throws SQLException {
+        Matcher m = CREATE_INDEX.matcher(sql);
+        if (!m.lookingAt()) {
+            return false;
+        }
+        try (ResultSet rs = conn.getMetaData().getIndexInfo(conn.getCatalog(), null, m.group(2), false, true)) {
+            while (rs.next()) {
+                if (m.group(1).equalsIgnoreCase(rs.getString("INDEX_NAME"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    static int versionOf(String script) {
+        return Integer.parseInt(script.substring(1, script.indexOf("__")));
+    }
+
+    static List<String> readStatements(String resource) throws IOException {
+        List<String> statements = new ArrayList<>();
+        try (InputStream input = SchemaMigrator.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IOException("Migration script not found: " + resource);
+            }
+            BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            StringBuilder current = new StringBuilder();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String trimmed = line.trim();
+                if (trimmed.isEmpty() || trimmed.startsWith("--")) {
+                    continue;
+                }
+                current.append(line).append('\n');
+                if (trimmed.endsWith(";")) {
+                    String sql = current.toString().trim();
+                    statements.add(sql.substring(0, sql.length() - 1));
+                    current.setLength(0);
+                }
+            }
+            if (current.toString().trim().length() > 0) {
+                statements.add(current.toString().trim());
+            }
+        }
+        return statements;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int applied = migrate();
+        System.out.println(applied == 0 ? "Schema is up to date." : "Applied " + applied + " migration(s).");
+        DatabaseConnection.shutdown();
+    }
+}
@@ -0,0 +1,94 @@
+package com.hospital.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads: the first caller for a key runs the load and
+ * every caller that arrives while it is in flight waits for and shares its result,
+ * so N desks refreshing the same list cost one query instead of N.
+ *
+ * With a TTL above zero a finished result keeps being served for that long (a
+ * micro-cache); with zero only callers that overlap the query share it. Expired
+ * results are dropped whenever a new load starts, so keys that are never asked for
+ * again (e.g. ones carrying a data version) do not pile up. A load that
+ * throws is shared with the callers already waiting but never kept. Results are
+ * shared between callers and must be treated as read-only.
+ */
+public final class SingleFlight<K, V> {
+    private final long ttlNanos;
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+
+    public SingleFlight(long ttlMillis) {
+        this.ttlNanos = Math.max(0, ttlMillis) * 1_000_000L;
+    }
+
+    public V get(K key, Supplier<V> loader) {
+        long now = System.nanoTime();
+        Flight<V> created = new Flight<>();
+        Flight<V> flight = flights.compute(key, (k, current) ->
+            current != null && current.isFresh(now) ? current : created);
+        if (flight != created) {
+            shared.incrementAndGet();
+            try {
+                return flight.result.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        loads.incrementAndGet();
+        if (ttlNanos > 0) {
+            flights.values().removeIf(other -> !other.isFresh(now));
+        }
+        V value;
+        try {
+            value = loader.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(key, created);
+            created.result.completeExceptionally(e);
+            throw e;
+        }
+        if (ttlNanos > 0) {
+            created.expiresAt = System.nanoTime() + ttlNanos;
+        } else {
+            flights.remove(key, created);
+        }
+        created.result.complete(value);
+        return value;
+    }
+
+    /**
+     * Forgets every in-flight and cached result, so the next call for each key runs a
+     * fresh load. Call after a write the next read must see.
+     */
+    public void invalidate() {
+        flights.clear();
+    }
+
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /**
+     * Calls answered with another caller's load.
+     */
+    public long getSharedCount() {
+        return shared.get();
+    }
+
+    private static final class Flight<V> {
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        volatile long expiresAt;
+
+        boolean isFresh(long now) {
+            return !result.isDone() || now - expiresAt < 0;
+        }
+    }
+}
@@ -1,4 +1,6 @@
 -- Hospital Management System Database Schema
+-- Safe to re-run. Indexes are declared with their tables and kept in step with db/migration;
+-- SchemaMigrator records the applied versions and upgrades databases created from an older schema.
 
 CREATE DATABASE IF NOT EXISTS hospital_db;
 USE hospital_db;
@@ -37,7 +39,9 @@ CREATE TABLE IF NOT EXISTS appointment_requests (
     status VARCHAR(20) DEFAULT 'PENDING',
     description TEXT,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (patient_id) REFERENCES patients(patient_id) ON DELETE CASCADE
+    FOREIGN KEY (patient_id) REFERENCES patients(patient_id) ON DELETE CASCADE,
+    INDEX idx_requests_status_date (status, requested_date),
+    INDEX idx_requests_patient_date (patient_id, requested_date)
 );
 
 -- Appointments Table
@@ -49,19 +53,46 @@ CREATE TABLE IF NOT EXISTS appointments (
     status VARCHAR(20) DEFAULT 'CONFIRMED',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (patient_id) REFERENCES patients(patient_id) ON DELETE CASCADE,
-    FOREIGN KEY (doctor_id) REFERENCES doctors(doctor_id) ON DELETE CASCADE
+    FOREIGN KEY (doctor_id) REFERENCES doctors(doctor_id) ON DELETE CASCADE,
+    INDEX idx_appointments_doctor_date_status (doctor_id, appointment_date, status),
+    INDEX idx_appointments_patient_date (patient_id, appointment_date),
+    INDEX idx_appointments_date (appointment_date)
+);
+
+-- Archive Tables (rows past archive.afterDays are moved here by HistoryArchiver)
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    appointment_id INT PRIMARY KEY,
+    patient_id INT NOT NULL,
+    doctor_id INT NOT NULL,
+    appointment_date TIMESTAMP NOT NULL,
+    status VARCHAR(20),
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_appointments_archive_patient_date (patient_id, appointment_date)
+);
+
+CREATE TABLE IF NOT EXISTS appointment_requests_archive (
+    request_id INT PRIMARY KEY,
+    patient_id INT NOT NULL,
+    specialization VARCHAR(100) NOT NULL,
+    requested_date DATE NOT NULL,
+    status VARCHAR(20),
+    description TEXT,
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_requests_archive_patient_date (patient_id, requested_date)
 );
 
--- Insert Sample Data
+-- Insert Sample Data (skipped on re-runs, emails are unique)
 
 -- Sample Patients
-INSERT INTO patients (name, email, phone, age, gender, address) VALUES
+INSERT IGNORE INTO patients (name, email, phone, age, gender, address) VALUES
 ('John Doe', 'john.doe@email.com', '1234567890', 35, 'M', '123 Main St, City'),
 ('Jane Smith', 'jane.smith@email.com', '0987654321', 28, 'F', '456 Oak Ave, City'),
 ('Bob Johnson', 'bob.johnson@email.com', '1122334455', 45, 'M', '789 Pine Rd, City');
 
 -- Sample Doctors
-INSERT INTO doctors (name, specialization, email, phone, qualification, experience, available) VALUES
+INSERT IGNORE INTO doctors (name, specialization, email, phone, qualification, experience, available) VALUES
 ('Dr. Sarah Williams', 'Cardiology', 'sarah.williams@hospital.com', '1111111111', 'MD, Cardiology', 10, TRUE),
 ('Dr. Michael Brown', 'Neurology', 'michael.brown@hospital.com', '2222222222', 'MD, Neurology', 15, TRUE),
 ('Dr. Emily Davis', 'General', 'emily.davis@hospital.com', '3333333333', 'MD, General Medicine', 8, TRUE),
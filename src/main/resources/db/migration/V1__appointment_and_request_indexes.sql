@@ -0,0 +1,14 @@
+-- V1: secondary indexes for the availability check, pending queue and patient history views
+
+-- AppointmentDAO.checkDoctorAvailability: doctor_id = ? AND appointment_date in [day, day+1) AND status = ?
+-- (doctor_id leads, so this also serves the doctor_id foreign key)
+CREATE INDEX idx_appointments_doctor_date_status ON appointments (doctor_id, appointment_date, status);
+
+-- AppointmentDAO.getAppointmentsByPatientId: patient_id = ? ORDER BY appointment_date DESC
+CREATE INDEX idx_appointments_patient_date ON appointments (patient_id, appointment_date);
+
+-- AppointmentRequestDAO.getAllPendingRequests: status = 'PENDING' ORDER BY requested_date
+CREATE INDEX idx_requests_status_date ON appointment_requests (status, requested_date);
+
+-- AppointmentRequestDAO.getRequestsByPatientId: patient_id = ? ORDER BY requested_date DESC
+CREATE INDEX idx_requests_patient_date ON appointment_requests (patient_id, requested_date);
@@ -0,0 +1,5 @@
+-- V2: index for keyset pagination over all appointments
+
+-- AppointmentDAO.getAppointmentsPage / streamAllAppointments: ORDER BY appointment_date DESC, appointment_id DESC
+-- (InnoDB appends the primary key to secondary indexes, so this covers the id tie-breaker)
+CREATE INDEX idx_appointments_date ON appointments (appointment_date);
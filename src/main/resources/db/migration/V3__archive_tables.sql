@@ -0,0 +1,27 @@
+-- V3: archive tables for HistoryArchiver, which moves old rows out of the live tables
+
+-- Same columns as the live tables plus archived_at; ids are kept, so no AUTO_INCREMENT and no foreign keys
+CREATE TABLE IF NOT EXISTS appointments_archive (
+    appointment_id INT PRIMARY KEY,
+    patient_id INT NOT NULL,
+    doctor_id INT NOT NULL,
+    appointment_date TIMESTAMP NOT NULL,
+    status VARCHAR(20),
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS appointment_requests_archive (
+    request_id INT PRIMARY KEY,
+    patient_id INT NOT NULL,
+    specialization VARCHAR(100) NOT NULL,
+    requested_date DATE NOT NULL,
+    status VARCHAR(20),
+    description TEXT,
+    created_at TIMESTAMP NULL,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- getAppointmentsByPatientId / getRequestsByPatientId with includeArchived
+CREATE INDEX idx_appointments_archive_patient_date ON appointments_archive (patient_id, appointment_date);
+CREATE INDEX idx_requests_archive_patient_date ON appointment_requests_archive (patient_id, requested_date);
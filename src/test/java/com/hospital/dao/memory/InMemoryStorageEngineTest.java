@@ -0,0 +1,296 @@
+package com.hospital.dao.memory;
+
+import com.hospital.dao.PatientDAO;
+import com.hospital.dao.StorageEngine;
+import com.hospital.dao.Transaction;
+import com.hospital.model.Appointment;
+import com.hospital.model.AppointmentRequest;
+import com.hospital.model.Doctor;
+import com.hospital.model.Patient;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class InMemoryStorageEngineTest {
+    private static final long DAY = 24L * 60 * 60 * 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final InMemoryStorageEngine engine = new InMemoryStorageEngine();
+
+    @Test
+    public void rollbackUndoesAnAdd() throws SQLException {
+        int patientId;
+        try (Transaction tx = engine.begin()) {
+            patientId = engine.patients().addPatient(tx, patient("Ann", "ann@example.org"));
+            assertNotNull(engine.patients().getPatientById(patientId));
+            tx.rollback();
+        }
+        assertNull(engine.patients().getPatientById(patientId));
+        assertNull(engine.patients().getPatientByEmail("ann@example.org"));
+        // The email is free again
+        assertTrue(engine.patients().addPatient(patient("Ann", "ann@example.org")) > 0);
+    }
+
+    @Test
+    public void closingWithoutCommitRollsBack() throws SQLException {
+        try (Transaction tx = engine.begin()) {
+            engine.patients().addPatient(tx, patient("Ann", "ann@example.org"));
+        }
+        assertTrue(engine.patients().getAllPatients().isEmpty());
+    }
+
+    @Test
+    public void rollbackUndoesAnUpdate() throws SQLException {
+        int patientId = engine.patients().addPatient(patient("Ann", "ann@example.org"));
+        int doctorId = engine.doctors().addDoctor(doctor("Dr Bo", "bo@example.org"));
+        Date day = new Date(System.currentTimeMillis() + 7 * DAY);
+        int appointmentId = engine.appointments().addAppointment(new Appointment(patientId, doctorId, day, "CONFIRMED"));
+        assertFalse(engine.appointments().checkDoctorAvailability(doctorId, day));
+
+        try (Transaction tx = engine.begin()) {
+            assertTrue(engine.appointments().updateAppointmentStatus(tx, appointmentId, "CANCELLED"));
+            assertTrue(engine.appointments().checkDoctorAvailability(tx, doctorId, day));
+            tx.rollback();
+        }
+        assertEquals("CONFIRMED", engine.appointments().getAppointmentById(appointmentId).getStatus());
+        assertFalse(engine.appointments().checkDoctorAvailability(doctorId, day));
+    }
+
+    @Test
+    public void committedWorkSurvivesALaterRollback() throws SQLException {
+        try (Transaction tx = engine.begin()) {
+            engine.patients().addPatient(tx, patient("Ann", "ann@example.org"));
+            tx.commit();
+            engine.patients().addPatient(tx, patient("Ben", "ben@example.org"));
+            tx.rollback();
+        }
+        assertNotNull(engine.patients().getPatientByEmail("ann@example.org"));
+        assertNull(engine.patients().getPatientByEmail("ben@example.org"));
+    }
+
+    @Test
+    public void rollbackUndoesAnArchive() throws SQLException {
+        int patientId = engine.patients().addPatient(patient("Ann", "ann@example.org"));
+        int doctorId = engine.doctors().addDoctor(doctor("Dr Bo", "bo@example.org"));
+        Date old = new Date(System.currentTimeMillis() - 400 * DAY);
+        int appointmentId = engine.appointments().addAppointment(new Appointment(patientId, doctorId, old, "COMPLETED"));
+        int requestId = engine.requests().addAppointmentRequest(new AppointmentRequest(patientId, "Cardiology", old, "APPROVED"));
+        Date cutoff = new Date(System.currentTimeMillis() - 365 * DAY);
+
+        try (Transaction tx = engine.begin()) {
+            assertEquals(1, engine.appointments().archiveAppointmentsBefore(tx, cutoff, 100));
+            assertEquals(1, engine.requests().archiveRequestsBefore(tx, cutoff, 100));
+            assertNull(engine.appointments().getAppointmentById(appointmentId));
+            assertEquals(1, engine.appointments().getAppointmentsByPatientId(patientId, true).size());
+            tx.rollback();
+        }
+        assertNotNull(engine.appointments().getAppointmentById(appointmentId));
+        assertEquals(1, engine.appointments().getAppointmentsByPatientId(patientId, false).size());
+        assertEquals(1, engine.appointments().getAppointmentsByPatientId(patientId, true).size());
+        assertNotNull(engine.requests().getRequestById(requestId));
+        assertEquals(1, engine.requests().getRequestsByPatientId(patientId, true).size());
+    }
+
+    @Test
+    public void emailsAreUniqueIgnoringCase() {
+        assertTrue(engine.patients().addPatient(patient("Ann", "Ann@Example.org")) > 0);
+        assertEquals(PatientDAO.DUPLICATE_EMAIL, engine.patients().addPatient(patient("Other Ann", "ann@example.ORG")));
+        assertEquals("Ann", engine.patients().getPatientByEmail("ANN@example.org").getName());
+        assertEquals(1, engine.patients().getAllPatients().size());
+    }
+
+    @Test
+    public void updateKeepsTheStoredEmail() {
+        engine.patients().addPatient(patient("Ann", "Ann@Example.org"));
+        Patient changed = patient("Ann Lee", "ann@example.org");
+        assertTrue(engine.patients().updatePatient(changed));
+        Patient stored = engine.patients().getPatientByEmail("ann@example.org");
+        assertEquals("Ann Lee", stored.getName());
+        assertEquals("Ann@Example.org", stored.getEmail());
+        assertFalse(engine.patients().updatePatient(patient("Nobody", "nobody@example.org")));
+    }
+
+    @Test
+    public void duplicateDoctorEmailIsRejected() throws SQLException {
+        engine.doctors().addDoctor(doctor("Dr Bo", "bo@example.org"));
+        try (Transaction tx = engine.begin()) {
+            engine.doctors().addDoctor(tx, doctor("Dr Bo Two", "BO@example.org"));
+            fail("Expected a duplicate key");
+        } catch (SQLException e) {
+            assertTrue(StorageEngine.isDuplicateKey(e));
+        }
+    }
+
+    @Test
+    public void failedBatchThenRollbackLeavesNothing() throws SQLException {
+        engine.patients().addPatient(patient("Existing", "taken@example.org"));
+        try (Transaction tx = engine.begin()) {
+            engine.patients().addPatient(tx, patient("Ann", "ann@example.org"));
+            List<Patient> batch = Arrays.asList(patient("Ben", "ben@example.org"), patient("Cy", "taken@example.org"));
+            try {
+                engine.patients().addPatientsBatch(tx, batch);
+                fail("Expected a duplicate key");
+            } catch (SQLException e) {
+                assertTrue(StorageEngine.isDuplicateKey(e));
+            }
+            // All or nothing: the batch's first row is gone, the earlier add is not yet
+            assertNull(engine.patients().getPatientByEmail("ben@example.org"));
+            assertNotNull(engine.patients().getPatientByEmail("ann@example.org"));
+            tx.rollback();
+        }
+        assertEquals(1, engine.patients().getAllPatients().size());
+        assertNull(engine.patients().getPatientByEmail("ann@example.org"));
+        assertNull(engine.patients().getPatientByEmail("ben@example.org"));
+        // Both emails can be registered again
+        try (Transaction tx = engine.begin()) {
+            List<Patient> retry = Arrays.asList(patient("Ann", "ann@example.org"), patient("Ben", "ben@example.org"));
+            engine.patients().addPatientsBatch(tx, retry);
+            tx.commit();
+            assertTrue(retry.get(0).getPatientId() > 0);
+        }
+        assertEquals(3, engine.patients().getAllPatients().size());
+    }
+
+    @Test
+    public void requestBatchForAMissingPatientFails() throws SQLException {
+        int patientId = engine.patients().addPatient(patient("Ann", "ann@example.org"));
+        Date day = new Date(System.currentTimeMillis() + DAY);
+        try (Transaction tx = engine.begin()) {
+            engine.requests().addAppointmentRequestsBatch(tx, Arrays.asList(
+                new AppointmentRequest(patientId, "Cardiology", day, "PENDING"),
+                new AppointmentRequest(patientId + 1, "Cardiology", day, "PENDING")));
+            fail("Expected a missing parent");
+        } catch (SQLException e) {
+            assertFalse(StorageEngine.isDuplicateKey(e));
+        }
+        assertTrue(engine.requests().getAllPendingRequests().isEmpty());
+    }
+
+    @Test
+    public void snapshotRoundTrip() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("store.snapshot");
+        InMemoryStorageEngine first = new InMemoryStorageEngine(file, 0);
+        int patientId = first.patients().addPatient(patient("Ann", "ann@example.org"));
+        int doctorId = first.doctors().addDoctor(doctor("Dr Bo", "bo@example.org"));
+        Date old = new Date(System.currentTimeMillis() - 400 * DAY);
+        Date future = new Date(System.currentTimeMillis() + 3 * DAY);
+        first.appointments().addAppointment(new Appointment(patientId, doctorId, old, "COMPLETED"));
+        int upcoming = first.appointments().addAppointment(new Appointment(patientId, doctorId, future, "CONFIRMED"));
+        AppointmentRequest request = new AppointmentRequest(patientId, "Cardiology", future, "PENDING");
+        request.setDescription("Chest pain");
+        int requestId = first.requests().addAppointmentRequest(request);
+        try (Transaction tx = first.begin()) {
+            first.appointments().archiveAppointmentsBefore(tx, new Date(System.currentTimeMillis() - 365 * DAY), 100);
+            tx.commit();
+        }
+        first.shutdown();
+
+        InMemoryStorageEngine second = new InMemoryStorageEngine(file, 0);
+        assertEquals("Ann", second.patients().getPatientByEmail("ann@example.org").getName());
+        assertEquals("Dr Bo", second.doctors().getDoctorById(doctorId).getName());
+        assertEquals("CONFIRMED", second.appointments().getAppointmentById(upcoming).getStatus());
+        assertEquals(1, second.appointments().getAppointmentsByPatientId(patientId, false).size());
+        assertEquals(2, second.appointments().getAppointmentsByPatientId(patientId, true).size());
+        assertEquals("Chest pain", second.requests().getRequestById(requestId).getDescription());
+        assertFalse(second.appointments().checkDoctorAvailability(doctorId, future));
+        // Ids continue after the loaded ones; emails stay unique
+        assertTrue(second.patients().addPatient(patient("Ben", "ben@example.org")) > patientId);
+        assertEquals(PatientDAO.DUPLICATE_EMAIL, second.patients().addPatient(patient("Ann", "ANN@example.org")));
+    }
+
+    @Test
+    public void versionOneSnapshotLoadsWithoutArchives() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("v1.snapshot");
+        long day = System.currentTimeMillis() + 2 * DAY;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(0x484D5331);
+            out.writeInt(1);
+            // patients: last id, count, rows
+            out.writeInt(5);
+            out.writeInt(1);
+            out.writeInt(5);
+            Rows.writeString(out, "Ann");
+            Rows.writeString(out, "ann@example.org");
+            Rows.writeString(out, "555-0100");
+            out.writeInt(40);
+            Rows.writeString(out, "F");
+            Rows.writeString(out, null);
+            // doctors
+            out.writeInt(2);
+            out.writeInt(1);
+            out.writeInt(2);
+            Rows.writeString(out, "Dr Bo");
+            Rows.writeString(out, "Cardiology");
+            Rows.writeString(out, "bo@example.org");
+            Rows.writeString(out, "555-0200");
+            Rows.writeString(out, "MD");
+            out.writeInt(10);
+            out.writeBoolean(true);
+            // appointments: last id, live rows only
+            out.writeInt(9);
+            out.writeInt(1);
+            out.writeInt(9);
+            out.writeInt(5);
+            out.writeInt(2);
+            out.writeLong(day);
+            Rows.writeString(out, "CONFIRMED");
+            // requests: last id, live rows only
+            out.writeInt(3);
+            out.writeInt(1);
+            out.writeInt(3);
+            out.writeInt(5);
+            Rows.writeString(out, "Cardiology");
+            out.writeLong(day);
+            Rows.writeString(out, "PENDING");
+            Rows.writeString(out, "Follow-up");
+        }
+
+        InMemoryStorageEngine engine = new InMemoryStorageEngine(file, 0);
+        assertEquals("Ann", engine.patients().getPatientById(5).getName());
+        assertEquals("Cardiology", engine.doctors().getDoctorById(2).getSpecialization());
+        assertEquals(1, engine.appointments().getAppointmentsByPatientId(5, true).size());
+        assertEquals(3, engine.requests().getAllPendingRequests().get(0).getRequestId());
+        assertEquals(10, engine.appointments().addAppointment(new Appointment(5, 2, new Date(day + DAY), "CONFIRMED")));
+
+        // Saving writes the current version, which loads again
+        engine.snapshot();
+        InMemoryStorageEngine reloaded = new InMemoryStorageEngine(file, 0);
+        assertEquals(2, reloaded.appointments().getAppointmentsByPatientId(5, true).size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void unknownSnapshotVersionIsRefused() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("v9.snapshot");
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file))) {
+            out.writeInt(0x484D5331);
+            out.writeInt(9);
+        }
+        new InMemoryStorageEngine(file, 0);
+    }
+
+    private static Patient patient(String name, String email) {
+        return new Patient(name, email, "555-0100", 30, "F", "1 Main St");
+    }
+
+    private static Doctor doctor(String name, String email) {
+        return new Doctor(name, "Cardiology", email, "555-0200", "MD", 10, true);
+    }
+}
@@ -0,0 +1,85 @@
+package com.hospital.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class QueryTracerTest {
+
+    @Test
+    public void insertColumnsComeFromTheColumnList() {
+        String[] columns = QueryTracer.parameterColumns(
+            "INSERT INTO patients (name, email, phone, age, gender, address) VALUES (?, ?, ?, ?, ?, ?)");
+        assertArrayEquals(new String[]{"name", "email", "phone", "age", "gender", "address"}, columns);
+    }
+
+    @Test
+    public void insertWithMorePlaceholdersThanColumnsLeavesTheRestUnknown() {
+        String[] columns = QueryTracer.parameterColumns("INSERT INTO t (a) VALUES (?, ?)");
+        assertArrayEquals(new String[]{"a", null}, columns);
+    }
+
+    @Test
+    public void comparisonsTakeTheColumnWithoutAlias() {
+        String[] columns = QueryTracer.parameterColumns(
+            "SELECT * FROM appointments a WHERE a.doctor_id = ? AND a.appointment_date >= ? AND Status<>?");
+        assertArrayEquals(new String[]{"doctor_id", "appointment_date", "status"}, columns);
+    }
+
+    @Test
+    public void updateSetAndWhereColumns() {
+        String[] columns = QueryTracer.parameterColumns("UPDATE patients SET name = ?, phone = ? WHERE email = ?");
+        assertArrayEquals(new String[]{"name", "phone", "email"}, columns);
+    }
+
+    @Test
+    public void everyPlaceholderOfAnInListBelongsToItsColumn() {
+        String[] columns = QueryTracer.parameterColumns("SELECT email FROM patients WHERE email IN (?, ?, ?)");
+        assertArrayEquals(new String[]{"email", "email", "email"}, columns);
+    }
+
+    @Test
+    public void likeTakesTheColumnBeforeIt() {
+        String[] columns = QueryTracer.parameterColumns("SELECT * FROM patients p WHERE p.name LIKE ? LIMIT ?");
+        assertArrayEquals(new String[]{"name", null}, columns);
+    }
+
+    @Test
+    public void limitAndOffsetAreNotColumns() {
+        String[] columns = QueryTracer.parameterColumns("SELECT * FROM doctors WHERE doctor_id > ? LIMIT ? OFFSET ?");
+        assertArrayEquals(new String[]{"doctor_id", null, null}, columns);
+    }
+
+    @Test
+    public void sensitiveColumnsAreRedacted() {
+        String[] columns = {"email", "patient_id", "status"};
+        String binds = QueryTracer.describeBinds(columns, new Object[]{null, "a@b.org", 7, "PENDING"});
+        assertEquals("[<redacted>, 7, 'PENDING']", binds);
+    }
+
+    @Test
+    public void stringsBoundToUnknownColumnsAreRedacted() {
+        String[] columns = {null, null, null};
+        String binds = QueryTracer.describeBinds(columns, new Object[]{null, "secret", 42, null});
+        assertEquals("[<redacted>, 42, NULL]", binds);
+    }
+
+    @Test
+    public void bindsBeyondTheKnownColumnsCountAsUnknown() {
+        String binds = QueryTracer.describeBinds(new String[]{"status"}, new Object[]{null, "PENDING", "x", 3});
+        assertEquals("['PENDING', <redacted>, 3]", binds);
+    }
+
+    @Test
+    public void noBinds() {
+        assertEquals("[]", QueryTracer.describeBinds(null, null));
+        assertEquals("[]", QueryTracer.describeBinds(new String[0], new Object[]{null}));
+    }
+
+    @Test
+    public void inListsAreNormalized() {
+        assertEquals("SELECT * FROM t WHERE id IN (?...) AND x = (?)",
+            QueryTracer.normalize("SELECT * FROM t WHERE id IN (?, ?,?) AND x = (?)"));
+    }
+}